@@ -89,6 +89,7 @@ public class Util {
     private static final int DEFAULT_SAFE_FILE_OPERATION_RETRIES = 10;
     private static final String MAX_THREADS_SYSTEM_PROPERTY = "max.bg.threads";
     private static final ExecutorService BACKGROUND_EXECUTOR = makeExecutor("Main");
+    private static final ExecutorService WORLDGEN_EXECUTOR = makeExecutor("Worldgen", getWorldgenThreads());
     private static final ExecutorService IO_POOL = makeIoExecutor("IO-Worker-", false);
     private static final ExecutorService DOWNLOAD_POOL = makeIoExecutor("Download-", true);
     private static final DateTimeFormatter FILENAME_DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH.mm.ss", Locale.ROOT);
@@ -141,13 +142,16 @@ public class Util {
     }
 
     private static ExecutorService makeExecutor(String pServiceName) {
-        int i = Mth.clamp(Runtime.getRuntime().availableProcessors() - 1, 1, getMaxThreads());
+        return makeExecutor(pServiceName, Mth.clamp(Runtime.getRuntime().availableProcessors() - 1, 1, getMaxThreads()));
+    }
+
+    private static ExecutorService makeExecutor(String pServiceName, int pThreads) {
         ExecutorService executorservice;
-        if (i <= 0) {
+        if (pThreads <= 0) {
             executorservice = MoreExecutors.newDirectExecutorService();
         } else {
             AtomicInteger atomicinteger = new AtomicInteger(1);
-            executorservice = new ForkJoinPool(i, p_314383_ -> {
+            executorservice = new ForkJoinPool(pThreads, p_314383_ -> {
                 ForkJoinWorkerThread forkjoinworkerthread = new ForkJoinWorkerThread(p_314383_) {
                     @Override
                     protected void onTermination(Throwable p_211561_) {
@@ -186,10 +190,40 @@ public class Util {
         return 255;
     }
 
+    /**
+     * Neo: Reads the number of chunk generation threads from the {@code neoforge.worldgenThreads} system property. The default takes half of the cores
+     * left over by the server thread, as the background executor keeps running light, saving and packet work next to generation.
+     */
+    private static int getWorldgenThreads() {
+        int i = Mth.clamp((Runtime.getRuntime().availableProcessors() - 1) / 2, 1, getMaxThreads());
+        String s = System.getProperty("neoforge.worldgenThreads");
+        if (s != null) {
+            try {
+                int j = Integer.parseInt(s);
+                if (j >= 1 && j <= 255) {
+                    return j;
+                }
+
+                LOGGER.error("Wrong {} property value '{}'. Should be an integer value between 1 and {}.", "neoforge.worldgenThreads", s, 255);
+            } catch (NumberFormatException numberformatexception) {
+                LOGGER.error("Could not parse {} property value '{}'. Should be an integer value between 1 and {}.", "neoforge.worldgenThreads", s, 255);
+            }
+        }
+
+        return i;
+    }
+
     public static ExecutorService backgroundExecutor() {
         return BACKGROUND_EXECUTOR;
     }
 
+    /**
+     * Neo: Returns the executor dedicated to chunk generation, so that a burst of generation cannot starve the other users of the {@linkplain #backgroundExecutor() background executor}.
+     */
+    public static ExecutorService worldgenExecutor() {
+        return WORLDGEN_EXECUTOR;
+    }
+
     public static ExecutorService ioPool() {
         return IO_POOL;
     }
@@ -200,6 +234,7 @@ public class Util {
 
     public static void shutdownExecutors() {
         shutdownExecutor(BACKGROUND_EXECUTOR);
+        shutdownExecutor(WORLDGEN_EXECUTOR);
         shutdownExecutor(IO_POOL);
     }
 
@@ -2419,7 +2419,7 @@ public class ClientPacketListener extends ClientCommonPacketListenerImpl impleme
             boolean flag1 = pEmptySkyYMask.get(i);
             if (flag || flag1) {
                 pLightEngine.queueSectionData(
-                    pLightLayer, SectionPos.of(pX, j, pZ), flag ? new DataLayer((byte[])pSkyUpdates.next().clone()) : new DataLayer()
+                    pLightLayer, SectionPos.of(pX, j, pZ), flag ? DataLayer.ofData((byte[])pSkyUpdates.next().clone(), pLightLayer) : new DataLayer()
                 );
                 this.level.setSectionDirtyWithNeighbors(pX, j, pZ);
             }
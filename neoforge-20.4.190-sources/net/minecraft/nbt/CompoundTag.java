@@ -1,9 +1,11 @@
 package net.minecraft.nbt;
 
-import com.google.common.collect.Maps;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.Dynamic;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
@@ -32,6 +34,15 @@ public class CompoundTag implements Tag {
         );
     private static final int SELF_SIZE_IN_BYTES = 48;
     private static final int MAP_ENTRY_SIZE_IN_BYTES = 32;
+    /**
+     * Neo: Compounds are backed by an open addressing map sized for this many entries, which keeps the keys and values of small compounds in two short arrays
+     * instead of a table with one node object per entry.
+     */
+    static final int EXPECTED_SIZE = 4;
+    /**
+     * Neo: The keys of loaded compounds repeat across every chunk, entity and item, so they are shared instead of each holding their own copy.
+     */
+    private static final Interner<String> KEY_INTERNER = Interners.newWeakInterner();
     public static final TagType<CompoundTag> TYPE = new TagType.VariableSize<CompoundTag>() {
         public CompoundTag load(DataInput p_128485_, NbtAccounter p_128487_) throws IOException {
             p_128487_.pushDepth();
@@ -53,11 +64,11 @@ public class CompoundTag implements Tag {
 
         private static CompoundTag loadCompound(DataInput p_302338_, NbtAccounter p_302362_) throws IOException {
             p_302362_.accountBytes(48L);
-            Map<String, Tag> map = Maps.newHashMap();
+            Map<String, Tag> map = new Object2ObjectOpenHashMap<>(EXPECTED_SIZE);
 
             byte b0;
             while((b0 = readNamedTagType(p_302338_, p_302362_)) != 0) {
-                String s = p_302362_.readUTF(p_302338_.readUTF());
+                String s = KEY_INTERNER.intern(p_302362_.readUTF(p_302338_.readUTF()));
                 p_302362_.accountBytes(4); //Forge: 4 extra bytes for the object allocation.
                 Tag tag = CompoundTag.readNamedTagData(TagTypes.getType(b0), s, p_302338_, p_302362_);
                 if (map.put(s, tag) == null) {
@@ -171,7 +182,7 @@ public class CompoundTag implements Tag {
     }
 
     public CompoundTag() {
-        this(Maps.newHashMap());
+        this(new Object2ObjectOpenHashMap<>(EXPECTED_SIZE));
     }
 
     @Override
@@ -493,7 +504,12 @@ public class CompoundTag implements Tag {
      * Creates a deep copy of the value held by this tag. Primitive and string tage will return the same tag instance while all other objects will return a new tag instance with the copied data.
      */
     public CompoundTag copy() {
-        Map<String, Tag> map = Maps.newHashMap(Maps.transformValues(this.tags, Tag::copy));
+        Map<String, Tag> map = new Object2ObjectOpenHashMap<>(Math.max(this.tags.size(), EXPECTED_SIZE));
+
+        for(Entry<String, Tag> entry : this.tags.entrySet()) {
+            map.put(entry.getKey(), entry.getValue().copy());
+        }
+
         return new CompoundTag(map);
     }
 
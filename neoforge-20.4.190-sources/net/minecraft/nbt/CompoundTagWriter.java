@@ -0,0 +1,263 @@
+package net.minecraft.nbt;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Neo: Collects the entries of a compound and writes them in the binary format without building a {@link CompoundTag} tree first.
+ * <p>
+ * Entries are kept in the same kind of map a compound tag uses, so a writer holding the same entries put in the same order writes exactly the bytes the
+ * equivalent tag would. Arrays are kept as given instead of being copied, so the writer has to be written before they change.
+ */
+public class CompoundTagWriter {
+    private final Map<String, Object> entries = new Object2ObjectOpenHashMap<>(CompoundTag.EXPECTED_SIZE);
+
+    public CompoundTagWriter put(String pKey, Tag pValue) {
+        this.entries.put(pKey, pValue);
+        return this;
+    }
+
+    public CompoundTagWriter put(String pKey, CompoundTagWriter pValue) {
+        this.entries.put(pKey, pValue);
+        return this;
+    }
+
+    public CompoundTagWriter put(String pKey, CompoundTagWriter.ListWriter pValue) {
+        this.entries.put(pKey, pValue);
+        return this;
+    }
+
+    public CompoundTagWriter put(String pKey, CompoundTagWriter.Encoded pValue) {
+        this.entries.put(pKey, pValue);
+        return this;
+    }
+
+    public CompoundTagWriter putByte(String pKey, byte pValue) {
+        return this.put(pKey, ByteTag.valueOf(pValue));
+    }
+
+    public CompoundTagWriter putInt(String pKey, int pValue) {
+        return this.put(pKey, IntTag.valueOf(pValue));
+    }
+
+    public CompoundTagWriter putLong(String pKey, long pValue) {
+        return this.put(pKey, LongTag.valueOf(pValue));
+    }
+
+    public CompoundTagWriter putBoolean(String pKey, boolean pValue) {
+        return this.put(pKey, ByteTag.valueOf(pValue));
+    }
+
+    public CompoundTagWriter putString(String pKey, String pValue) {
+        this.entries.put(pKey, pValue);
+        return this;
+    }
+
+    public CompoundTagWriter putByteArray(String pKey, byte[] pValue) {
+        this.entries.put(pKey, pValue);
+        return this;
+    }
+
+    public CompoundTagWriter putLongArray(String pKey, long[] pValue) {
+        this.entries.put(pKey, pValue);
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return this.entries.isEmpty();
+    }
+
+    /**
+     * Builds the compound tag holding the same entries, for callers that need the tree after all.
+     * Arrays are wrapped without copying them, while encoded entries are decoded into copies of their tags.
+     */
+    public CompoundTag toTag() {
+        CompoundTag compoundtag = new CompoundTag();
+
+        for(String s : this.entries.keySet()) {
+            compoundtag.put(s, toTag(this.entries.get(s)));
+        }
+
+        return compoundtag;
+    }
+
+    /**
+     * Writes the compound the same way {@link NbtIo#write(CompoundTag, DataOutput)} writes the equivalent tag.
+     */
+    public void writeUnnamed(DataOutput pOutput) throws IOException {
+        DataOutput dataoutput = new NbtIo.StringFallbackDataOutput(pOutput);
+        dataoutput.writeByte(Tag.TAG_COMPOUND);
+        dataoutput.writeUTF("");
+        this.write(dataoutput);
+    }
+
+    /**
+     * Returns the bytes {@link #writeUnnamed(DataOutput)} writes.
+     */
+    public byte[] toByteArray() {
+        ByteArrayOutputStream bytearrayoutputstream = new ByteArrayOutputStream(8192);
+
+        try {
+            this.writeUnnamed(new DataOutputStream(bytearrayoutputstream));
+        } catch (IOException ioexception) {
+            throw new UncheckedIOException(ioexception);
+        }
+
+        return bytearrayoutputstream.toByteArray();
+    }
+
+    void write(DataOutput pOutput) throws IOException {
+        for(String s : this.entries.keySet()) {
+            Object object = this.entries.get(s);
+            byte b0 = getId(object);
+            pOutput.writeByte(b0);
+            if (b0 != Tag.TAG_END) {
+                pOutput.writeUTF(s);
+                writePayload(object, pOutput);
+            }
+        }
+
+        pOutput.writeByte(Tag.TAG_END);
+    }
+
+    private static byte getId(Object pValue) {
+        if (pValue instanceof Tag tag) {
+            return tag.getId();
+        } else if (pValue instanceof String) {
+            return Tag.TAG_STRING;
+        } else if (pValue instanceof byte[]) {
+            return Tag.TAG_BYTE_ARRAY;
+        } else if (pValue instanceof long[]) {
+            return Tag.TAG_LONG_ARRAY;
+        } else if (pValue instanceof CompoundTagWriter) {
+            return Tag.TAG_COMPOUND;
+        } else if (pValue instanceof CompoundTagWriter.ListWriter) {
+            return Tag.TAG_LIST;
+        } else {
+            return ((CompoundTagWriter.Encoded)pValue).id;
+        }
+    }
+
+    private static void writePayload(Object pValue, DataOutput pOutput) throws IOException {
+        if (pValue instanceof Tag tag) {
+            tag.write(pOutput);
+        } else if (pValue instanceof String s) {
+            pOutput.writeUTF(s);
+        } else if (pValue instanceof byte[] abyte) {
+            pOutput.writeInt(abyte.length);
+            pOutput.write(abyte);
+        } else if (pValue instanceof long[] along) {
+            pOutput.writeInt(along.length);
+
+            for(long i : along) {
+                pOutput.writeLong(i);
+            }
+        } else if (pValue instanceof CompoundTagWriter compoundtagwriter) {
+            compoundtagwriter.write(pOutput);
+        } else if (pValue instanceof CompoundTagWriter.ListWriter compoundtagwriter$listwriter) {
+            compoundtagwriter$listwriter.write(pOutput);
+        } else {
+            pOutput.write(((CompoundTagWriter.Encoded)pValue).payload);
+        }
+    }
+
+    private static Tag toTag(Object pValue) {
+        if (pValue instanceof Tag tag) {
+            return tag;
+        } else if (pValue instanceof String s) {
+            return StringTag.valueOf(s);
+        } else if (pValue instanceof byte[] abyte) {
+            return new ByteArrayTag(abyte);
+        } else if (pValue instanceof long[] along) {
+            return new LongArrayTag(along);
+        } else if (pValue instanceof CompoundTagWriter compoundtagwriter) {
+            return compoundtagwriter.toTag();
+        } else if (pValue instanceof CompoundTagWriter.ListWriter compoundtagwriter$listwriter) {
+            return compoundtagwriter$listwriter.toTag();
+        } else {
+            return ((CompoundTagWriter.Encoded)pValue).tag.copy();
+        }
+    }
+
+    /**
+     * A tag encoded once up front, for values that are written over and over again, like the palette entries of chunk sections.
+     * The tag is kept to build trees from and must not be modified.
+     */
+    public static final class Encoded {
+        final byte id;
+        final byte[] payload;
+        final Tag tag;
+
+        private Encoded(Tag pTag, byte[] pPayload) {
+            this.id = pTag.getId();
+            this.payload = pPayload;
+            this.tag = pTag;
+        }
+
+        public static CompoundTagWriter.Encoded of(Tag pTag) {
+            ByteArrayOutputStream bytearrayoutputstream = new ByteArrayOutputStream();
+
+            try {
+                pTag.write(new NbtIo.StringFallbackDataOutput(new DataOutputStream(bytearrayoutputstream)));
+            } catch (IOException ioexception) {
+                throw new UncheckedIOException(ioexception);
+            }
+
+            return new CompoundTagWriter.Encoded(pTag, bytearrayoutputstream.toByteArray());
+        }
+    }
+
+    /**
+     * Collects the elements of a list the same way. Like {@link ListTag}, the list is written with the type of its first element, so all elements must
+     * have the same type.
+     */
+    public static class ListWriter {
+        private final List<Object> elements = new ArrayList<>();
+
+        public CompoundTagWriter.ListWriter add(Tag pValue) {
+            this.elements.add(pValue);
+            return this;
+        }
+
+        public CompoundTagWriter.ListWriter add(CompoundTagWriter pValue) {
+            this.elements.add(pValue);
+            return this;
+        }
+
+        public CompoundTagWriter.ListWriter add(CompoundTagWriter.Encoded pValue) {
+            this.elements.add(pValue);
+            return this;
+        }
+
+        public CompoundTagWriter.ListWriter addString(String pValue) {
+            this.elements.add(pValue);
+            return this;
+        }
+
+        public ListTag toTag() {
+            ListTag listtag = new ListTag();
+
+            for(Object object : this.elements) {
+                listtag.add(CompoundTagWriter.toTag(object));
+            }
+
+            return listtag;
+        }
+
+        void write(DataOutput pOutput) throws IOException {
+            pOutput.writeByte(this.elements.isEmpty() ? Tag.TAG_END : getId(this.elements.get(0)));
+            pOutput.writeInt(this.elements.size());
+
+            for(Object object : this.elements) {
+                writePayload(object, pOutput);
+            }
+        }
+    }
+}
@@ -50,7 +50,13 @@ public class DoubleTag extends NumericTag {
     }
 
     public static DoubleTag valueOf(double pData) {
-        return pData == 0.0 ? ZERO : new DoubleTag(pData);
+        if (pData == 0.0) {
+            return ZERO;
+        } else {
+            // Neo: whole numbers share pooled tags, like the integer tags do
+            int i = (int)pData;
+            return i == pData && i >= -128 && i <= 1024 ? DoubleTag.Cache.cache[i - -128] : new DoubleTag(pData);
+        }
     }
 
     @Override
@@ -139,4 +145,19 @@ public class DoubleTag extends NumericTag {
     public StreamTagVisitor.ValueResult accept(StreamTagVisitor pVisitor) {
         return pVisitor.visit(this.data);
     }
+
+    static class Cache {
+        private static final int HIGH = 1024;
+        private static final int LOW = -128;
+        static final DoubleTag[] cache = new DoubleTag[1153];
+
+        private Cache() {
+        }
+
+        static {
+            for(int i = 0; i < cache.length; ++i) {
+                cache[i] = i == 128 ? ZERO : new DoubleTag((double)(-128 + i));
+            }
+        }
+    }
 }
@@ -50,7 +50,13 @@ public class FloatTag extends NumericTag {
     }
 
     public static FloatTag valueOf(float pData) {
-        return pData == 0.0F ? ZERO : new FloatTag(pData);
+        if (pData == 0.0F) {
+            return ZERO;
+        } else {
+            // Neo: whole numbers share pooled tags, like the integer tags do
+            int i = (int)pData;
+            return i == pData && i >= -128 && i <= 1024 ? FloatTag.Cache.cache[i - -128] : new FloatTag(pData);
+        }
     }
 
     @Override
@@ -138,4 +144,19 @@ public class FloatTag extends NumericTag {
     public StreamTagVisitor.ValueResult accept(StreamTagVisitor pVisitor) {
         return pVisitor.visit(this.data);
     }
+
+    static class Cache {
+        private static final int HIGH = 1024;
+        private static final int LOW = -128;
+        static final FloatTag[] cache = new FloatTag[1153];
+
+        private Cache() {
+        }
+
+        static {
+            for(int i = 0; i < cache.length; ++i) {
+                cache[i] = i == 128 ? ZERO : new FloatTag((float)(-128 + i));
+            }
+        }
+    }
 }
@@ -1,7 +1,6 @@
 package net.minecraft.nbt;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.mojang.datafixers.util.Pair;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.DynamicOps;
@@ -11,6 +10,7 @@ import com.mojang.serialization.RecordBuilder.AbstractStringBuilder;
 import it.unimi.dsi.fastutil.bytes.ByteArrayList;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collection;
@@ -564,7 +564,7 @@ public class NbtOps implements DynamicOps<Tag> {
                 return DataResult.error(() -> "mergeToMap called with not a map: " + p_129191_, p_129191_);
             } else {
                 CompoundTag compoundtag = (CompoundTag)p_129191_;
-                CompoundTag compoundtag1 = new CompoundTag(Maps.newHashMap(compoundtag.entries()));
+                CompoundTag compoundtag1 = new CompoundTag(new Object2ObjectOpenHashMap<>(compoundtag.entries()));
 
                 for(Entry<String, Tag> entry : p_129190_.entries().entrySet()) {
                     compoundtag1.put(entry.getKey(), entry.getValue());
@@ -1,5 +1,7 @@
 package net.minecraft.nbt;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
@@ -9,7 +11,9 @@ public class StringTag implements Tag {
     private static final int SELF_SIZE_IN_BYTES = 36;
     public static final TagType<StringTag> TYPE = new TagType.VariableSize<StringTag>() {
         public StringTag load(DataInput p_129320_, NbtAccounter p_129322_) throws IOException {
-            return StringTag.valueOf(readAccounted(p_129320_, p_129322_));
+            String s = readAccounted(p_129320_, p_129322_);
+            // Neo: ids and block state names repeat across every loaded chunk and item, so short strings share one tag
+            return s.length() <= MAX_INTERNED_LENGTH ? INTERNER.intern(StringTag.valueOf(s)) : StringTag.valueOf(s);
         }
 
         @Override
@@ -45,6 +49,8 @@ public class StringTag implements Tag {
         }
     };
     private static final StringTag EMPTY = new StringTag("");
+    private static final Interner<StringTag> INTERNER = Interners.newWeakInterner();
+    private static final int MAX_INTERNED_LENGTH = 64;
     private static final char DOUBLE_QUOTE = '"';
     private static final char SINGLE_QUOTE = '\'';
     private static final char ESCAPE = '\\';
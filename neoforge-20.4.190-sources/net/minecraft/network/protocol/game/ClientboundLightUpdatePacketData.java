@@ -65,7 +65,9 @@ public class ClientboundLightUpdatePacketData {
                 pBlockLight.set(p_195745_);
             } else {
                 pSkyLight.set(p_195745_);
-                pUpdates.add(datalayer.copy().getData());
+                // Neo: Uniform layers share their data instead of allocating it, the client copies what it receives
+                int i = datalayer.getUniformValue();
+                pUpdates.add(i != -1 ? new DataLayer(i).toByteArray() : datalayer.getData().clone());
             }
         }
     }
@@ -72,6 +72,7 @@ public class Main {
         OptionSpec<Void> optionspec3 = optionparser.accepts("bonusChest");
         OptionSpec<Void> optionspec4 = optionparser.accepts("forceUpgrade");
         OptionSpec<Void> optionspec5 = optionparser.accepts("eraseCache");
+        OptionSpec<Void> compactRegionsOpt = optionparser.accepts("compactRegions", "Rewrites all region files without dead space before starting the server"); // Neo: offline region file compaction
         OptionSpec<Void> optionspec6 = optionparser.accepts("safeMode", "Loads level with vanilla datapack only");
         OptionSpec<Void> optionspec7 = optionparser.accepts("help").forHelp();
         OptionSpec<String> optionspec8 = optionparser.accepts("universe").withRequiredArg().defaultsTo(".");
@@ -263,6 +264,10 @@ public class Main {
                 );
             }
 
+            if (optionset.has(compactRegionsOpt)) {
+                net.minecraft.world.level.chunk.storage.RegionFileCompactor.compactLevel(levelstoragesource$levelstorageaccess, registryaccess$frozen.registryOrThrow(Registries.LEVEL_STEM));
+            }
+
             WorldData worlddata = worldstem.worldData();
             levelstoragesource$levelstorageaccess.saveDataTag(registryaccess$frozen, worlddata);
             final MinecraftServer dedicatedserver = MinecraftServer.spin(
@@ -81,8 +81,10 @@ import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.server.level.ServerPlayerGameMode;
 import net.minecraft.server.level.TicketType;
+import net.minecraft.server.level.WorldGenScheduler;
 import net.minecraft.server.level.progress.ChunkProgressListener;
 import net.minecraft.server.level.progress.ChunkProgressListenerFactory;
+import net.minecraft.server.network.ChunkSendScheduler;
 import net.minecraft.server.network.ServerConnectionListener;
 import net.minecraft.server.network.TextFilter;
 import net.minecraft.server.packs.PackType;
@@ -247,6 +249,8 @@ public abstract class MinecraftServer extends ReentrantBlockableEventLoop<TickTa
     private MinecraftServer.ReloadableResources resources;
     private final StructureTemplateManager structureTemplateManager;
     private final ServerTickRateManager tickRateManager;
+    private final ChunkSendScheduler chunkSendScheduler = new ChunkSendScheduler();
+    private final WorldGenScheduler worldGenScheduler = new WorldGenScheduler();
     protected final WorldData worldData;
     private volatile boolean isSaving;
 
@@ -1024,9 +1028,9 @@ public abstract class MinecraftServer extends ReentrantBlockableEventLoop<TickTa
         }
 
         this.profiler.popPush("send chunks");
+        this.chunkSendScheduler.sendChunks(this.playerList.getPlayers());
 
         for(ServerPlayer serverplayer : this.playerList.getPlayers()) {
-            serverplayer.connection.chunkSender.sendNextChunks(serverplayer);
             serverplayer.connection.resumeFlushing();
         }
 
@@ -1331,6 +1335,20 @@ public abstract class MinecraftServer extends ReentrantBlockableEventLoop<TickTa
         return this.stopped;
     }
 
+    /**
+     * Neo: Returns the scheduler sharing the chunk send budget between players, which also exposes the send queue metrics of every player.
+     */
+    public ChunkSendScheduler getChunkSendScheduler() {
+        return this.chunkSendScheduler;
+    }
+
+    /**
+     * Neo: Returns the scheduler limiting how many chunks of each status are generated at once, which also exposes the queue metrics of every status.
+     */
+    public WorldGenScheduler getWorldGenScheduler() {
+        return this.worldGenScheduler;
+    }
+
     public PlayerList getPlayerList() {
         return this.playerList;
     }
@@ -1786,6 +1804,22 @@ public abstract class MinecraftServer extends ReentrantBlockableEventLoop<TickTa
             writer.write(String.format(Locale.ROOT, "average_tick_time: %f\n", this.getCurrentSmoothedTickTime()));
             writer.write(String.format(Locale.ROOT, "tick_times: %s\n", Arrays.toString(this.tickTimesNanos)));
             writer.write(String.format(Locale.ROOT, "queue: %s\n", Util.backgroundExecutor()));
+            writer.write(String.format(Locale.ROOT, "worldgen_queue: %s\n", Util.worldgenExecutor()));
+
+            for(WorldGenScheduler.QueueMetrics worldgenscheduler$queuemetrics : this.worldGenScheduler.getQueueMetrics()) {
+                writer.write(
+                    String.format(
+                        Locale.ROOT,
+                        "worldgen_%s: limit=%d running=%d queued=%d peak_queued=%d completed=%d\n",
+                        worldgenscheduler$queuemetrics.status(),
+                        worldgenscheduler$queuemetrics.limit(),
+                        worldgenscheduler$queuemetrics.running(),
+                        worldgenscheduler$queuemetrics.queueDepth(),
+                        worldgenscheduler$queuemetrics.peakQueueDepth(),
+                        worldgenscheduler$queuemetrics.completed()
+                    )
+                );
+            }
         }
     }
 
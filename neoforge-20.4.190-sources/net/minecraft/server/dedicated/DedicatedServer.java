@@ -50,6 +50,7 @@ import net.minecraft.world.level.GameRules;
 import net.minecraft.world.level.GameType;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.entity.SkullBlockEntity;
+import net.minecraft.world.level.chunk.storage.RegionFileVersion;
 import net.minecraft.world.level.storage.LevelStorageSource;
 import org.slf4j.Logger;
 
@@ -133,6 +134,7 @@ public class DedicatedServer extends MinecraftServer implements ServerInterface
         this.setEnforceWhitelist(dedicatedserverproperties.enforceWhitelist);
         this.worldData.setGameType(dedicatedserverproperties.gamemode);
         LOGGER.info("Default game type: {}", dedicatedserverproperties.gamemode);
+        RegionFileVersion.configure(dedicatedserverproperties.regionFileCompression);
         InetAddress inetaddress = null;
         if (!this.getLocalIp().isEmpty()) {
             inetaddress = InetAddress.getByName(this.getLocalIp());
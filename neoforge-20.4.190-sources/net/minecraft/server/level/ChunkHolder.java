@@ -19,6 +19,7 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.core.SectionPos;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.ClientboundBlockUpdatePacket;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
 import net.minecraft.network.protocol.game.ClientboundLightUpdatePacket;
 import net.minecraft.network.protocol.game.ClientboundSectionBlocksUpdatePacket;
 import net.minecraft.util.DebugBuffer;
@@ -81,6 +82,12 @@ public class ChunkHolder {
     LevelChunk currentlyLoading; // Forge: Used to bypass future chain when loading chunks.
     private CompletableFuture<Void> pendingFullStateConfirmation = CompletableFuture.completedFuture(null);
     private CompletableFuture<?> sendSync = CompletableFuture.completedFuture(null);
+    // Neo: The last full chunk packet built for this chunk, shared by every player it is sent to until the chunk changes
+    @Nullable
+    private ClientboundLevelChunkWithLightPacket cachedChunkPacket;
+    @Nullable
+    private LevelChunk cachedChunkPacketSource;
+    private int cachedChunkPacketVersion;
 
     public ChunkHolder(
         ChunkPos pPos,
@@ -180,6 +187,7 @@ public class ChunkHolder {
     }
 
     public void blockChanged(BlockPos pPos) {
+        this.cachedChunkPacket = null;
         LevelChunk levelchunk = this.getTickingChunk();
         if (levelchunk != null) {
             int i = this.levelHeightAccessor.getSectionIndex(pPos.getY());
@@ -193,6 +201,7 @@ public class ChunkHolder {
     }
 
     public void sectionLightChanged(LightLayer pType, int pSectionY) {
+        this.cachedChunkPacket = null;
         Either<ChunkAccess, ChunkHolder.ChunkLoadingFailure> either = this.getFutureIfPresent(ChunkStatus.INITIALIZE_LIGHT).getNow(null);
         if (either != null) {
             ChunkAccess chunkaccess = either.left().orElse(null);
@@ -215,8 +224,16 @@ public class ChunkHolder {
         }
     }
 
+    /**
+     * Neo: Returns whether changes have been recorded that {@link #broadcastChanges(LevelChunk)} has not sent yet.
+     */
+    public boolean hasChangesToBroadcast() {
+        return this.hasChangedSections || !this.skyChangedLightSectionFilter.isEmpty() || !this.blockChangedLightSectionFilter.isEmpty();
+    }
+
     public void broadcastChanges(LevelChunk pChunk) {
         if (this.hasChangedSections || !this.skyChangedLightSectionFilter.isEmpty() || !this.blockChangedLightSectionFilter.isEmpty()) {
+            this.cachedChunkPacket = null;
             Level level = pChunk.getLevel();
             if (!this.skyChangedLightSectionFilter.isEmpty() || !this.blockChangedLightSectionFilter.isEmpty()) {
                 List<ServerPlayer> list = this.playerProvider.getPlayers(this.pos, true);
@@ -265,6 +282,33 @@ public class ChunkHolder {
         }
     }
 
+    /**
+     * Neo: Returns the full chunk packet for the given chunk, reusing the one built for an earlier player as long as the chunk has not changed since.
+     * Building the packet encodes every section, the heightmaps, the block entities and the light, which is wasted work when many players load the same chunk.
+     * <p>
+     * The cached packet is dropped whenever this holder records a block or light change, and it is checked against {@link LevelChunk#getModificationCount()}
+     * to catch changes made without notifying the holder, such as block entity updates.
+     *
+     * @see ChunkMap#getChunkPacket(LevelChunk)
+     */
+    ClientboundLevelChunkWithLightPacket getChunkPacket(LevelChunk pChunk) {
+        int i = pChunk.getModificationCount();
+        ClientboundLevelChunkWithLightPacket clientboundlevelchunkwithlightpacket = this.cachedChunkPacket;
+        if (clientboundlevelchunkwithlightpacket == null || this.cachedChunkPacketSource != pChunk || this.cachedChunkPacketVersion != i) {
+            clientboundlevelchunkwithlightpacket = new ClientboundLevelChunkWithLightPacket(pChunk, this.lightEngine, null, null);
+            this.cachedChunkPacket = clientboundlevelchunkwithlightpacket;
+            this.cachedChunkPacketSource = pChunk;
+            this.cachedChunkPacketVersion = i;
+        }
+
+        return clientboundlevelchunkwithlightpacket;
+    }
+
+    void clearChunkPacket() {
+        this.cachedChunkPacket = null;
+        this.cachedChunkPacketSource = null;
+    }
+
     private void broadcastBlockEntityIfNeeded(List<ServerPlayer> pPlayers, Level pLevel, BlockPos pPos, BlockState pState) {
         if (pState.hasBlockEntity()) {
             this.broadcastBlockEntity(pPlayers, pLevel, pPos);
@@ -342,6 +386,13 @@ public class ChunkHolder {
         return this.pos;
     }
 
+    /**
+     * Neo: Returns whether the ticket level got worse since the futures were last updated, see {@link DistanceManager#processPendingDemotions(ChunkMap)}.
+     */
+    boolean isDemoting() {
+        return this.ticketLevel > this.oldTicketLevel;
+    }
+
     public int getTicketLevel() {
         return this.ticketLevel;
     }
@@ -17,18 +17,24 @@ import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2ByteMap;
 import it.unimi.dsi.fastutil.longs.Long2ByteOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2LongLinkedOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2LongMap;
 import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongList;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap.Entry;
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import java.io.IOException;
 import java.io.Writer;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -58,6 +64,7 @@ import net.minecraft.core.registries.Registries;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.ClientboundChunksBiomesPacket;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
 import net.minecraft.network.protocol.game.ClientboundSetChunkCacheCenterPacket;
 import net.minecraft.server.level.progress.ChunkProgressListener;
 import net.minecraft.server.network.ServerPlayerConnection;
@@ -107,6 +114,22 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
     public static final int MIN_VIEW_DISTANCE = 2;
     public static final int MAX_VIEW_DISTANCE = 32;
     public static final int FORCED_TICKET_LEVEL = ChunkLevel.byStatus(FullChunkStatus.ENTITY_TICKING);
+    // Neo: The number of chunks whose last built chunk packet is kept for other players loading them, 0 disables the cache
+    private static final int CHUNK_PACKET_CACHE_SIZE = Integer.parseInt(System.getProperty("neoforge.chunkPacketCacheSize", "1024"));
+    /**
+     * Neo: The number of chunks that dropped out of range but are kept in memory for up to {@link #CHUNK_RETENTION_TIME} milliseconds, so that coming
+     * back to them, for example when flying along a view distance boundary, does not read and decode them again. {@code 0} unloads chunks right away.
+     */
+    private static final int CHUNK_RETENTION_LIMIT = Integer.parseInt(System.getProperty("neoforge.chunkRetentionLimit", "1024"));
+    private static final long CHUNK_RETENTION_TIME = Long.parseLong(System.getProperty("neoforge.chunkRetentionTime", "30000"));
+    /**
+     * Neo: The time in minutes between background compactions of the region files of a level, {@code 0} only compacts them through the {@code compactregions} command.
+     * Region files with at least {@link #REGION_COMPACTION_MIN_DEAD_SPACE} unused space are rewritten whenever the IO worker has nothing else to do.
+     */
+    private static final long REGION_COMPACTION_INTERVAL = Long.parseLong(System.getProperty("neoforge.regionCompactionInterval", "60")) * 60000L;
+    private static final float REGION_COMPACTION_MIN_DEAD_SPACE = Float.parseFloat(System.getProperty("neoforge.regionCompactionMinDeadSpace", "0.25"));
+    // Neo: The number of players that need a new chunk tracking view in the same tick before their differences are computed in parallel
+    private static final int PARALLEL_TRACKING_UPDATES = 4;
     /**
      * Chunks in memory. This should only ever be manipulated by the main thread.
      */
@@ -132,6 +155,10 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
      * Chunks that have been requested to be unloaded, but haven't been unloaded yet.
      */
     final LongSet toDrop = new LongOpenHashSet();
+    /**
+     * Neo: Chunks that are out of range but not yet added to {@link #toDrop}, by the time they went out of range, oldest first.
+     */
+    private final Long2LongLinkedOpenHashMap retainedChunks = new Long2LongLinkedOpenHashMap();
     /**
      * True if changes have been made to {@link #loadedChunks} and thus a new copy of the collection has to be made into {@link #immutableLoadedChunks}.
      */
@@ -147,10 +174,18 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
     private final String storageName;
     private final PlayerMap playerMap = new PlayerMap();
     private final Int2ObjectMap<ChunkMap.TrackedEntity> entityMap = new Int2ObjectOpenHashMap<>();
+    // Neo: Spatial indexes of the tracked entities and players, and the tracked entities seen by each connection, so tracking updates only visit what is in range
+    private final TrackingGrid<ChunkMap.TrackedEntity> trackedEntities = new TrackingGrid<>();
+    private final TrackingGrid<ServerPlayer> trackedPlayers = new TrackingGrid<>();
+    private final Map<ServerPlayerConnection, Set<ChunkMap.TrackedEntity>> seenEntities = new Reference2ObjectOpenHashMap<>();
+    // Neo: Holders with a cached chunk packet, least recently sent first
+    private final Long2ObjectLinkedOpenHashMap<ChunkHolder> chunkPacketCache = new Long2ObjectLinkedOpenHashMap<>();
     private final Long2ByteMap chunkTypeCache = new Long2ByteOpenHashMap();
     private final Long2LongMap chunkSaveCooldowns = new Long2LongOpenHashMap();
     private final Queue<Runnable> unloadQueue = Queues.newConcurrentLinkedQueue();
     private int serverViewDistance;
+    private long nextRegionCompaction = Util.getMillis() + REGION_COMPACTION_INTERVAL;
+    private boolean compactingRegions;
 
     public ChunkMap(
         ServerLevel pLevel,
@@ -183,7 +218,8 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
 
         this.chunkGeneratorState = pGenerator.createState(registryaccess.lookupOrThrow(Registries.STRUCTURE_SET), this.randomState, i);
         this.mainThreadExecutor = pMainThreadExecutor;
-        ProcessorMailbox<Runnable> processormailbox1 = ProcessorMailbox.create(pDispatcher, "worldgen");
+        // Neo: Generate chunks on their own pool, so generation cannot starve the light engine and other background work
+        ProcessorMailbox<Runnable> processormailbox1 = ProcessorMailbox.create(Util.worldgenExecutor(), "worldgen");
         ProcessorHandle<Runnable> processorhandle = ProcessorHandle.of("main", pMainThreadExecutor::tell);
         this.progressListener = pProgressListener;
         this.chunkStatusListener = pChunkStatusListener;
@@ -420,9 +456,14 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
 
             if (pHolder != null) {
                 if (!ChunkLevel.isLoaded(pNewLevel)) {
-                    this.toDrop.add(pChunkPos);
+                    if (CHUNK_RETENTION_LIMIT > 0) {
+                        this.retainedChunks.putAndMoveToLast(pChunkPos, Util.getMillis());
+                    } else {
+                        this.toDrop.add(pChunkPos);
+                    }
                 } else {
                     this.toDrop.remove(pChunkPos);
+                    this.retainedChunks.remove(pChunkPos);
                 }
             }
 
@@ -480,6 +521,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                     .forEach(p_203051_ -> mutableboolean.setTrue());
             } while(mutableboolean.isTrue());
 
+            this.releaseRetainedChunks(true);
             this.processUnloads(() -> true);
             this.flushWorker();
         } else {
@@ -494,23 +536,44 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         profilerfiller.popPush("chunk_unload");
         if (!this.level.noSave()) {
             this.processUnloads(pHasMoreTime);
+            this.tickRegionCompaction();
         }
 
         profilerfiller.pop();
     }
 
+    /**
+     * Neo: Starts compacting the region files of this level once {@link #REGION_COMPACTION_INTERVAL} has passed since the last compaction finished.
+     */
+    private void tickRegionCompaction() {
+        if (REGION_COMPACTION_INTERVAL > 0L && !this.compactingRegions && Util.getMillis() >= this.nextRegionCompaction) {
+            this.compactingRegions = true;
+            this.compactRegions(REGION_COMPACTION_MIN_DEAD_SPACE).whenComplete((result, throwable) -> this.level.getServer().execute(() -> {
+                this.compactingRegions = false;
+                this.nextRegionCompaction = Util.getMillis() + REGION_COMPACTION_INTERVAL;
+                if (throwable != null) {
+                    LOGGER.error("Failed to compact the region files of {}", this.level.dimension().location(), throwable);
+                } else if (result.reclaimed() > 0L || result.failed() > 0) {
+                    LOGGER.info("Compacted the region files of {}, reclaimed {} KiB, {} failed", this.level.dimension().location(), result.reclaimed() / 1024L, result.failed());
+                }
+            }));
+        }
+    }
+
     public boolean hasWork() {
         return this.lightEngine.hasLightWork()
             || !this.pendingUnloads.isEmpty()
             || !this.updatingChunkMap.isEmpty()
             || this.poiManager.hasWork()
             || !this.toDrop.isEmpty()
+            || !this.retainedChunks.isEmpty()
             || !this.unloadQueue.isEmpty()
             || this.queueSorter.hasWork()
             || this.distanceManager.hasTickets();
     }
 
     private void processUnloads(BooleanSupplier pHasMoreTime) {
+        this.releaseRetainedChunks(!this.level.getServer().isRunning());
         LongIterator longiterator = this.toDrop.iterator();
 
         long j;
@@ -518,6 +581,8 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
             j = longiterator.nextLong();
             ChunkHolder chunkholder = this.updatingChunkMap.remove(j);
             if (chunkholder != null) {
+                this.distanceManager.flushPendingDemotion(this, chunkholder);
+                this.forgetChunkPacket(j, chunkholder);
                 this.pendingUnloads.put(j, chunkholder);
                 this.modified = true;
                 ++i;
@@ -543,6 +608,24 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         }
     }
 
+    /**
+     * Neo: Hands the retained chunks that expired, or the oldest ones beyond the retention limit, over to be unloaded.
+     * A retained chunk that comes back into range before then keeps its holder and completed futures, so it is not read from disk again.
+     */
+    private void releaseRetainedChunks(boolean pReleaseAll) {
+        long i = Util.getMillis();
+
+        while(!this.retainedChunks.isEmpty()) {
+            long j = this.retainedChunks.firstLongKey();
+            if (!pReleaseAll && this.retainedChunks.size() <= CHUNK_RETENTION_LIMIT && i - this.retainedChunks.get(j) < CHUNK_RETENTION_TIME) {
+                break;
+            }
+
+            this.retainedChunks.removeFirstLong();
+            this.toDrop.add(j);
+        }
+    }
+
     private void scheduleUnload(long pChunkPos, ChunkHolder pChunkHolder) {
         CompletableFuture<ChunkAccess> completablefuture = pChunkHolder.getChunkToSave();
         completablefuture.thenAcceptAsync(p_203002_ -> {
@@ -551,6 +634,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                 this.scheduleUnload(pChunkPos, pChunkHolder);
             } else {
                 if (this.pendingUnloads.remove(pChunkPos, pChunkHolder) && p_203002_ != null) {
+                    this.forgetChunkPacket(pChunkPos, pChunkHolder); // Neo: The holder may have cached a packet again while its unload was pending
                     if (p_203002_ instanceof LevelChunk) {
                         ((LevelChunk)p_203002_).setLoaded(false);
                         net.neoforged.neoforge.common.NeoForge.EVENT_BUS.post(new net.neoforged.neoforge.event.level.ChunkEvent.Unload(p_203002_));
@@ -683,30 +767,28 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                                     chunkaccess
                                 );
                             } else {
-                                completablefuture1 = pChunkStatus.generate(
-                                    executor,
-                                    this.level,
-                                    this.generator,
-                                    this.structureTemplateManager,
-                                    this.lightEngine,
-                                    p_280966_ -> this.protoChunkToFullChunk(pChunkHolder),
-                                    p_280971_
-                                );
+                                // Neo: Wait for a free slot of the status, failures while starting the step complete the returned future instead of being thrown
+                                completablefuture1 = this.level.getServer().getWorldGenScheduler().schedule(pChunkStatus, executor, () -> {
+                                    try {
+                                        return pChunkStatus.generate(
+                                            executor,
+                                            this.level,
+                                            this.generator,
+                                            this.structureTemplateManager,
+                                            this.lightEngine,
+                                            p_280966_ -> this.protoChunkToFullChunk(pChunkHolder),
+                                            p_280971_
+                                        );
+                                    } catch (Exception exception1) {
+                                        throw this.reportGenerationFailure(exception1, chunkpos);
+                                    }
+                                });
                             }
         
                             this.progressListener.onStatusChange(chunkpos, pChunkStatus);
                             return completablefuture1;
                         } catch (Exception exception) {
-                            exception.getStackTrace();
-                            CrashReport crashreport = CrashReport.forThrowable(exception, "Exception generating new chunk");
-                            CrashReportCategory crashreportcategory = crashreport.addCategory("Chunk to be generated");
-                            crashreportcategory.setDetail("Location", String.format(Locale.ROOT, "%d,%d", chunkpos.x, chunkpos.z));
-                            crashreportcategory.setDetail("Position hash", ChunkPos.asLong(chunkpos.x, chunkpos.z));
-                            crashreportcategory.setDetail("Generator", this.generator);
-                            this.mainThreadExecutor.execute(() -> {
-                                throw new ReportedException(crashreport);
-                            });
-                            throw new ReportedException(crashreport);
+                            throw this.reportGenerationFailure(exception, chunkpos);
                         }
                     },
                     p_214867_ -> {
@@ -718,6 +800,19 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         );
     }
 
+    private ReportedException reportGenerationFailure(Exception pException, ChunkPos pChunkPos) {
+        pException.getStackTrace();
+        CrashReport crashreport = CrashReport.forThrowable(pException, "Exception generating new chunk");
+        CrashReportCategory crashreportcategory = crashreport.addCategory("Chunk to be generated");
+        crashreportcategory.setDetail("Location", String.format(Locale.ROOT, "%d,%d", pChunkPos.x, pChunkPos.z));
+        crashreportcategory.setDetail("Position hash", ChunkPos.asLong(pChunkPos.x, pChunkPos.z));
+        crashreportcategory.setDetail("Generator", this.generator);
+        this.mainThreadExecutor.execute(() -> {
+            throw new ReportedException(crashreport);
+        });
+        return new ReportedException(crashreport);
+    }
+
     protected void releaseLightTicket(ChunkPos pChunkPos) {
         this.mainThreadExecutor
             .tell(
@@ -880,9 +975,15 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                 }
 
                 this.level.getProfiler().incrementCounter("chunkSave");
-                CompoundTag compoundtag = ChunkSerializer.write(this.level, p_140259_);
-                net.neoforged.neoforge.common.NeoForge.EVENT_BUS.post(new net.neoforged.neoforge.event.level.ChunkDataEvent.Save(p_140259_, p_140259_.getWorldForge() != null ? p_140259_.getWorldForge() : this.level, compoundtag));
-                this.write(chunkpos, compoundtag);
+                // Neo: only build the chunk tag if a save listener asks for it, and otherwise write the chunk straight to its serialized form
+                net.neoforged.neoforge.event.level.ChunkDataEvent.Save event = new net.neoforged.neoforge.event.level.ChunkDataEvent.Save(p_140259_, p_140259_.getWorldForge() != null ? p_140259_.getWorldForge() : this.level, () -> ChunkSerializer.write(this.level, p_140259_));
+                net.neoforged.neoforge.common.NeoForge.EVENT_BUS.post(event);
+                CompoundTag compoundtag = event.getDataIfBuilt();
+                if (compoundtag != null) {
+                    this.write(chunkpos, compoundtag);
+                } else {
+                    this.writeSerialized(chunkpos, ChunkSerializer.serialize(this.level, p_140259_));
+                }
                 this.markPosition(chunkpos, chunkstatus.getChunkType());
                 return true;
             } catch (Exception exception) {
@@ -920,10 +1021,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         if (i != this.serverViewDistance) {
             this.serverViewDistance = i;
             this.distanceManager.updatePlayerTickets(this.serverViewDistance);
-
-            for(ServerPlayer serverplayer : this.playerMap.getAllPlayers()) {
-                this.updateChunkTracking(serverplayer);
-            }
+            this.updateChunkTracking(this.playerMap.getAllPlayers());
         }
     }
 
@@ -954,6 +1052,38 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         return chunkholder == null ? null : chunkholder.getChunkToSend();
     }
 
+    /**
+     * Neo: Returns the full chunk packet to send for the given chunk. The packets of the most recently sent chunks are kept and shared between players
+     * until the chunk changes, so chunks loaded by many players, like the spawn area, are only encoded once.
+     */
+    public ClientboundLevelChunkWithLightPacket getChunkPacket(LevelChunk pChunk) {
+        long i = pChunk.getPos().toLong();
+        ChunkHolder chunkholder = this.getVisibleChunkIfPresent(i);
+        if (chunkholder != null && CHUNK_PACKET_CACHE_SIZE > 0) {
+            ClientboundLevelChunkWithLightPacket clientboundlevelchunkwithlightpacket = chunkholder.getChunkPacket(pChunk);
+            ChunkHolder chunkholder1 = this.chunkPacketCache.putAndMoveToLast(i, chunkholder);
+            if (chunkholder1 != null && chunkholder1 != chunkholder) {
+                chunkholder1.clearChunkPacket();
+            }
+
+            while(this.chunkPacketCache.size() > CHUNK_PACKET_CACHE_SIZE) {
+                this.chunkPacketCache.removeFirst().clearChunkPacket();
+            }
+
+            return clientboundlevelchunkwithlightpacket;
+        } else {
+            return new ClientboundLevelChunkWithLightPacket(pChunk, this.lightEngine, null, null);
+        }
+    }
+
+    /**
+     * Neo: Drops the cached chunk packet of a holder that is being unloaded, so the cache does not keep the holder and its chunk alive until it is evicted.
+     */
+    private void forgetChunkPacket(long pChunkPos, ChunkHolder pChunkHolder) {
+        this.chunkPacketCache.remove(pChunkPos, pChunkHolder);
+        pChunkHolder.clearChunkPacket();
+    }
+
     public int size() {
         return this.visibleChunkMap.size();
     }
@@ -1111,14 +1241,15 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
     }
 
     public void move(ServerPlayer pPlayer) {
-        for(ChunkMap.TrackedEntity chunkmap$trackedentity : this.entityMap.values()) {
-            if (chunkmap$trackedentity.entity == pPlayer) {
-                chunkmap$trackedentity.updatePlayers(this.level.players());
-            } else {
-                chunkmap$trackedentity.updatePlayer(pPlayer);
-            }
+        ChunkMap.TrackedEntity chunkmap$trackedentity = this.entityMap.get(pPlayer.getId());
+        if (chunkmap$trackedentity != null && chunkmap$trackedentity.entity == pPlayer) {
+            ChunkPos chunkpos = pPlayer.chunkPosition();
+            this.trackedPlayers.update(pPlayer, chunkpos.x, chunkpos.z);
+            chunkmap$trackedentity.updateNearbyPlayers();
         }
 
+        this.updateNearbyEntities(pPlayer);
+
         SectionPos sectionpos = pPlayer.getLastSectionPos();
         SectionPos sectionpos1 = SectionPos.of(pPlayer);
         boolean flag = this.playerMap.ignored(pPlayer);
@@ -1148,30 +1279,79 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
     }
 
     private void updateChunkTracking(ServerPlayer pPlayer) {
+        ChunkTrackingView chunktrackingview = this.getUpdatedChunkTrackingView(pPlayer);
+        if (chunktrackingview != null) {
+            this.applyChunkTrackingView(pPlayer, chunktrackingview);
+        }
+    }
+
+    /**
+     * Neo: Updates the chunk tracking of every given player. When enough players need a new view, for example after many of them teleported at once,
+     * the differences between their old and new views are computed in parallel and only the resulting sends and drops are applied on the main thread.
+     */
+    private void updateChunkTracking(Collection<ServerPlayer> pPlayers) {
+        List<ChunkMap.TrackingViewUpdate> list = new ArrayList<>();
+
+        for(ServerPlayer serverplayer : pPlayers) {
+            ChunkTrackingView chunktrackingview = this.getUpdatedChunkTrackingView(serverplayer);
+            if (chunktrackingview != null) {
+                list.add(new ChunkMap.TrackingViewUpdate(serverplayer, serverplayer.getChunkTrackingView(), chunktrackingview));
+            }
+        }
+
+        if (list.size() < PARALLEL_TRACKING_UPDATES) {
+            for(ChunkMap.TrackingViewUpdate chunkmap$trackingviewupdate : list) {
+                this.applyChunkTrackingView(chunkmap$trackingviewupdate.player(), chunkmap$trackingviewupdate.newView());
+            }
+        } else {
+            list.parallelStream().forEach(ChunkMap.TrackingViewUpdate::computeDifference);
+
+            for(ChunkMap.TrackingViewUpdate chunkmap$trackingviewupdate1 : list) {
+                ServerPlayer serverplayer1 = chunkmap$trackingviewupdate1.player();
+                if (serverplayer1.getChunkTrackingView() != chunkmap$trackingviewupdate1.oldView()) {
+                    // The view was changed by an event fired while applying an earlier update, so the precomputed difference is stale
+                    this.applyChunkTrackingView(serverplayer1, chunkmap$trackingviewupdate1.newView());
+                } else if (serverplayer1.level() == this.level) {
+                    this.updateChunkCacheCenter(serverplayer1, chunkmap$trackingviewupdate1.oldView(), chunkmap$trackingviewupdate1.newView());
+                    LongList longlist = chunkmap$trackingviewupdate1.toSend();
+
+                    for(int i = 0; i < longlist.size(); ++i) {
+                        this.markChunkPendingToSend(serverplayer1, new ChunkPos(longlist.getLong(i)));
+                    }
+
+                    LongList longlist1 = chunkmap$trackingviewupdate1.toDrop();
+
+                    for(int j = 0; j < longlist1.size(); ++j) {
+                        dropChunk(serverplayer1, new ChunkPos(longlist1.getLong(j)));
+                    }
+
+                    serverplayer1.setChunkTrackingView(chunkmap$trackingviewupdate1.newView());
+                }
+            }
+        }
+    }
+
+    /**
+     * Neo: Returns the view the given player should have now, or {@code null} if it has not changed.
+     */
+    @Nullable
+    private ChunkTrackingView getUpdatedChunkTrackingView(ServerPlayer pPlayer) {
         ChunkPos chunkpos = pPlayer.chunkPosition();
         int i = this.getPlayerViewDistance(pPlayer);
         ChunkTrackingView chunktrackingview = pPlayer.getChunkTrackingView();
         if (chunktrackingview instanceof ChunkTrackingView.Positioned chunktrackingview$positioned
             && chunktrackingview$positioned.center().equals(chunkpos)
             && chunktrackingview$positioned.viewDistance() == i) {
-            return;
+            return null;
         }
 
-        this.applyChunkTrackingView(pPlayer, ChunkTrackingView.of(chunkpos, i));
+        return ChunkTrackingView.of(chunkpos, i);
     }
 
     private void applyChunkTrackingView(ServerPlayer pPlayer, ChunkTrackingView pChunkTrackingView) {
         if (pPlayer.level() == this.level) {
             ChunkTrackingView chunktrackingview = pPlayer.getChunkTrackingView();
-            if (pChunkTrackingView instanceof ChunkTrackingView.Positioned chunktrackingview$positioned
-                && (
-                    !(chunktrackingview instanceof ChunkTrackingView.Positioned chunktrackingview$positioned1)
-                        || !chunktrackingview$positioned1.center().equals(chunktrackingview$positioned.center())
-                )) {
-                pPlayer.connection
-                    .send(new ClientboundSetChunkCacheCenterPacket(chunktrackingview$positioned.center().x, chunktrackingview$positioned.center().z));
-            }
-
+            this.updateChunkCacheCenter(pPlayer, chunktrackingview, pChunkTrackingView);
             ChunkTrackingView.difference(
                 chunktrackingview, pChunkTrackingView, p_293802_ -> this.markChunkPendingToSend(pPlayer, p_293802_), p_293800_ -> dropChunk(pPlayer, p_293800_)
             );
@@ -1179,6 +1359,16 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         }
     }
 
+    private void updateChunkCacheCenter(ServerPlayer pPlayer, ChunkTrackingView pOldView, ChunkTrackingView pNewView) {
+        if (pNewView instanceof ChunkTrackingView.Positioned chunktrackingview$positioned
+            && (
+                !(pOldView instanceof ChunkTrackingView.Positioned chunktrackingview$positioned1)
+                    || !chunktrackingview$positioned1.center().equals(chunktrackingview$positioned.center())
+            )) {
+            pPlayer.connection.send(new ClientboundSetChunkCacheCenterPacket(chunktrackingview$positioned.center().x, chunktrackingview$positioned.center().z));
+        }
+    }
+
     /**
      * Returns the players tracking the given chunk.
      */
@@ -1208,15 +1398,13 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                 } else {
                     ChunkMap.TrackedEntity chunkmap$trackedentity = new ChunkMap.TrackedEntity(pEntity, i, j, entitytype.trackDeltas());
                     this.entityMap.put(pEntity.getId(), chunkmap$trackedentity);
-                    chunkmap$trackedentity.updatePlayers(this.level.players());
+                    SectionPos sectionpos = chunkmap$trackedentity.lastSectionPos;
+                    this.trackedEntities.update(chunkmap$trackedentity, sectionpos.x(), sectionpos.z());
+                    chunkmap$trackedentity.updateNearbyPlayers();
                     if (pEntity instanceof ServerPlayer serverplayer) {
+                        this.trackedPlayers.update(serverplayer, sectionpos.x(), sectionpos.z());
                         this.updatePlayerStatus(serverplayer, true);
-
-                        for(ChunkMap.TrackedEntity chunkmap$trackedentity1 : this.entityMap.values()) {
-                            if (chunkmap$trackedentity1.entity != serverplayer) {
-                                chunkmap$trackedentity1.updatePlayer(serverplayer);
-                            }
-                        }
+                        this.updateNearbyEntities(serverplayer);
                     }
                 }
             }
@@ -1226,37 +1414,41 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
     protected void removeEntity(Entity pEntity) {
         if (pEntity instanceof ServerPlayer serverplayer) {
             this.updatePlayerStatus(serverplayer, false);
-
-            for(ChunkMap.TrackedEntity chunkmap$trackedentity : this.entityMap.values()) {
-                chunkmap$trackedentity.removePlayer(serverplayer);
+            Set<ChunkMap.TrackedEntity> set = this.seenEntities.get(serverplayer.connection);
+            if (set != null) {
+                for(ChunkMap.TrackedEntity chunkmap$trackedentity : new ArrayList<>(set)) {
+                    chunkmap$trackedentity.removePlayer(serverplayer);
+                }
             }
+
+            this.trackedPlayers.remove(serverplayer);
         }
 
         ChunkMap.TrackedEntity chunkmap$trackedentity1 = this.entityMap.remove(pEntity.getId());
         if (chunkmap$trackedentity1 != null) {
+            this.trackedEntities.remove(chunkmap$trackedentity1);
             chunkmap$trackedentity1.broadcastRemoved();
         }
     }
 
     protected void tick() {
-        for(ServerPlayer serverplayer : this.playerMap.getAllPlayers()) {
-            this.updateChunkTracking(serverplayer);
-        }
+        this.updateChunkTracking(this.playerMap.getAllPlayers());
 
         List<ServerPlayer> list = Lists.newArrayList();
-        List<ServerPlayer> list1 = this.level.players();
 
         for(ChunkMap.TrackedEntity chunkmap$trackedentity : this.entityMap.values()) {
             SectionPos sectionpos = chunkmap$trackedentity.lastSectionPos;
             SectionPos sectionpos1 = SectionPos.of(chunkmap$trackedentity.entity);
             boolean flag = !Objects.equals(sectionpos, sectionpos1);
             if (flag) {
-                chunkmap$trackedentity.updatePlayers(list1);
+                this.trackedEntities.update(chunkmap$trackedentity, sectionpos1.x(), sectionpos1.z());
                 Entity entity = chunkmap$trackedentity.entity;
-                if (entity instanceof ServerPlayer) {
-                    list.add((ServerPlayer)entity);
+                if (entity instanceof ServerPlayer serverplayer) {
+                    this.trackedPlayers.update(serverplayer, sectionpos1.x(), sectionpos1.z());
+                    list.add(serverplayer);
                 }
 
+                chunkmap$trackedentity.updateNearbyPlayers();
                 chunkmap$trackedentity.lastSectionPos = sectionpos1;
             }
 
@@ -1265,10 +1457,37 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
             }
         }
 
-        if (!list.isEmpty()) {
-            for(ChunkMap.TrackedEntity chunkmap$trackedentity1 : this.entityMap.values()) {
-                chunkmap$trackedentity1.updatePlayers(list);
-            }
+        for(ServerPlayer serverplayer1 : list) {
+            this.updateNearbyEntities(serverplayer1);
+        }
+    }
+
+    /**
+     * Neo: Updates the tracking of every entity that may be within view distance of the given player or is already seen by it.
+     * This replaces visiting every tracked entity whenever a player moves.
+     */
+    private void updateNearbyEntities(ServerPlayer pPlayer) {
+        Set<ChunkMap.TrackedEntity> set = new ReferenceOpenHashSet<>();
+        ChunkPos chunkpos = pPlayer.chunkPosition();
+        this.trackedEntities.collectNear(chunkpos.x, chunkpos.z, this.getPlayerViewDistance(pPlayer) + 1, set);
+        Set<ChunkMap.TrackedEntity> set1 = this.seenEntities.get(pPlayer.connection);
+        if (set1 != null) {
+            set.addAll(set1);
+        }
+
+        for(ChunkMap.TrackedEntity chunkmap$trackedentity : set) {
+            chunkmap$trackedentity.updatePlayer(pPlayer);
+        }
+    }
+
+    void onPairingAdded(ServerPlayerConnection pConnection, ChunkMap.TrackedEntity pEntity) {
+        this.seenEntities.computeIfAbsent(pConnection, connection -> new ReferenceOpenHashSet<>()).add(pEntity);
+    }
+
+    void onPairingRemoved(ServerPlayerConnection pConnection, ChunkMap.TrackedEntity pEntity) {
+        Set<ChunkMap.TrackedEntity> set = this.seenEntities.get(pConnection);
+        if (set != null && set.remove(pEntity) && set.isEmpty()) {
+            this.seenEntities.remove(pConnection);
         }
     }
 
@@ -1351,6 +1570,20 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         }
     }
 
+    /**
+     * Neo: A pending change of the chunk tracking view of a player. The difference between both views only depends on the views themselves,
+     * so it is safe to compute off the main thread.
+     */
+    static record TrackingViewUpdate(ServerPlayer player, ChunkTrackingView oldView, ChunkTrackingView newView, LongList toSend, LongList toDrop) {
+        TrackingViewUpdate(ServerPlayer player, ChunkTrackingView oldView, ChunkTrackingView newView) {
+            this(player, oldView, newView, new LongArrayList(), new LongArrayList());
+        }
+
+        void computeDifference() {
+            ChunkTrackingView.difference(this.oldView, this.newView, chunkPos -> this.toSend.add(chunkPos.toLong()), chunkPos -> this.toDrop.add(chunkPos.toLong()));
+        }
+    }
+
     class TrackedEntity {
         final ServerEntity serverEntity;
         final Entity entity;
@@ -1394,12 +1627,14 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
 
         public void broadcastRemoved() {
             for(ServerPlayerConnection serverplayerconnection : this.seenBy) {
+                ChunkMap.this.onPairingRemoved(serverplayerconnection, this);
                 this.serverEntity.removePairing(serverplayerconnection.getPlayer());
             }
         }
 
         public void removePlayer(ServerPlayer pPlayer) {
             if (this.seenBy.remove(pPlayer.connection)) {
+                ChunkMap.this.onPairingRemoved(pPlayer.connection, this);
                 this.serverEntity.removePairing(pPlayer);
             }
         }
@@ -1416,9 +1651,11 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                     && ChunkMap.this.isChunkTracked(pPlayer, this.entity.chunkPosition().x, this.entity.chunkPosition().z);
                 if (flag) {
                     if (this.seenBy.add(pPlayer.connection)) {
+                        ChunkMap.this.onPairingAdded(pPlayer.connection, this);
                         this.serverEntity.addPairing(pPlayer);
                     }
                 } else if (this.seenBy.remove(pPlayer.connection)) {
+                    ChunkMap.this.onPairingRemoved(pPlayer.connection, this);
                     this.serverEntity.removePairing(pPlayer);
                 }
             }
@@ -1446,5 +1683,23 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                 this.updatePlayer(serverplayer);
             }
         }
+
+        /**
+         * Neo: Updates the tracking of this entity for every player that may be within its tracking range or already sees it, instead of every player in the level.
+         */
+        public void updateNearbyPlayers() {
+            Set<ServerPlayer> set = new ReferenceOpenHashSet<>();
+            ChunkPos chunkpos = this.entity.chunkPosition();
+            int i = Math.min(this.getEffectiveRange() >> 4, ChunkMap.this.serverViewDistance) + 1;
+            ChunkMap.this.trackedPlayers.collectNear(chunkpos.x, chunkpos.z, i, set);
+
+            for(ServerPlayerConnection serverplayerconnection : this.seenBy) {
+                set.add(serverplayerconnection.getPlayer());
+            }
+
+            for(ServerPlayer serverplayer : set) {
+                this.updatePlayer(serverplayer);
+            }
+        }
     }
 }
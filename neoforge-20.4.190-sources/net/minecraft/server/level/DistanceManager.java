@@ -14,12 +14,14 @@ import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongList;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap.Entry;
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import it.unimi.dsi.fastutil.objects.ObjectSet;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -29,6 +31,7 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import javax.annotation.Nullable;
+import net.minecraft.Util;
 import net.minecraft.core.SectionPos;
 import net.minecraft.util.SortedArraySet;
 import net.minecraft.util.thread.ProcessorHandle;
@@ -47,6 +50,13 @@ public abstract class DistanceManager {
     private final TickingTracker tickingTicketsTracker = new TickingTracker();
     private final DistanceManager.PlayerTicketTracker playerTicketManager = new DistanceManager.PlayerTicketTracker(32);
     final Set<ChunkHolder> chunksToUpdateFutures = Sets.newHashSet();
+    /**
+     * Neo: The time spent each tick on demoting chunks whose ticket level got worse, in nanoseconds. Demotions beyond that are left for the next ticks,
+     * so removing a large ticket, such as a big forceloaded area, does not demote thousands of chunks in a single tick. {@code 0} demotes them immediately.
+     */
+    private static final long DEMOTION_BUDGET = Long.parseLong(System.getProperty("neoforge.chunkDemotionBudgetMs", "5")) * 1000000L;
+    private static final int MIN_DEMOTIONS_PER_TICK = 64;
+    private final ReferenceLinkedOpenHashSet<ChunkHolder> pendingDemotions = new ReferenceLinkedOpenHashSet<>();
     final ChunkTaskPriorityQueueSorter ticketThrottler;
     final ProcessorHandle<ChunkTaskPriorityQueueSorter.Message<Runnable>> ticketThrottlerInput;
     final ProcessorHandle<ChunkTaskPriorityQueueSorter.Release> ticketThrottlerReleaser;
@@ -119,7 +129,16 @@ public abstract class DistanceManager {
         }
 
         if (!this.chunksToUpdateFutures.isEmpty()) {
-            this.chunksToUpdateFutures.forEach(p_183908_ -> p_183908_.updateFutures(pChunkManager, this.mainThreadExecutor));
+            for(ChunkHolder chunkholder1 : this.chunksToUpdateFutures) {
+                // Neo: Promotions are applied right away as callers wait for them, demotions are spread over the next ticks
+                if (DEMOTION_BUDGET > 0L && chunkholder1.isDemoting()) {
+                    this.pendingDemotions.add(chunkholder1);
+                } else {
+                    this.pendingDemotions.remove(chunkholder1);
+                    chunkholder1.updateFutures(pChunkManager, this.mainThreadExecutor);
+                }
+            }
+
             this.chunksToUpdateFutures.clear();
             return true;
         } else {
@@ -149,6 +168,32 @@ public abstract class DistanceManager {
         }
     }
 
+    /**
+     * Neo: Demotes the chunks whose ticket level got worse since their futures were last updated, until the time budget of this tick is used up.
+     */
+    public void processPendingDemotions(ChunkMap pChunkManager) {
+        long i = Util.getNanos() + DEMOTION_BUDGET;
+        int j = 0;
+
+        while(!this.pendingDemotions.isEmpty() && (j < MIN_DEMOTIONS_PER_TICK || Util.getNanos() < i)) {
+            this.pendingDemotions.removeFirst().updateFutures(pChunkManager, this.mainThreadExecutor);
+            ++j;
+        }
+    }
+
+    /**
+     * Neo: Applies the pending demotion of the given chunk right away, which has to happen before it is unloaded.
+     */
+    void flushPendingDemotion(ChunkMap pChunkManager, ChunkHolder pChunkHolder) {
+        if (this.pendingDemotions.remove(pChunkHolder)) {
+            pChunkHolder.updateFutures(pChunkManager, this.mainThreadExecutor);
+        }
+    }
+
+    public int getPendingDemotionCount() {
+        return this.pendingDemotions.size();
+    }
+
     void addTicket(long pChunkPos, Ticket<?> pTicket) {
         SortedArraySet<Ticket<?>> sortedarrayset = this.getTickets(pChunkPos);
         int i = getTicketLevelAt(sortedarrayset);
@@ -290,6 +335,22 @@ public abstract class DistanceManager {
         return this.naturalSpawnChunkCounter.chunks.containsKey(pChunkPos);
     }
 
+    /**
+     * Neo: Collects every chunk that may tick this tick, which are the chunks with a player in natural spawning range and the chunks held by a ticket that forces ticks.
+     * Both sets are kept up to date as players move and tickets change, so this only visits chunks that can actually tick rather than every loaded chunk.
+     */
+    public void collectTickingCandidates(LongList pChunks) {
+        this.naturalSpawnChunkCounter.runAllUpdates();
+        LongSet longset = this.naturalSpawnChunkCounter.chunks.keySet();
+        pChunks.addAll(longset);
+
+        for(Entry<SortedArraySet<Ticket<?>>> entry : this.forcedTickets.long2ObjectEntrySet()) {
+            if (!entry.getValue().isEmpty() && !longset.contains(entry.getLongKey())) {
+                pChunks.add(entry.getLongKey());
+            }
+        }
+    }
+
     public String getDebugStatus() {
         return this.ticketThrottler.getDebugStatus();
     }
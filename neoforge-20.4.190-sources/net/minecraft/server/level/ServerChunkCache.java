@@ -1,14 +1,18 @@
 package net.minecraft.server.level;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.Lists;
 import com.mojang.datafixers.DataFixer;
 import com.mojang.datafixers.util.Either;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.function.BooleanSupplier;
@@ -64,6 +68,11 @@ public class ServerChunkCache extends ChunkSource implements net.neoforged.neofo
     @Nullable
     @VisibleForDebug
     private NaturalSpawner.SpawnState lastSpawnState;
+    // Neo: Reused every tick to collect the chunks that may tick, instead of walking every loaded chunk
+    private final LongList tickingCandidates = new LongArrayList();
+    private final List<ServerChunkCache.ChunkAndHolder> tickingChunks = new ArrayList<>();
+    // Neo: Holders that recorded block or light changes since the last broadcast
+    private final Set<ChunkHolder> holdersWithChanges = new ReferenceOpenHashSet<>();
 
     public ServerChunkCache(
         ServerLevel pLevel,
@@ -353,6 +362,7 @@ public class ServerChunkCache extends ChunkSource implements net.neoforged.neofo
         this.level.getProfiler().push("purge");
         this.distanceManager.purgeStaleTickets();
         this.runDistanceManagerUpdates();
+        this.distanceManager.processPendingDemotions(this.chunkMap);
         this.level.getProfiler().popPush("chunks");
         if (pTickChunks) {
             this.tickChunks();
@@ -373,15 +383,22 @@ public class ServerChunkCache extends ChunkSource implements net.neoforged.neofo
             ProfilerFiller profilerfiller = this.level.getProfiler();
             profilerfiller.push("pollingChunks");
             profilerfiller.push("filteringLoadedChunks");
-            List<ServerChunkCache.ChunkAndHolder> list = Lists.newArrayListWithCapacity(this.chunkMap.size());
-
-            for(ChunkHolder chunkholder : this.chunkMap.getChunks()) {
-                LevelChunk levelchunk = chunkholder.getTickingChunk();
-                if (levelchunk != null) {
-                    list.add(new ServerChunkCache.ChunkAndHolder(levelchunk, chunkholder));
+            List<ServerChunkCache.ChunkAndHolder> list = this.tickingChunks;
+            LongList longlist = this.tickingCandidates;
+            this.distanceManager.collectTickingCandidates(longlist);
+
+            for(int i1 = 0; i1 < longlist.size(); ++i1) {
+                ChunkHolder chunkholder = this.getVisibleChunkIfPresent(longlist.getLong(i1));
+                if (chunkholder != null) {
+                    LevelChunk levelchunk = chunkholder.getTickingChunk();
+                    if (levelchunk != null) {
+                        list.add(new ServerChunkCache.ChunkAndHolder(levelchunk, chunkholder));
+                    }
                 }
             }
 
+            longlist.clear();
+
             if (this.level.getServer().tickRateManager().runsNormally()) {
                 profilerfiller.popPush("naturalSpawnCount");
                 int l = this.distanceManager.getNaturalSpawnChunkCount();
@@ -416,8 +433,23 @@ public class ServerChunkCache extends ChunkSource implements net.neoforged.neofo
                 }
             }
 
+            list.clear();
             profilerfiller.popPush("broadcast");
-            list.forEach(p_184022_ -> p_184022_.holder.broadcastChanges(p_184022_.chunk));
+            if (!this.holdersWithChanges.isEmpty()) {
+                // Neo: Only visit the holders that have changes to send. A holder that stopped ticking keeps its place until it ticks again or is unloaded
+                List<ChunkHolder> list1 = new ArrayList<>(this.holdersWithChanges);
+                this.holdersWithChanges.clear();
+
+                for(ChunkHolder chunkholder1 : list1) {
+                    LevelChunk levelchunk2 = chunkholder1.getTickingChunk();
+                    if (levelchunk2 != null) {
+                        chunkholder1.broadcastChanges(levelchunk2);
+                    } else if (chunkholder1.hasChangesToBroadcast() && this.getVisibleChunkIfPresent(chunkholder1.getPos().toLong()) == chunkholder1) {
+                        this.holdersWithChanges.add(chunkholder1);
+                    }
+                }
+            }
+
             profilerfiller.pop();
             profilerfiller.pop();
         }
@@ -466,6 +498,9 @@ public class ServerChunkCache extends ChunkSource implements net.neoforged.neofo
         ChunkHolder chunkholder = this.getVisibleChunkIfPresent(ChunkPos.asLong(i, j));
         if (chunkholder != null) {
             chunkholder.blockChanged(pPos);
+            if (!this.level.isDebug()) { // Neo: Debug worlds never broadcast changes, so they must not collect holders either
+                this.holdersWithChanges.add(chunkholder);
+            }
         }
     }
 
@@ -475,6 +510,9 @@ public class ServerChunkCache extends ChunkSource implements net.neoforged.neofo
             ChunkHolder chunkholder = this.getVisibleChunkIfPresent(pPos.chunk().toLong());
             if (chunkholder != null) {
                 chunkholder.sectionLightChanged(pType, pPos.y());
+                if (!this.level.isDebug()) {
+                    this.holdersWithChanges.add(chunkholder);
+                }
             }
         });
     }
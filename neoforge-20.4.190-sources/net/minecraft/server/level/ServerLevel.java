@@ -129,7 +129,6 @@ import net.minecraft.world.level.chunk.storage.EntityStorage;
 import net.minecraft.world.level.dimension.BuiltinDimensionTypes;
 import net.minecraft.world.level.dimension.LevelStem;
 import net.minecraft.world.level.dimension.end.EndDragonFight;
-import net.minecraft.world.level.entity.EntityPersistentStorage;
 import net.minecraft.world.level.entity.EntityTickList;
 import net.minecraft.world.level.entity.EntityTypeTest;
 import net.minecraft.world.level.entity.LevelCallback;
@@ -174,6 +173,8 @@ public class ServerLevel extends Level implements WorldGenLevel {
     private final ServerLevelData serverLevelData;
     final EntityTickList entityTickList = new EntityTickList();
     private final PersistentEntitySectionManager<Entity> entityManager;
+    // Neo: kept to expose the stored entities to bulk scans
+    private final EntityStorage entityStorage;
     private final GameEventDispatcher gameEventDispatcher;
     public boolean noSave;
     private final SleepStatus sleepStatus;
@@ -228,10 +229,8 @@ public class ServerLevel extends Level implements WorldGenLevel {
         ChunkGenerator chunkgenerator = pLevelStem.generator();
         boolean flag = pServer.forceSynchronousWrites();
         DataFixer datafixer = pServer.getFixerUpper();
-        EntityPersistentStorage<Entity> entitypersistentstorage = new EntityStorage(
-            this, pLevelStorageAccess.getDimensionPath(pDimension).resolve("entities"), datafixer, flag, pServer
-        );
-        this.entityManager = new PersistentEntitySectionManager<>(Entity.class, new ServerLevel.EntityCallbacks(), entitypersistentstorage);
+        this.entityStorage = new EntityStorage(this, pLevelStorageAccess.getDimensionPath(pDimension).resolve("entities"), datafixer, flag, pServer);
+        this.entityManager = new PersistentEntitySectionManager<>(Entity.class, new ServerLevel.EntityCallbacks(), this.entityStorage);
         this.chunkSource = new ServerChunkCache(
             this,
             pLevelStorageAccess,
@@ -800,7 +799,7 @@ public class ServerLevel extends Level implements WorldGenLevel {
                 pProgress.progressStartNoAbort(Component.translatable("menu.savingLevel"));
             }
 
-            this.saveLevelData();
+            this.saveLevelData(pFlush);
             if (pProgress != null) {
                 pProgress.progressStage(Component.translatable("menu.savingChunks"));
             }
@@ -818,12 +817,12 @@ public class ServerLevel extends Level implements WorldGenLevel {
     /**
      * Saves the chunks to disk.
      */
-    private void saveLevelData() {
+    private void saveLevelData(boolean pFlush) {
         if (this.dragonFight != null) {
             this.server.getWorldData().setEndDragonFightData(this.dragonFight.saveData());
         }
 
-        this.getChunkSource().getDataStorage().save();
+        this.getChunkSource().getDataStorage().save(pFlush);
     }
 
     public <T extends Entity> List<? extends T> getEntities(EntityTypeTest<Entity, T> pTypeTest, Predicate<? super T> pPredicate) {
@@ -1664,6 +1663,14 @@ public class ServerLevel extends Level implements WorldGenLevel {
             .forEach(p_184101_ -> pServerLevel.setBlockAndUpdate(p_184101_, Blocks.OBSIDIAN.defaultBlockState()));
     }
 
+    /**
+     * Neo: Gives read access to the entities stored for every chunk of this level, for use with {@link net.minecraft.world.level.chunk.storage.BulkChunkScanner}.
+     * The chunk data itself is scanned through {@link ServerChunkCache#chunkScanner()}.
+     */
+    public net.minecraft.world.level.chunk.storage.ChunkScanAccess entityScanner() {
+        return this.entityStorage.chunkScanner();
+    }
+
     @Override
     public LevelEntityGetter<Entity> getEntities() {
         return this.entityManager.getEntityGetter();
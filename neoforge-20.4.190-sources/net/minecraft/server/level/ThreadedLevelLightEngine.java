@@ -26,6 +26,10 @@ import org.slf4j.Logger;
 public class ThreadedLevelLightEngine extends LevelLightEngine implements AutoCloseable {
     public static final int DEFAULT_BATCH_SIZE = 1000;
     private static final Logger LOGGER = LogUtils.getLogger();
+    /**
+     * Neo: Whether block and sky light are propagated on separate threads, controlled by the {@code neoforge.parallelLightUpdates} system property.
+     */
+    private static final boolean PARALLEL_LIGHT_UPDATES = Boolean.parseBoolean(System.getProperty("neoforge.parallelLightUpdates", "true"));
     private final ProcessorMailbox<Runnable> taskMailbox;
     private final ObjectList<Pair<ThreadedLevelLightEngine.TaskType, Runnable>> lightTasks = new ObjectArrayList<>();
     private final ChunkMap chunkMap;
@@ -205,7 +209,12 @@ public class ThreadedLevelLightEngine extends LevelLightEngine implements AutoCl
         }
 
         objectlistiterator.back(j);
-        super.runLightUpdates();
+        if (PARALLEL_LIGHT_UPDATES) {
+            // Neo: Propagate block and sky light at the same time
+            super.runLightUpdates(Util.backgroundExecutor());
+        } else {
+            super.runLightUpdates();
+        }
 
         for(int k = 0; objectlistiterator.hasNext() && k < i; ++k) {
             Pair<ThreadedLevelLightEngine.TaskType, Runnable> pair1 = objectlistiterator.next();
@@ -0,0 +1,72 @@
+package net.minecraft.server.level;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import java.util.Collection;
+import java.util.Set;
+import net.minecraft.world.level.ChunkPos;
+
+/**
+ * Neo: Spatial index used by {@link ChunkMap} to find the tracked entities and players near a chunk without visiting every one of them.
+ * <p>
+ * Entity tracking only considers the horizontal distance, so entries are bucketed by the column of sections they are in, grouped into cells of
+ * {@code 8x8} chunks to keep the number of cells visited by a query small even at the largest view distance.
+ */
+final class TrackingGrid<T> {
+    private static final int CELL_SHIFT = 3;
+    private final Long2ObjectMap<Set<T>> cells = new Long2ObjectOpenHashMap<>();
+    private final Reference2LongMap<T> cellByEntry = new Reference2LongOpenHashMap<>();
+
+    /**
+     * Adds the entry to the grid, or moves it to the cell containing the given chunk.
+     */
+    public void update(T pEntry, int pChunkX, int pChunkZ) {
+        long i = ChunkPos.asLong(pChunkX >> CELL_SHIFT, pChunkZ >> CELL_SHIFT);
+        if (!this.cellByEntry.containsKey(pEntry)) {
+            this.cellByEntry.put(pEntry, i);
+            this.cells.computeIfAbsent(i, cell -> new ReferenceOpenHashSet<>()).add(pEntry);
+        } else {
+            long j = this.cellByEntry.put(pEntry, i);
+            if (j != i) {
+                this.removeFromCell(j, pEntry);
+                this.cells.computeIfAbsent(i, cell -> new ReferenceOpenHashSet<>()).add(pEntry);
+            }
+        }
+    }
+
+    public void remove(T pEntry) {
+        if (this.cellByEntry.containsKey(pEntry)) {
+            this.removeFromCell(this.cellByEntry.removeLong(pEntry), pEntry);
+        }
+    }
+
+    /**
+     * Collects every entry whose chunk may be within the given radius, in chunks, of the given chunk. The result can contain entries slightly further away,
+     * so callers still have to check the exact distance.
+     */
+    public void collectNear(int pChunkX, int pChunkZ, int pRadius, Collection<T> pOutput) {
+        int i = pChunkX - pRadius >> CELL_SHIFT;
+        int j = pChunkZ - pRadius >> CELL_SHIFT;
+        int k = pChunkX + pRadius >> CELL_SHIFT;
+        int l = pChunkZ + pRadius >> CELL_SHIFT;
+
+        for(int i1 = i; i1 <= k; ++i1) {
+            for(int j1 = j; j1 <= l; ++j1) {
+                Set<T> set = this.cells.get(ChunkPos.asLong(i1, j1));
+                if (set != null) {
+                    pOutput.addAll(set);
+                }
+            }
+        }
+    }
+
+    private void removeFromCell(long pCell, T pEntry) {
+        Set<T> set = this.cells.get(pCell);
+        if (set != null && set.remove(pEntry) && set.isEmpty()) {
+            this.cells.remove(pCell);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package net.minecraft.server.level;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.level.chunk.ChunkStatus;
+
+/**
+ * Neo: Limits how many chunks may be generating each {@link ChunkStatus} at the same time, shared by every level of the server.
+ * <p>
+ * Generation itself runs on {@link net.minecraft.Util#worldgenExecutor()}, but without a limit the cheap statuses of far away chunks can fill that pool
+ * and delay the expensive ones that players are waiting for. Steps that are over their limit wait in a queue and are started in order as running ones complete.
+ * <p>
+ * The limit of a status is set with the {@code neoforge.worldgenLimit.<status>} system property, for example {@code neoforge.worldgenLimit.noise=4}.
+ * The default of {@code 0} leaves the status unlimited.
+ */
+public class WorldGenScheduler {
+    private final WorldGenScheduler.Limiter[] limiters;
+
+    public WorldGenScheduler() {
+        List<ChunkStatus> list = ChunkStatus.getStatusList();
+        this.limiters = new WorldGenScheduler.Limiter[list.size()];
+
+        for(ChunkStatus chunkstatus : list) {
+            String s = BuiltInRegistries.CHUNK_STATUS.getKey(chunkstatus).getPath();
+            int i = Integer.parseInt(System.getProperty("neoforge.worldgenLimit." + s, "0"));
+            this.limiters[chunkstatus.getIndex()] = new WorldGenScheduler.Limiter(chunkstatus, i <= 0 ? Integer.MAX_VALUE : i);
+        }
+    }
+
+    /**
+     * Starts the generation step once the status has a free slot. The step is started right away on the calling thread if there is one,
+     * otherwise it is started later through the given executor.
+     *
+     * @param pExecutor the executor the step would normally run on
+     * @param pTask     starts the step and returns its completion
+     */
+    public <T> CompletableFuture<T> schedule(ChunkStatus pStatus, Executor pExecutor, Supplier<CompletableFuture<T>> pTask) {
+        WorldGenScheduler.Limiter worldgenscheduler$limiter = this.limiters[pStatus.getIndex()];
+        CompletableFuture<T> completablefuture = new CompletableFuture<>();
+        Runnable runnable = () -> worldgenscheduler$limiter.run(pTask, completablefuture);
+        if (worldgenscheduler$limiter.tryAcquire(() -> pExecutor.execute(runnable))) {
+            runnable.run();
+        }
+
+        return completablefuture;
+    }
+
+    /**
+     * Returns the current load of every status.
+     */
+    public List<WorldGenScheduler.QueueMetrics> getQueueMetrics() {
+        ImmutableList.Builder<WorldGenScheduler.QueueMetrics> builder = ImmutableList.builderWithExpectedSize(this.limiters.length);
+
+        for(WorldGenScheduler.Limiter worldgenscheduler$limiter : this.limiters) {
+            builder.add(worldgenscheduler$limiter.getMetrics());
+        }
+
+        return builder.build();
+    }
+
+    public WorldGenScheduler.QueueMetrics getQueueMetrics(ChunkStatus pStatus) {
+        return this.limiters[pStatus.getIndex()].getMetrics();
+    }
+
+    static class Limiter {
+        private final ChunkStatus status;
+        private final int limit;
+        private final Queue<Runnable> pending = new ArrayDeque<>();
+        private int running;
+        private int peakQueueDepth;
+        private long completed;
+
+        Limiter(ChunkStatus pStatus, int pLimit) {
+            this.status = pStatus;
+            this.limit = pLimit;
+        }
+
+        /**
+         * Takes a slot if one is free, otherwise queues the given start until one is released.
+         *
+         * @return {@code true} if a slot was taken and the step can start right away
+         */
+        synchronized boolean tryAcquire(Runnable pStart) {
+            if (this.running < this.limit) {
+                ++this.running;
+                return true;
+            } else {
+                this.pending.add(pStart);
+                this.peakQueueDepth = Math.max(this.peakQueueDepth, this.pending.size());
+                return false;
+            }
+        }
+
+        <T> void run(Supplier<CompletableFuture<T>> pTask, CompletableFuture<T> pResult) {
+            CompletableFuture<T> completablefuture;
+            try {
+                completablefuture = pTask.get();
+            } catch (Throwable throwable) {
+                this.release();
+                pResult.completeExceptionally(throwable);
+                return;
+            }
+
+            completablefuture.whenComplete((result, throwable) -> {
+                this.release();
+                if (throwable != null) {
+                    pResult.completeExceptionally(throwable);
+                } else {
+                    pResult.complete(result);
+                }
+            });
+        }
+
+        private void release() {
+            Runnable runnable;
+            synchronized (this) {
+                ++this.completed;
+                runnable = this.pending.poll();
+                // Hand the slot straight to the next waiting step
+                if (runnable == null) {
+                    --this.running;
+                }
+            }
+
+            if (runnable != null) {
+                runnable.run();
+            }
+        }
+
+        synchronized WorldGenScheduler.QueueMetrics getMetrics() {
+            return new WorldGenScheduler.QueueMetrics(
+                this.status, this.limit == Integer.MAX_VALUE ? 0 : this.limit, this.running, this.pending.size(), this.peakQueueDepth, this.completed
+            );
+        }
+    }
+
+    /**
+     * @param limit          the number of steps that may run at once, or {@code 0} if unlimited
+     * @param running        the number of steps currently running
+     * @param queueDepth     the number of steps waiting for a free slot
+     * @param peakQueueDepth the largest number of steps that have been waiting at once
+     * @param completed      the number of steps completed so far
+     */
+    public static record QueueMetrics(ChunkStatus status, int limit, int running, int queueDepth, int peakQueueDepth, long completed) {
+    }
+}
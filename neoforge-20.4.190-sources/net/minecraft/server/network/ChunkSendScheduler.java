@@ -0,0 +1,106 @@
+package net.minecraft.server.network;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.UUID;
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * Neo: Shares a server-wide budget for chunk data between all players, so that a burst of joining or teleporting players cannot saturate the uplink
+ * and starve everyone else.
+ * <p>
+ * Each tick the budget is split evenly between the players that have chunks waiting, using deficit round robin: a player may send as long as its
+ * allowance is positive, and the chunk that overdraws it is paid back from its next shares. Unused allowance is capped at one tick's budget to avoid bursts.
+ * Within its share every player still follows the batch size requested by its client, as in {@link PlayerChunkSender}.
+ * <p>
+ * The budget is set in KiB per second of uncompressed chunk data with the {@code neoforge.chunkSendBudget} system property. The default of {@code 0}
+ * leaves sending unlimited.
+ */
+public class ChunkSendScheduler {
+    private static final long BUDGET_PER_TICK = Math.max(0L, Long.parseLong(System.getProperty("neoforge.chunkSendBudget", "0"))) * 1024L / 20L;
+    private int startIndex;
+    private long bytesSentLastTick;
+
+    public void sendChunks(List<ServerPlayer> pPlayers) {
+        long i = 0L;
+        if (BUDGET_PER_TICK <= 0L) {
+            for(ServerPlayer serverplayer : pPlayers) {
+                i += serverplayer.connection.chunkSender.sendNextChunks(serverplayer);
+            }
+        } else {
+            int j = 0;
+
+            for(ServerPlayer serverplayer1 : pPlayers) {
+                if (serverplayer1.connection.chunkSender.getQueueDepth() > 0) {
+                    ++j;
+                }
+            }
+
+            long k = j == 0 ? 0L : Math.max(1L, BUDGET_PER_TICK / (long)j);
+            int l = pPlayers.size();
+            this.startIndex = l == 0 ? 0 : (this.startIndex + 1) % l;
+
+            // Rotate the starting player so no one is always served first
+            for(int i1 = 0; i1 < l; ++i1) {
+                ServerPlayer serverplayer2 = pPlayers.get((this.startIndex + i1) % l);
+                PlayerChunkSender playerchunksender = serverplayer2.connection.chunkSender;
+                if (playerchunksender.getQueueDepth() == 0) {
+                    playerchunksender.sendAllowance = Math.min(playerchunksender.sendAllowance, 0L);
+                    // Keep the client's batch pacing going even without anything to send
+                    playerchunksender.sendNextChunks(serverplayer2, 0L);
+                } else {
+                    playerchunksender.sendAllowance = Math.min(playerchunksender.sendAllowance + k, BUDGET_PER_TICK);
+                    long j1 = playerchunksender.sendNextChunks(serverplayer2, playerchunksender.sendAllowance);
+                    playerchunksender.sendAllowance -= j1;
+                    i += j1;
+                }
+            }
+        }
+
+        this.bytesSentLastTick = i;
+    }
+
+    /**
+     * Returns the configured budget in bytes per tick, or {@code 0} if sending is unlimited.
+     */
+    public long getBudgetPerTick() {
+        return BUDGET_PER_TICK;
+    }
+
+    public long getBytesSentLastTick() {
+        return this.bytesSentLastTick;
+    }
+
+    /**
+     * Returns the current send queue of every given player.
+     */
+    public List<ChunkSendScheduler.QueueMetrics> getQueueMetrics(List<ServerPlayer> pPlayers) {
+        ImmutableList.Builder<ChunkSendScheduler.QueueMetrics> builder = ImmutableList.builderWithExpectedSize(pPlayers.size());
+
+        for(ServerPlayer serverplayer : pPlayers) {
+            PlayerChunkSender playerchunksender = serverplayer.connection.chunkSender;
+            builder.add(
+                new ChunkSendScheduler.QueueMetrics(
+                    serverplayer.getUUID(),
+                    playerchunksender.getQueueDepth(),
+                    playerchunksender.getUnacknowledgedBatches(),
+                    playerchunksender.sendAllowance,
+                    playerchunksender.getChunksSent(),
+                    playerchunksender.getBytesSent()
+                )
+            );
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * @param queueDepth            the number of chunks waiting to be sent
+     * @param unacknowledgedBatches the number of batches the client has not confirmed yet
+     * @param allowance             the remaining share of the budget, negative while paying back an overdraft
+     * @param chunksSent            the number of chunks sent so far
+     * @param bytesSent             the estimated amount of bytes of chunk data sent so far
+     */
+    public static record QueueMetrics(UUID player, int queueDepth, int unacknowledgedBatches, long allowance, long chunksSent, long bytesSent) {
+    }
+}
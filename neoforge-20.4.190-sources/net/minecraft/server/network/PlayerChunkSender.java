@@ -7,10 +7,12 @@ import it.unimi.dsi.fastutil.longs.LongSet;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import net.minecraft.core.SectionPos;
 import net.minecraft.network.protocol.game.ClientboundChunkBatchFinishedPacket;
 import net.minecraft.network.protocol.game.ClientboundChunkBatchStartPacket;
 import net.minecraft.network.protocol.game.ClientboundForgetLevelChunkPacket;
 import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
+import net.minecraft.network.protocol.game.ClientboundLightUpdatePacketData;
 import net.minecraft.network.protocol.game.DebugPackets;
 import net.minecraft.server.level.ChunkMap;
 import net.minecraft.server.level.ServerLevel;
@@ -18,6 +20,7 @@ import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.util.Mth;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.phys.Vec3;
 import org.slf4j.Logger;
 
 public class PlayerChunkSender {
@@ -32,6 +35,16 @@ public class PlayerChunkSender {
     private float batchQuota;
     private int unacknowledgedBatches;
     private int maxUnacknowledgedBatches = 1;
+    // Neo: Chunks ahead of the player, in the direction it looks and moves, are sent before chunks at the same distance behind it
+    private static final double DIRECTION_WEIGHT = 0.5;
+    private double lastX = Double.NaN;
+    private double lastZ = Double.NaN;
+    private double directionX;
+    private double directionZ;
+    // Neo: The share of the server-wide send budget this player may still use, see ChunkSendScheduler
+    long sendAllowance;
+    private long bytesSent;
+    private long chunksSent;
 
     public PlayerChunkSender(boolean pMemoryConnection) {
         this.memoryConnection = pMemoryConnection;
@@ -48,66 +61,137 @@ public class PlayerChunkSender {
     }
 
     public void sendNextChunks(ServerPlayer pPlayer) {
+        this.sendNextChunks(pPlayer, Long.MAX_VALUE);
+    }
+
+    /**
+     * Neo: Sends the next batch of chunks, stopping early once the given amount of bytes has been used up.
+     * The chunk that crosses the limit is still sent whole, so callers have to carry the overshoot over to the next tick.
+     *
+     * @return the estimated amount of bytes sent
+     */
+    public long sendNextChunks(ServerPlayer pPlayer, long pByteBudget) {
+        this.updateDirection(pPlayer);
+        long i = 0L;
         if (this.unacknowledgedBatches < this.maxUnacknowledgedBatches) {
             float f = Math.max(1.0F, this.desiredChunksPerTick);
             this.batchQuota = Math.min(this.batchQuota + this.desiredChunksPerTick, f);
             if (!(this.batchQuota < 1.0F)) {
-                if (!this.pendingChunks.isEmpty()) {
+                if (!this.pendingChunks.isEmpty() && pByteBudget > 0L) {
                     ServerLevel serverlevel = pPlayer.serverLevel();
                     ChunkMap chunkmap = serverlevel.getChunkSource().chunkMap;
-                    List<LevelChunk> list = this.collectChunksToSend(chunkmap, pPlayer.chunkPosition());
+                    List<LevelChunk> list = this.collectChunksToSend(chunkmap, pPlayer);
                     if (!list.isEmpty()) {
                         ServerGamePacketListenerImpl servergamepacketlistenerimpl = pPlayer.connection;
                         ++this.unacknowledgedBatches;
                         servergamepacketlistenerimpl.send(new ClientboundChunkBatchStartPacket());
+                        int j = 0;
 
                         for(LevelChunk levelchunk : list) {
-                            sendChunk(servergamepacketlistenerimpl, serverlevel, levelchunk);
+                            if (i >= pByteBudget) {
+                                break;
+                            }
+
+                            this.pendingChunks.remove(levelchunk.getPos().toLong());
+                            i += sendChunk(servergamepacketlistenerimpl, serverlevel, levelchunk);
+                            ++j;
                         }
 
-                        servergamepacketlistenerimpl.send(new ClientboundChunkBatchFinishedPacket(list.size()));
-                        this.batchQuota -= (float)list.size();
+                        servergamepacketlistenerimpl.send(new ClientboundChunkBatchFinishedPacket(j));
+                        this.batchQuota -= (float)j;
+                        this.bytesSent += i;
+                        this.chunksSent += (long)j;
                     }
                 }
             }
         }
+
+        return i;
     }
 
-    private static void sendChunk(ServerGamePacketListenerImpl pPacketListener, ServerLevel pLevel, LevelChunk pChunk) {
-        pPacketListener.send(pChunk.getAuxLightManager(pChunk.getPos()).sendLightDataTo(
-                new ClientboundLevelChunkWithLightPacket(pChunk, pLevel.getLightEngine(), null, null)
-        ));
+    private static long sendChunk(ServerGamePacketListenerImpl pPacketListener, ServerLevel pLevel, LevelChunk pChunk) {
         ChunkPos chunkpos = pChunk.getPos();
+        // Neo: Reuse the packet built for other players as long as the chunk has not changed
+        ClientboundLevelChunkWithLightPacket clientboundlevelchunkwithlightpacket = pLevel.getChunkSource().chunkMap.getChunkPacket(pChunk);
+        pPacketListener.send(pChunk.getAuxLightManager(chunkpos).sendLightDataTo(clientboundlevelchunkwithlightpacket));
         DebugPackets.sendPoiPacketsForChunk(pLevel, chunkpos);
         net.neoforged.neoforge.event.EventHooks.fireChunkSent(pPacketListener.player, pChunk, pLevel);
+        return estimateSize(clientboundlevelchunkwithlightpacket);
     }
 
-    private List<LevelChunk> collectChunksToSend(ChunkMap pChunkMap, ChunkPos pChunkPos) {
+    /**
+     * Neo: Estimates the uncompressed size of a chunk packet from its section and light buffers, which make up nearly all of it.
+     */
+    private static long estimateSize(ClientboundLevelChunkWithLightPacket pPacket) {
+        ClientboundLightUpdatePacketData clientboundlightupdatepacketdata = pPacket.getLightData();
+        int i = clientboundlightupdatepacketdata.getSkyUpdates().size() + clientboundlightupdatepacketdata.getBlockUpdates().size();
+        return (long)pPacket.getChunkData().getReadBuffer().readableBytes() + (long)i * 2048L + 1024L;
+    }
+
+    private List<LevelChunk> collectChunksToSend(ChunkMap pChunkMap, ServerPlayer pPlayer) {
         int i = Mth.floor(this.batchQuota);
-        List<LevelChunk> list;
+        Comparator<Long> comparator = Comparator.comparingDouble(chunkPos -> this.getPriority(pPlayer, chunkPos));
         if (!this.memoryConnection && this.pendingChunks.size() > i) {
-            list = this.pendingChunks
+            return this.pendingChunks
                 .stream()
-                .collect(Comparators.least(i, Comparator.comparingInt(pChunkPos::distanceSquared)))
+                .collect(Comparators.least(i, comparator))
                 .stream()
                 .mapToLong(Long::longValue)
                 .mapToObj(pChunkMap::getChunkToSend)
                 .filter(Objects::nonNull)
                 .toList();
         } else {
-            list = this.pendingChunks
-                .longStream()
+            return this.pendingChunks
+                .stream()
+                .sorted(comparator)
+                .mapToLong(Long::longValue)
                 .mapToObj(pChunkMap::getChunkToSend)
                 .filter(Objects::nonNull)
-                .sorted(Comparator.comparingInt(p_294268_ -> pChunkPos.distanceSquared(p_294268_.getPos())))
                 .toList();
         }
+    }
 
-        for(LevelChunk levelchunk : list) {
-            this.pendingChunks.remove(levelchunk.getPos().toLong());
+    /**
+     * Neo: Orders pending chunks by their squared distance to the player, scaled down for chunks in the direction the player looks and moves
+     * and up for chunks behind it. Lower values are sent first.
+     */
+    private double getPriority(ServerPlayer pPlayer, long pChunkPos) {
+        double d0 = (double)SectionPos.sectionToBlockCoord(ChunkPos.getX(pChunkPos), 8) - pPlayer.getX();
+        double d1 = (double)SectionPos.sectionToBlockCoord(ChunkPos.getZ(pChunkPos), 8) - pPlayer.getZ();
+        double d2 = d0 * d0 + d1 * d1;
+        if (d2 > 256.0 && (this.directionX != 0.0 || this.directionZ != 0.0)) {
+            double d3 = (d0 * this.directionX + d1 * this.directionZ) / Math.sqrt(d2);
+            return d2 * (1.0 - DIRECTION_WEIGHT * d3);
+        } else {
+            return d2;
+        }
+    }
+
+    private void updateDirection(ServerPlayer pPlayer) {
+        Vec3 vec3 = pPlayer.getLookAngle();
+        double d0 = vec3.x;
+        double d1 = vec3.z;
+        if (!Double.isNaN(this.lastX)) {
+            double d2 = pPlayer.getX() - this.lastX;
+            double d3 = pPlayer.getZ() - this.lastZ;
+            double d4 = Math.sqrt(d2 * d2 + d3 * d3);
+            if (d4 > 1.0E-4) {
+                d0 += d2 / d4;
+                d1 += d3 / d4;
+            }
         }
 
-        return list;
+        double d5 = Math.sqrt(d0 * d0 + d1 * d1);
+        if (d5 > 1.0E-4) {
+            this.directionX = d0 / d5;
+            this.directionZ = d1 / d5;
+        } else {
+            this.directionX = 0.0;
+            this.directionZ = 0.0;
+        }
+
+        this.lastX = pPlayer.getX();
+        this.lastZ = pPlayer.getZ();
     }
 
     public void onChunkBatchReceivedByClient(float pDesiredBatchSize) {
@@ -123,4 +207,30 @@ public class PlayerChunkSender {
     public boolean isPending(long pChunkPos) {
         return this.pendingChunks.contains(pChunkPos);
     }
+
+    /**
+     * Neo: Returns the number of chunks waiting to be sent to the player.
+     */
+    public int getQueueDepth() {
+        return this.pendingChunks.size();
+    }
+
+    public int getUnacknowledgedBatches() {
+        return this.unacknowledgedBatches;
+    }
+
+    public float getDesiredChunksPerTick() {
+        return this.desiredChunksPerTick;
+    }
+
+    /**
+     * Neo: Returns the estimated amount of bytes of chunk data sent to the player so far.
+     */
+    public long getBytesSent() {
+        return this.bytesSent;
+    }
+
+    public long getChunksSent() {
+        return this.chunksSent;
+    }
 }
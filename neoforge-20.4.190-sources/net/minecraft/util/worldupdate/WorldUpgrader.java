@@ -3,21 +3,35 @@ package net.minecraft.util.worldupdate;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.ImmutableMap.Builder;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.mojang.datafixers.DataFixer;
 import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSets;
 import it.unimi.dsi.fastutil.objects.Reference2FloatMap;
 import it.unimi.dsi.fastutil.objects.Reference2FloatMaps;
 import it.unimi.dsi.fastutil.objects.Reference2FloatOpenHashMap;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -28,8 +42,13 @@ import net.minecraft.core.Registry;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtUtils;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.util.Mth;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.chunk.ChunkGenerator;
@@ -37,12 +56,19 @@ import net.minecraft.world.level.chunk.storage.ChunkStorage;
 import net.minecraft.world.level.chunk.storage.RegionFile;
 import net.minecraft.world.level.dimension.LevelStem;
 import net.minecraft.world.level.storage.DimensionDataStorage;
+import net.minecraft.world.level.storage.LevelResource;
 import net.minecraft.world.level.storage.LevelStorageSource;
 import org.slf4j.Logger;
 
 public class WorldUpgrader {
     private static final Logger LOGGER = LogUtils.getLogger();
     private static final ThreadFactory THREAD_FACTORY = new ThreadFactoryBuilder().setDaemon(true).build();
+    private static final ThreadFactory WORKER_THREAD_FACTORY = new ThreadFactoryBuilder().setNameFormat("WorldUpgrader-%d").setDaemon(true).build();
+    // Neo: the number of region files that are upgraded at the same time
+    private static final int THREADS = Integer.parseInt(
+        System.getProperty("neoforge.worldUpgradeThreads", String.valueOf(Runtime.getRuntime().availableProcessors()))
+    );
+    private static final String CHECKPOINT_FILE = "neoforge_upgrade_progress.dat";
     private final Registry<LevelStem> dimensions;
     private final Set<ResourceKey<Level>> levels;
     private final boolean eraseCache;
@@ -53,12 +79,15 @@ public class WorldUpgrader {
     private volatile boolean finished;
     private volatile float progress;
     private volatile int totalChunks;
-    private volatile int converted;
-    private volatile int skipped;
+    private final AtomicInteger converted = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private volatile float chunksPerSecond;
+    private int resumedRegions;
     private final Reference2FloatMap<ResourceKey<Level>> progressMap = Reference2FloatMaps.synchronize(new Reference2FloatOpenHashMap<>());
     private volatile Component status = Component.translatable("optimizeWorld.stage.counting");
     private static final Pattern REGEX = Pattern.compile("^r\\.(-?[0-9]+)\\.(-?[0-9]+)\\.mca$");
     private final DimensionDataStorage overworldDataStorage;
+    private final Path checkpointPath;
 
     public WorldUpgrader(LevelStorageSource.LevelStorageAccess pLevelStoarge, DataFixer pDataFixer, Registry<LevelStem> pDimensions, boolean pEraseCache) {
         this.dimensions = pDimensions;
@@ -67,6 +96,7 @@ public class WorldUpgrader {
         this.dataFixer = pDataFixer;
         this.levelStorage = pLevelStoarge;
         this.overworldDataStorage = new DimensionDataStorage(this.levelStorage.getDimensionPath(Level.OVERWORLD).resolve("data").toFile(), pDataFixer);
+        this.checkpointPath = this.levelStorage.getLevelPath(LevelResource.ROOT).resolve(CHECKPOINT_FILE);
         this.thread = THREAD_FACTORY.newThread(this::work);
         this.thread.setUncaughtExceptionHandler((p_18825_, p_18826_) -> {
             LOGGER.error("Error upgrading world", p_18826_);
@@ -87,105 +117,96 @@ public class WorldUpgrader {
 
     private void work() {
         this.totalChunks = 0;
-        Builder<ResourceKey<Level>, ListIterator<ChunkPos>> builder = ImmutableMap.builder();
+        WorldUpgrader.Checkpoint worldupgrader$checkpoint = WorldUpgrader.Checkpoint.load(this.checkpointPath, this.eraseCache);
+        List<WorldUpgrader.RegionTask> list = Lists.newArrayList();
 
         for(ResourceKey<Level> resourcekey : this.levels) {
-            List<ChunkPos> list = this.getAllChunkPos(resourcekey);
-            builder.put(resourcekey, list.listIterator());
-            this.totalChunks += list.size();
+            for(WorldUpgrader.RegionTask worldupgrader$regiontask : this.getAllRegions(resourcekey, worldupgrader$checkpoint)) {
+                list.add(worldupgrader$regiontask);
+                this.totalChunks += worldupgrader$regiontask.chunks().size();
+            }
+        }
+
+        if (this.resumedRegions > 0) {
+            LOGGER.info("Resuming world upgrade, skipping {} region files that were upgraded before", this.resumedRegions);
         }
 
         if (this.totalChunks == 0) {
+            worldupgrader$checkpoint.delete();
             this.finished = true;
         } else {
             float f1 = (float)this.totalChunks;
-            ImmutableMap<ResourceKey<Level>, ListIterator<ChunkPos>> immutablemap = builder.build();
             Builder<ResourceKey<Level>, ChunkStorage> builder1 = ImmutableMap.builder();
+            Builder<ResourceKey<Level>, AtomicInteger> builder2 = ImmutableMap.builder();
 
             for(ResourceKey<Level> resourcekey1 : this.levels) {
                 Path path = this.levelStorage.getDimensionPath(resourcekey1);
                 builder1.put(resourcekey1, new ChunkStorage(path.resolve("region"), this.dataFixer, true));
+                builder2.put(resourcekey1, new AtomicInteger());
             }
 
             ImmutableMap<ResourceKey<Level>, ChunkStorage> immutablemap1 = builder1.build();
+            ImmutableMap<ResourceKey<Level>, AtomicInteger> immutablemap2 = builder2.build();
             long j = Util.getMillis();
             this.status = Component.translatable("optimizeWorld.stage.upgrading");
+            // Neo: every region file is upgraded by a single worker, so workers never share a file
+            ExecutorService executorservice = Executors.newFixedThreadPool(THREADS, WORKER_THREAD_FACTORY);
+            CompletableFuture<?>[] futures = new CompletableFuture[list.size()];
 
-            while(this.running) {
-                boolean flag = false;
-                float f = 0.0F;
-
-                for(ResourceKey<Level> resourcekey2 : this.levels) {
-                    ListIterator<ChunkPos> listiterator = immutablemap.get(resourcekey2);
-                    ChunkStorage chunkstorage = immutablemap1.get(resourcekey2);
-                    if (listiterator.hasNext()) {
-                        ChunkPos chunkpos = listiterator.next();
-                        boolean flag1 = false;
+            for(int k = 0; k < list.size(); ++k) {
+                WorldUpgrader.RegionTask worldupgrader$regiontask1 = list.get(k);
+                futures[k] = CompletableFuture.runAsync(() -> {
+                    if (this.running) {
+                        ResourceKey<Level> resourcekey3 = worldupgrader$regiontask1.level();
 
                         try {
-                            CompoundTag compoundtag = chunkstorage.read(chunkpos).join().orElse(null);
-                            if (compoundtag != null) {
-                                int k = ChunkStorage.getVersion(compoundtag);
-                                ChunkGenerator chunkgenerator = this.dimensions.getOrThrow(Registries.levelToLevelStem(resourcekey2)).generator();
-                                CompoundTag compoundtag1 = chunkstorage.upgradeChunkTag(
-                                    resourcekey2, () -> this.overworldDataStorage, compoundtag, chunkgenerator.getTypeNameForDataFixer()
-                                );
-                                ChunkPos chunkpos1 = new ChunkPos(compoundtag1.getInt("xPos"), compoundtag1.getInt("zPos"));
-                                if (!chunkpos1.equals(chunkpos)) {
-                                    LOGGER.warn("Chunk {} has invalid position {}", chunkpos, chunkpos1);
-                                }
-
-                                boolean flag2 = k < SharedConstants.getCurrentVersion().getDataVersion().getVersion();
-                                if (this.eraseCache) {
-                                    flag2 = flag2 || compoundtag1.contains("Heightmaps");
-                                    compoundtag1.remove("Heightmaps");
-                                    flag2 = flag2 || compoundtag1.contains("isLightOn");
-                                    compoundtag1.remove("isLightOn");
-                                    ListTag listtag = compoundtag1.getList("sections", 10);
-
-                                    for(int i = 0; i < listtag.size(); ++i) {
-                                        CompoundTag compoundtag2 = listtag.getCompound(i);
-                                        flag2 = flag2 || compoundtag2.contains("BlockLight");
-                                        compoundtag2.remove("BlockLight");
-                                        flag2 = flag2 || compoundtag2.contains("SkyLight");
-                                        compoundtag2.remove("SkyLight");
-                                    }
-                                }
-
-                                if (flag2) {
-                                    chunkstorage.write(chunkpos, compoundtag1);
-                                    flag1 = true;
-                                }
-                            }
-                        } catch (CompletionException | ReportedException reportedexception) {
-                            Throwable throwable = reportedexception.getCause();
-                            if (!(throwable instanceof IOException)) {
-                                throw reportedexception;
+                            if (this.upgradeRegion(worldupgrader$regiontask1, immutablemap1.get(resourcekey3), immutablemap2.get(resourcekey3))) {
+                                worldupgrader$checkpoint.markDone(resourcekey3, worldupgrader$regiontask1.regionX(), worldupgrader$regiontask1.regionZ());
                             }
-
-                            LOGGER.error("Error upgrading chunk {}", chunkpos, throwable);
+                        } catch (RuntimeException runtimeexception) {
+                            this.running = false;
+                            throw runtimeexception;
                         }
+                    }
+                }, executorservice);
+            }
 
-                        if (flag1) {
-                            ++this.converted;
-                        } else {
-                            ++this.skipped;
-                        }
+            CompletableFuture<Void> completablefuture = CompletableFuture.allOf(futures);
+            long l = j;
 
-                        flag = true;
-                    }
+            while(!completablefuture.isDone()) {
+                try {
+                    completablefuture.get(100L, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException | ExecutionException | InterruptedException exception) {
+                }
+
+                float f = 0.0F;
 
-                    float f2 = (float)listiterator.nextIndex() / f1;
+                for(ResourceKey<Level> resourcekey2 : this.levels) {
+                    float f2 = (float)immutablemap2.get(resourcekey2).get() / f1;
                     this.progressMap.put(resourcekey2, f2);
                     f += f2;
                 }
 
                 this.progress = f;
-                if (!flag) {
-                    this.running = false;
+                long i1 = Util.getMillis();
+                this.chunksPerSecond = (float)(this.converted.get() + this.skipped.get()) * 1000.0F / (float)Math.max(1L, i1 - j);
+                if (i1 - l >= 10000L) {
+                    l = i1;
+                    LOGGER.info(
+                        "Upgraded {} / {} chunks ({} converted, {} skipped) at {} chunks/s with {} threads",
+                        this.converted.get() + this.skipped.get(),
+                        this.totalChunks,
+                        this.converted.get(),
+                        this.skipped.get(),
+                        Mth.floor(this.chunksPerSecond),
+                        THREADS
+                    );
                 }
             }
 
+            executorservice.shutdown();
+            worldupgrader$checkpoint.save();
             this.status = Component.translatable("optimizeWorld.stage.finished");
 
             for(ChunkStorage chunkstorage1 : immutablemap1.values()) {
@@ -197,38 +218,154 @@ public class WorldUpgrader {
             }
 
             this.overworldDataStorage.save();
+            completablefuture.join();
+            if (this.running) {
+                worldupgrader$checkpoint.delete();
+            }
+
             j = Util.getMillis() - j;
             LOGGER.info("World optimizaton finished after {} ms", j);
             this.finished = true;
         }
     }
 
-    private List<ChunkPos> getAllChunkPos(ResourceKey<Level> pLevel) {
+    /**
+     * Neo: Upgrades every chunk of one region file.
+     *
+     * @return {@code true} if the whole region was upgraded, {@code false} if the upgrade was cancelled before it was done
+     */
+    private boolean upgradeRegion(WorldUpgrader.RegionTask pRegion, ChunkStorage pStorage, AtomicInteger pProcessed) {
+        ResourceKey<Level> resourcekey = pRegion.level();
+        ChunkGenerator chunkgenerator = this.dimensions.getOrThrow(Registries.levelToLevelStem(resourcekey)).generator();
+
+        try (RegionFile regionfile = pStorage.openRegionFile(pRegion.regionX(), pRegion.regionZ())) {
+            for(ChunkPos chunkpos : pRegion.chunks()) {
+                if (!this.running) {
+                    return false;
+                }
+
+                boolean flag1 = false;
+
+                try {
+                    CompoundTag compoundtag;
+                    try (DataInputStream datainputstream = regionfile.getChunkDataInputStream(chunkpos)) {
+                        compoundtag = datainputstream != null ? NbtIo.read(datainputstream) : null;
+                    }
+
+                    if (compoundtag != null) {
+                        int k = ChunkStorage.getVersion(compoundtag);
+                        boolean flag3 = k < ChunkStorage.LAST_MONOLYTH_STRUCTURE_DATA_VERSION;
+                        CompoundTag compoundtag1;
+                        if (flag3) {
+                            // Neo: the legacy structure data of every dimension is loaded from the shared overworld data storage
+                            synchronized(this.overworldDataStorage) {
+                                compoundtag1 = pStorage.upgradeChunkTag(
+                                    resourcekey, () -> this.overworldDataStorage, compoundtag, chunkgenerator.getTypeNameForDataFixer()
+                                );
+                            }
+                        } else {
+                            compoundtag1 = pStorage.upgradeChunkTag(resourcekey, () -> this.overworldDataStorage, compoundtag, chunkgenerator.getTypeNameForDataFixer());
+                        }
+
+                        ChunkPos chunkpos1 = new ChunkPos(compoundtag1.getInt("xPos"), compoundtag1.getInt("zPos"));
+                        if (!chunkpos1.equals(chunkpos)) {
+                            LOGGER.warn("Chunk {} has invalid position {}", chunkpos, chunkpos1);
+                        }
+
+                        boolean flag2 = k < SharedConstants.getCurrentVersion().getDataVersion().getVersion();
+                        if (this.eraseCache) {
+                            flag2 = flag2 || compoundtag1.contains("Heightmaps");
+                            compoundtag1.remove("Heightmaps");
+                            flag2 = flag2 || compoundtag1.contains("isLightOn");
+                            compoundtag1.remove("isLightOn");
+                            ListTag listtag = compoundtag1.getList("sections", 10);
+
+                            for(int i = 0; i < listtag.size(); ++i) {
+                                CompoundTag compoundtag2 = listtag.getCompound(i);
+                                flag2 = flag2 || compoundtag2.contains("BlockLight");
+                                compoundtag2.remove("BlockLight");
+                                flag2 = flag2 || compoundtag2.contains("SkyLight");
+                                compoundtag2.remove("SkyLight");
+                            }
+                        }
+
+                        if (flag2) {
+                            try (DataOutputStream dataoutputstream = regionfile.getChunkDataOutputStream(chunkpos)) {
+                                NbtIo.write(compoundtag1, dataoutputstream);
+                            }
+
+                            if (flag3) {
+                                synchronized(this.overworldDataStorage) {
+                                    pStorage.removeLegacyStructureIndex(chunkpos);
+                                }
+                            }
+
+                            flag1 = true;
+                        }
+                    }
+                } catch (IOException ioexception) {
+                    LOGGER.error("Error upgrading chunk {}", chunkpos, ioexception);
+                } catch (ReportedException reportedexception) {
+                    Throwable throwable = reportedexception.getCause();
+                    if (!(throwable instanceof IOException)) {
+                        throw reportedexception;
+                    }
+
+                    LOGGER.error("Error upgrading chunk {}", chunkpos, throwable);
+                }
+
+                if (flag1) {
+                    this.converted.incrementAndGet();
+                } else {
+                    this.skipped.incrementAndGet();
+                }
+
+                pProcessed.incrementAndGet();
+            }
+        } catch (IOException ioexception1) {
+            LOGGER.error("Error upgrading region {}, {} of {}", pRegion.regionX(), pRegion.regionZ(), resourcekey.location(), ioexception1);
+            return false;
+        }
+
+        return true;
+    }
+
+    private List<WorldUpgrader.RegionTask> getAllRegions(ResourceKey<Level> pLevel, WorldUpgrader.Checkpoint pCheckpoint) {
         File file1 = this.levelStorage.getDimensionPath(pLevel).toFile();
         File file2 = new File(file1, "region");
         File[] afile = file2.listFiles((p_18822_, p_18823_) -> p_18823_.endsWith(".mca"));
         if (afile == null) {
             return ImmutableList.of();
         } else {
-            List<ChunkPos> list = Lists.newArrayList();
+            List<WorldUpgrader.RegionTask> list = Lists.newArrayList();
 
             for(File file3 : afile) {
                 Matcher matcher = REGEX.matcher(file3.getName());
                 if (matcher.matches()) {
-                    int i = Integer.parseInt(matcher.group(1)) << 5;
-                    int j = Integer.parseInt(matcher.group(2)) << 5;
+                    int i = Integer.parseInt(matcher.group(1));
+                    int j = Integer.parseInt(matcher.group(2));
+                    if (pCheckpoint.isDone(pLevel, i, j)) {
+                        ++this.resumedRegions;
+                        continue;
+                    }
+
+                    List<ChunkPos> list1 = Lists.newArrayList();
 
                     try (RegionFile regionfile = new RegionFile(file3.toPath(), file2.toPath(), true)) {
                         for(int k = 0; k < 32; ++k) {
                             for(int l = 0; l < 32; ++l) {
-                                ChunkPos chunkpos = new ChunkPos(k + i, l + j);
+                                ChunkPos chunkpos = new ChunkPos(k + (i << 5), l + (j << 5));
                                 if (regionfile.doesChunkExist(chunkpos)) {
-                                    list.add(chunkpos);
+                                    list1.add(chunkpos);
                                 }
                             }
                         }
                     } catch (Throwable throwable) {
                     }
+
+                    if (!list1.isEmpty()) {
+                        list.add(new WorldUpgrader.RegionTask(pLevel, i, j, list1));
+                    }
                 }
             }
 
@@ -257,14 +394,124 @@ public class WorldUpgrader {
     }
 
     public int getConverted() {
-        return this.converted;
+        return this.converted.get();
     }
 
     public int getSkipped() {
-        return this.skipped;
+        return this.skipped.get();
+    }
+
+    /**
+     * Neo: The average number of chunks upgraded per second so far.
+     */
+    public float getChunksPerSecond() {
+        return this.chunksPerSecond;
     }
 
     public Component getStatus() {
         return this.status;
     }
+
+    static record RegionTask(ResourceKey<Level> level, int regionX, int regionZ, List<ChunkPos> chunks) {
+    }
+
+    /**
+     * Neo: Remembers which region files have been fully upgraded, so an upgrade that was cancelled or crashed resumes where it stopped.
+     * The progress only applies to an upgrade to the same data version with the same settings, anything else starts over.
+     */
+    static class Checkpoint {
+        private static final String DATA_VERSION_TAG = "DataVersion";
+        private static final String ERASE_CACHE_TAG = "EraseCache";
+        private static final String REGIONS_TAG = "Regions";
+        private final Path path;
+        private final boolean eraseCache;
+        private final Map<ResourceKey<Level>, LongSet> doneRegions = Maps.newConcurrentMap();
+        private long lastSave = Util.getMillis();
+
+        private Checkpoint(Path pPath, boolean pEraseCache) {
+            this.path = pPath;
+            this.eraseCache = pEraseCache;
+        }
+
+        static WorldUpgrader.Checkpoint load(Path pPath, boolean pEraseCache) {
+            WorldUpgrader.Checkpoint worldupgrader$checkpoint = new WorldUpgrader.Checkpoint(pPath, pEraseCache);
+            if (Files.isRegularFile(pPath)) {
+                try {
+                    CompoundTag compoundtag = NbtIo.readCompressed(pPath, NbtAccounter.unlimitedHeap());
+                    if (compoundtag.getInt(DATA_VERSION_TAG) == SharedConstants.getCurrentVersion().getDataVersion().getVersion()
+                        && compoundtag.getBoolean(ERASE_CACHE_TAG) == pEraseCache) {
+                        CompoundTag compoundtag1 = compoundtag.getCompound(REGIONS_TAG);
+
+                        for(String s : compoundtag1.getAllKeys()) {
+                            ResourceLocation resourcelocation = ResourceLocation.tryParse(s);
+                            if (resourcelocation != null) {
+                                LongSet longset = worldupgrader$checkpoint.getDoneRegions(ResourceKey.create(Registries.DIMENSION, resourcelocation));
+
+                                for(long i : compoundtag1.getLongArray(s)) {
+                                    longset.add(i);
+                                }
+                            }
+                        }
+                    }
+                } catch (IOException ioexception) {
+                    LOGGER.warn("Failed to read world upgrade progress from {}, starting over", pPath, ioexception);
+                }
+            }
+
+            return worldupgrader$checkpoint;
+        }
+
+        private LongSet getDoneRegions(ResourceKey<Level> pLevel) {
+            return this.doneRegions.computeIfAbsent(pLevel, level -> LongSets.synchronize(new LongOpenHashSet()));
+        }
+
+        boolean isDone(ResourceKey<Level> pLevel, int pRegionX, int pRegionZ) {
+            return this.getDoneRegions(pLevel).contains(ChunkPos.asLong(pRegionX, pRegionZ));
+        }
+
+        void markDone(ResourceKey<Level> pLevel, int pRegionX, int pRegionZ) {
+            this.getDoneRegions(pLevel).add(ChunkPos.asLong(pRegionX, pRegionZ));
+            synchronized(this) {
+                long i = Util.getMillis();
+                if (i - this.lastSave >= 1000L) {
+                    this.lastSave = i;
+                    this.save();
+                }
+            }
+        }
+
+        synchronized void save() {
+            CompoundTag compoundtag = new CompoundTag();
+            NbtUtils.addCurrentDataVersion(compoundtag);
+            compoundtag.putBoolean(ERASE_CACHE_TAG, this.eraseCache);
+            CompoundTag compoundtag1 = new CompoundTag();
+            this.doneRegions.forEach((level, regions) -> {
+                synchronized(regions) {
+                    compoundtag1.putLongArray(level.location().toString(), regions.toLongArray());
+                }
+            });
+            compoundtag.put(REGIONS_TAG, compoundtag1);
+
+            try {
+                Path path = Files.createTempFile(this.path.getParent(), CHECKPOINT_FILE, ".tmp");
+
+                try {
+                    NbtIo.writeCompressed(compoundtag, path);
+                    Files.move(path, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(path);
+                }
+            } catch (IOException ioexception) {
+                LOGGER.warn("Failed to save world upgrade progress to {}", this.path, ioexception);
+            }
+        }
+
+        void delete() {
+            try {
+                Files.deleteIfExists(this.path);
+            } catch (IOException ioexception) {
+                LOGGER.warn("Failed to delete world upgrade progress {}", this.path, ioexception);
+            }
+        }
+    }
 }
@@ -1,18 +1,25 @@
 package net.minecraft.world.level.chunk;
 
-import java.util.BitSet;
+import java.util.Arrays;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.ChunkPos;
 
+/**
+ * Neo: The mask is stored sparsely, with the bits of every 16 block tall section only allocated once one of them is set.
+ * Most sections of a chunk are never carved, and a dense mask of a full height chunk takes 12 KiB for each carving step.
+ */
 public class CarvingMask {
+    private static final int SECTION_SHIFT = 12;
+    private static final int SECTION_WORDS = 64;
     private final int minY;
-    private final BitSet mask;
+    private long[][] sections;
     private CarvingMask.Mask additionalMask = (p_196713_, p_196714_, p_196715_) -> false;
 
     public CarvingMask(int pMask, int pMinY) {
         this.minY = pMinY;
-        this.mask = new BitSet(256 * pMask);
+        this.sections = new long[pMask + 15 >> 4][];
     }
 
     public void setAdditionalMask(CarvingMask.Mask pAdditionalMask) {
@@ -21,7 +28,19 @@ public class CarvingMask {
 
     public CarvingMask(long[] pMask, int pMinY) {
         this.minY = pMinY;
-        this.mask = BitSet.valueOf(pMask);
+        this.sections = new long[(pMask.length + SECTION_WORDS - 1) / SECTION_WORDS][];
+
+        for(int i = 0; i < this.sections.length; ++i) {
+            int j = i * SECTION_WORDS;
+            long[] along = Arrays.copyOfRange(pMask, j, Math.min(j + SECTION_WORDS, pMask.length));
+
+            for(long k : along) {
+                if (k != 0L) {
+                    this.sections[i] = Arrays.copyOf(along, SECTION_WORDS);
+                    break;
+                }
+            }
+        }
     }
 
     private int getIndex(int pX, int pY, int pZ) {
@@ -29,15 +48,57 @@ public class CarvingMask {
     }
 
     public void set(int pX, int pY, int pZ) {
-        this.mask.set(this.getIndex(pX, pY, pZ));
+        int i = this.getIndex(pX, pY, pZ);
+        int j = i >> SECTION_SHIFT;
+        if (j >= this.sections.length) {
+            this.sections = Arrays.copyOf(this.sections, j + 1);
+        }
+
+        long[] along = this.sections[j];
+        if (along == null) {
+            along = new long[SECTION_WORDS];
+            this.sections[j] = along;
+        }
+
+        along[i >> 6 & SECTION_WORDS - 1] |= 1L << i;
     }
 
     public boolean get(int pX, int pY, int pZ) {
-        return this.additionalMask.test(pX, pY, pZ) || this.mask.get(this.getIndex(pX, pY, pZ));
+        return this.additionalMask.test(pX, pY, pZ) || this.getBit(this.getIndex(pX, pY, pZ));
+    }
+
+    private boolean getBit(int pIndex) {
+        int i = pIndex >> SECTION_SHIFT;
+        if (i >= 0 && i < this.sections.length) {
+            long[] along = this.sections[i];
+            return along != null && (along[pIndex >> 6 & SECTION_WORDS - 1] & 1L << pIndex) != 0L;
+        } else {
+            return false;
+        }
+    }
+
+    private IntStream streamIndices() {
+        IntStream.Builder builder = IntStream.builder();
+
+        for(int i = 0; i < this.sections.length; ++i) {
+            long[] along = this.sections[i];
+            if (along != null) {
+                for(int j = 0; j < SECTION_WORDS; ++j) {
+                    long k = along[j];
+
+                    while(k != 0L) {
+                        builder.add(i << SECTION_SHIFT | j << 6 | Long.numberOfTrailingZeros(k));
+                        k &= k - 1L;
+                    }
+                }
+            }
+        }
+
+        return builder.build();
     }
 
     public Stream<BlockPos> stream(ChunkPos pPos) {
-        return this.mask.stream().mapToObj(p_196709_ -> {
+        return this.streamIndices().mapToObj(p_196709_ -> {
             int i = p_196709_ & 15;
             int j = p_196709_ >> 4 & 15;
             int k = p_196709_ >> 8;
@@ -45,8 +106,49 @@ public class CarvingMask {
         });
     }
 
+    /**
+     * Returns the mask in the dense layout of {@link java.util.BitSet#toLongArray()}, which is how it is stored on disk.
+     */
     public long[] toArray() {
-        return this.mask.toLongArray();
+        int i = this.sections.length - 1;
+
+        while(i >= 0 && isEmpty(this.sections[i])) {
+            --i;
+        }
+
+        if (i < 0) {
+            return new long[0];
+        } else {
+            long[] along = this.sections[i];
+            int j = SECTION_WORDS;
+
+            while(along[j - 1] == 0L) {
+                --j;
+            }
+
+            long[] along1 = new long[i * SECTION_WORDS + j];
+
+            for(int k = 0; k <= i; ++k) {
+                long[] along2 = this.sections[k];
+                if (along2 != null) {
+                    System.arraycopy(along2, 0, along1, k * SECTION_WORDS, k == i ? j : SECTION_WORDS);
+                }
+            }
+
+            return along1;
+        }
+    }
+
+    private static boolean isEmpty(long[] pWords) {
+        if (pWords != null) {
+            for(long i : pWords) {
+                if (i != 0L) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
     }
 
     public interface Mask {
@@ -112,7 +112,7 @@ public abstract class ChunkGenerator {
         return CompletableFuture.supplyAsync(Util.wrapThreadWithTaskName("init_biomes", () -> {
             pChunk.fillBiomesFromNoise(this.biomeSource, pRandomState.sampler());
             return pChunk;
-        }), Util.backgroundExecutor());
+        }), Util.worldgenExecutor());
     }
 
     public abstract void applyCarvers(
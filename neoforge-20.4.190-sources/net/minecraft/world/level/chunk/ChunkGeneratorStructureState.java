@@ -143,7 +143,7 @@ public class ChunkGeneratorStructureState {
                                 return new ChunkPos(k1, l1);
                             }
                         },
-                        Util.backgroundExecutor()
+                        Util.worldgenExecutor()
                     )
                 );
                 d0 += (Math.PI * 2) / (double)k;
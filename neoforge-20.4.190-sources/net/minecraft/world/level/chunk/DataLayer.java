@@ -4,6 +4,7 @@ import java.util.Arrays;
 import javax.annotation.Nullable;
 import net.minecraft.Util;
 import net.minecraft.util.VisibleForDebug;
+import net.minecraft.world.level.LightLayer;
 
 /**
  * A representation of a 16x16x16 cube of nibbles (half-bytes).
@@ -13,6 +14,15 @@ public class DataLayer {
     public static final int LAYER_SIZE = 128;
     public static final int SIZE = 2048;
     private static final int NIBBLE_SIZE = 4;
+    /**
+     * Neo: The data of every uniform layer, by value, shared by {@link #toByteArray()} so that writing uniform layers does not allocate.
+     */
+    private static final byte[][] FILLED_DATA = Util.make(new byte[16][], filled -> {
+        for(int i = 0; i < filled.length; ++i) {
+            filled[i] = new byte[2048];
+            Arrays.fill(filled[i], packFilled(i));
+        }
+    });
     @Nullable
     protected byte[] data;
     private int defaultValue;
@@ -106,6 +116,49 @@ public class DataLayer {
         return this.data;
     }
 
+    /**
+     * Neo: Returns the nibbles of this layer like {@link #getData()}, but without allocating storage in this layer if it is uniform.
+     * The returned array may be shared and must not be modified.
+     */
+    public byte[] toByteArray() {
+        return this.data == null ? FILLED_DATA[this.defaultValue] : this.data;
+    }
+
+    /**
+     * Neo: Returns the value every nibble of this layer holds, or {@code -1} if they differ.
+     * Unlike {@link #isDefinitelyHomogenous()}, this also checks allocated data, which stays allocated after light has become uniform again.
+     */
+    public int getUniformValue() {
+        if (this.data == null) {
+            return this.defaultValue;
+        } else {
+            byte b0 = this.data[0];
+            if ((b0 & 15) != (b0 >> 4 & 15)) {
+                return -1;
+            } else {
+                for(int i = 1; i < this.data.length; ++i) {
+                    if (this.data[i] != b0) {
+                        return -1;
+                    }
+                }
+
+                return b0 & 15;
+            }
+        }
+    }
+
+    /**
+     * Neo: Creates a layer from the given nibbles, which only keeps the array if the nibbles are not all the same.
+     * <p>
+     * All-zero sky light keeps its array: sky light treats an {@linkplain #isEmpty() empty} layer as missing, fills it when the column is lit
+     * and leaves it out when the chunk is saved, so dark sky light must not become empty.
+     */
+    public static DataLayer ofData(byte[] pData, LightLayer pLayer) {
+        DataLayer datalayer = new DataLayer(pData);
+        int i = datalayer.getUniformValue();
+        return i == -1 || i == 0 && pLayer == LightLayer.SKY ? datalayer : new DataLayer(i);
+    }
+
     public DataLayer copy() {
         return this.data == null ? new DataLayer(this.defaultValue) : new DataLayer((byte[])this.data.clone());
     }
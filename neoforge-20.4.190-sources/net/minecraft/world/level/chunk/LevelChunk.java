@@ -80,6 +80,8 @@ public class LevelChunk extends ChunkAccess implements net.neoforged.neoforge.at
     private final Int2ObjectMap<GameEventListenerRegistry> gameEventListenerRegistrySections;
     private final LevelChunkTicks<Block> blockTicks;
     private final LevelChunkTicks<Fluid> fluidTicks;
+    // Neo: Bumped whenever the contents sent to clients may have changed, used to tell whether a cached chunk packet is still current
+    private int modificationCount;
 
     public LevelChunk(Level pLevel, ChunkPos pPos) {
         this(pLevel, pPos, UpgradeData.EMPTY, new LevelChunkTicks<>(), new LevelChunkTicks<>(), 0L, null, null, null);
@@ -296,6 +298,7 @@ public class LevelChunk extends ChunkAccess implements net.neoforged.neoforge.at
                     }
 
                     this.unsaved = true;
+                    ++this.modificationCount;
                     return blockstate;
                 }
             }
@@ -386,6 +389,7 @@ public class LevelChunk extends ChunkAccess implements net.neoforged.neoforge.at
             pBlockEntity.setLevel(this.level);
             pBlockEntity.clearRemoved();
             BlockEntity blockentity = this.blockEntities.put(blockpos.immutable(), pBlockEntity);
+            ++this.modificationCount;
             if (blockentity != null && blockentity != pBlockEntity) {
                 blockentity.setRemoved();
                 auxLightManager.removeLightAt(blockpos);
@@ -393,6 +397,24 @@ public class LevelChunk extends ChunkAccess implements net.neoforged.neoforge.at
         }
     }
 
+    /**
+     * Neo: Also counts every change that makes the chunk unsaved, which covers block entity, light and biome changes.
+     */
+    @Override
+    public void setUnsaved(boolean pUnsaved) {
+        super.setUnsaved(pUnsaved);
+        if (pUnsaved) {
+            ++this.modificationCount;
+        }
+    }
+
+    /**
+     * Neo: Returns a counter that changes whenever the blocks, block entities, light or biomes of this chunk may have changed.
+     */
+    public int getModificationCount() {
+        return this.modificationCount;
+    }
+
     @Nullable
     @Override
     public CompoundTag getBlockEntityNbtForSaving(BlockPos pPos) {
@@ -422,6 +444,7 @@ public class LevelChunk extends ChunkAccess implements net.neoforged.neoforge.at
         if (this.isInLevel()) {
             BlockEntity blockentity = this.blockEntities.remove(pPos);
             if (blockentity != null) {
+                ++this.modificationCount;
                 Level levelx = this.level;
                 if (levelx instanceof ServerLevel serverlevel) {
                     this.removeGameEventListener(blockentity, serverlevel);
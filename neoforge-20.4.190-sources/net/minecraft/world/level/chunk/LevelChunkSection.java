@@ -1,9 +1,21 @@
 package net.minecraft.world.level.chunk;
 
+import com.mojang.logging.LogUtils;
+import com.mojang.serialization.DataResult;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 import java.util.function.Predicate;
+import java.util.stream.LongStream;
+import javax.annotation.Nullable;
 import net.minecraft.core.Holder;
 import net.minecraft.core.Registry;
 import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.VarInt;
+import net.minecraft.util.BitStorage;
+import net.minecraft.util.SimpleBitStorage;
+import net.minecraft.util.ZeroBitStorage;
 import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.biome.BiomeResolver;
 import net.minecraft.world.level.biome.Biomes;
@@ -12,8 +24,10 @@ import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.material.FluidState;
+import org.slf4j.Logger;
 
 public class LevelChunkSection {
+    private static final Logger LOGGER = LogUtils.getLogger();
     public static final int SECTION_WIDTH = 16;
     public static final int SECTION_HEIGHT = 16;
     public static final int SECTION_SIZE = 4096;
@@ -21,8 +35,14 @@ public class LevelChunkSection {
     private short nonEmptyBlockCount;
     private short tickingBlockCount;
     private short tickingFluidCount;
-    private final PalettedContainer<BlockState> states;
+    private PalettedContainer<BlockState> states;
     private PalettedContainerRO<Holder<Biome>> biomes;
+    /**
+     * Neo: The serialized block states of a section loaded with {@link #fromPackedStates(PalettedContainerRO.PackedData, PalettedContainerRO)},
+     * until they are first accessed and unpacked into {@link #states}.
+     */
+    @Nullable
+    private volatile LevelChunkSection.PackedStates packedStates;
 
     public LevelChunkSection(PalettedContainer<BlockState> pStates, PalettedContainerRO<Holder<Biome>> pBiomes) {
         this.states = pStates;
@@ -30,25 +50,51 @@ public class LevelChunkSection {
         this.recalcBlockCounts();
     }
 
+    private LevelChunkSection(LevelChunkSection.PackedStates pPackedStates, PalettedContainerRO<Holder<Biome>> pBiomes) {
+        this.biomes = pBiomes;
+        this.countPackedBlocks(pPackedStates);
+        this.packedStates = pPackedStates;
+    }
+
+    /**
+     * Neo: Creates a section that keeps its block states in the palette and packed storage they were saved with, and only unpacks them into a {@link PalettedContainer}
+     * once they are modified or handed out through {@link #getStates()}. Block counts, single block reads, saving and, unless the palette is global, the network
+     * packet are all served from the packed storage.
+     * <p>
+     * Storage that does not match its palette is reported through the returned result, so it fails the chunk load like an eagerly decoded section would
+     * instead of failing later on whichever thread first unpacks the section.
+     */
+    public static DataResult<LevelChunkSection> fromPackedStates(PalettedContainerRO.PackedData<BlockState> pPackedStates, PalettedContainerRO<Holder<Biome>> pBiomes) {
+        return LevelChunkSection.PackedStates.of(pPackedStates).map(packedStates -> new LevelChunkSection(packedStates, pBiomes));
+    }
+
     public LevelChunkSection(Registry<Biome> pBiomeRegistry) {
         this.states = new PalettedContainer<>(Block.BLOCK_STATE_REGISTRY, Blocks.AIR.defaultBlockState(), PalettedContainer.Strategy.SECTION_STATES);
         this.biomes = new PalettedContainer<>(pBiomeRegistry.asHolderIdMap(), pBiomeRegistry.getHolderOrThrow(Biomes.PLAINS), PalettedContainer.Strategy.SECTION_BIOMES);
     }
 
     public BlockState getBlockState(int pX, int pY, int pZ) {
-        return this.states.get(pX, pY, pZ);
+        LevelChunkSection.PackedStates packedstates = this.packedStates; // Neo: Read still packed states without unpacking them
+        if (packedstates != null) {
+            BlockState blockstate = packedstates.get(PalettedContainer.Strategy.SECTION_STATES.getIndex(pX, pY, pZ));
+            if (blockstate != null) {
+                return blockstate;
+            }
+        }
+
+        return this.getStates().get(pX, pY, pZ);
     }
 
     public FluidState getFluidState(int pX, int pY, int pZ) {
-        return this.states.get(pX, pY, pZ).getFluidState();
+        return this.getBlockState(pX, pY, pZ).getFluidState();
     }
 
     public void acquire() {
-        this.states.acquire();
+        this.getStates().acquire();
     }
 
     public void release() {
-        this.states.release();
+        this.getStates().release();
     }
 
     public BlockState setBlockState(int pX, int pY, int pZ, BlockState pState) {
@@ -58,9 +104,9 @@ public class LevelChunkSection {
     public BlockState setBlockState(int pX, int pY, int pZ, BlockState pState, boolean pUseLocks) {
         BlockState blockstate;
         if (pUseLocks) {
-            blockstate = this.states.getAndSet(pX, pY, pZ, pState);
+            blockstate = this.getStates().getAndSet(pX, pY, pZ, pState);
         } else {
-            blockstate = this.states.getAndSetUnchecked(pX, pY, pZ, pState);
+            blockstate = this.getStates().getAndSetUnchecked(pX, pY, pZ, pState);
         }
 
         FluidState fluidstate = blockstate.getFluidState();
@@ -116,47 +162,72 @@ public class LevelChunkSection {
     }
 
     public void recalcBlockCounts() {
-        class BlockCounter implements PalettedContainer.CountConsumer<BlockState> {
-            public int nonEmptyBlockCount;
-            public int tickingBlockCount;
-            public int tickingFluidCount;
-
-            public void accept(BlockState p_204444_, int p_204445_) {
-                FluidState fluidstate = p_204444_.getFluidState();
-                if (!p_204444_.isEmpty()) { // Neo: Fix MC-232360 for modded blocks (Makes modded isAir blocks not be replaced with Blocks.AIR in all-air chunk sections)
-                    this.nonEmptyBlockCount += p_204445_;
-                    if (p_204444_.isRandomlyTicking()) {
-                        this.tickingBlockCount += p_204445_;
-                    }
-                }
+        LevelChunkSection.BlockCounter levelchunksection$blockcounter = new LevelChunkSection.BlockCounter();
+        this.getStates().count(levelchunksection$blockcounter);
+        this.setBlockCounts(levelchunksection$blockcounter);
+    }
 
-                if (!fluidstate.isEmpty()) {
-                    this.nonEmptyBlockCount += p_204445_;
-                    if (fluidstate.isRandomlyTicking()) {
-                        this.tickingFluidCount += p_204445_;
-                    }
+    /**
+     * Neo: Counts the blocks of still packed states by reading the palette indices directly out of the saved storage.
+     */
+    private void countPackedBlocks(LevelChunkSection.PackedStates pPackedStates) {
+        List<BlockState> list = pPackedStates.palette();
+        LevelChunkSection.BlockCounter levelchunksection$blockcounter = new LevelChunkSection.BlockCounter();
+        if (pPackedStates.storage().getBits() == 0) {
+            levelchunksection$blockcounter.accept(list.get(0), SECTION_SIZE);
+        } else {
+            Int2IntOpenHashMap int2intopenhashmap = new Int2IntOpenHashMap();
+            pPackedStates.storage().getAll(id -> int2intopenhashmap.addTo(id, 1));
+            int2intopenhashmap.int2IntEntrySet().forEach(entry -> {
+                if (entry.getIntKey() < list.size()) {
+                    levelchunksection$blockcounter.accept(list.get(entry.getIntKey()), entry.getIntValue());
                 }
-            }
+            });
         }
 
-        BlockCounter levelchunksection$1blockcounter = new BlockCounter();
-        this.states.count(levelchunksection$1blockcounter);
-        this.nonEmptyBlockCount = (short)levelchunksection$1blockcounter.nonEmptyBlockCount;
-        this.tickingBlockCount = (short)levelchunksection$1blockcounter.tickingBlockCount;
-        this.tickingFluidCount = (short)levelchunksection$1blockcounter.tickingFluidCount;
+        this.setBlockCounts(levelchunksection$blockcounter);
+    }
+
+    private void setBlockCounts(LevelChunkSection.BlockCounter pCounter) {
+        this.nonEmptyBlockCount = (short)pCounter.nonEmptyBlockCount;
+        this.tickingBlockCount = (short)pCounter.tickingBlockCount;
+        this.tickingFluidCount = (short)pCounter.tickingFluidCount;
     }
 
     public PalettedContainer<BlockState> getStates() {
+        if (this.packedStates != null) {
+            this.unpackStates();
+        }
+
         return this.states;
     }
 
+    private synchronized void unpackStates() {
+        LevelChunkSection.PackedStates packedstates = this.packedStates;
+        if (packedstates != null) {
+            this.states = PalettedContainer.unpack(Block.BLOCK_STATE_REGISTRY, PalettedContainer.Strategy.SECTION_STATES, packedstates.toPackedData())
+                .getOrThrow(false, LOGGER::error);
+            this.packedStates = null;
+        }
+    }
+
+    /**
+     * Neo: Packs the block states for saving, reusing the saved palette and storage as is if the states were never unpacked.
+     */
+    public PalettedContainerRO.PackedData<BlockState> packStates() {
+        LevelChunkSection.PackedStates packedstates = this.packedStates;
+        return packedstates != null
+            ? packedstates.toPackedData()
+            : this.states.pack(Block.BLOCK_STATE_REGISTRY, PalettedContainer.Strategy.SECTION_STATES);
+    }
+
     public PalettedContainerRO<Holder<Biome>> getBiomes() {
         return this.biomes;
     }
 
     public void read(FriendlyByteBuf pBuffer) {
         this.nonEmptyBlockCount = pBuffer.readShort();
-        this.states.read(pBuffer);
+        this.getStates().read(pBuffer);
         PalettedContainer<Holder<Biome>> palettedcontainer = this.biomes.recreate();
         palettedcontainer.read(pBuffer);
         this.biomes = palettedcontainer;
@@ -170,19 +241,28 @@ public class LevelChunkSection {
 
     public void write(FriendlyByteBuf pBuffer) {
         pBuffer.writeShort(this.nonEmptyBlockCount);
-        this.states.write(pBuffer);
+        LevelChunkSection.PackedStates packedstates = this.packedStates; // Neo: Send still packed states as saved when the client reads them the same way
+        if (packedstates != null && packedstates.directlyWritable()) {
+            packedstates.write(pBuffer);
+        } else {
+            this.getStates().write(pBuffer);
+        }
+
         this.biomes.write(pBuffer);
     }
 
     public int getSerializedSize() {
-        return 2 + this.states.getSerializedSize() + this.biomes.getSerializedSize();
+        LevelChunkSection.PackedStates packedstates = this.packedStates;
+        int i = packedstates != null && packedstates.directlyWritable() ? packedstates.getSerializedSize() : this.getStates().getSerializedSize();
+        return 2 + i + this.biomes.getSerializedSize();
     }
 
     /**
      * @return {@code true} if this section has any states matching the given predicate. As the internal representation uses a {@link net.minecraft.world.level.chunk.Palette}, this is more efficient than looping through every position in the section, or indeed the chunk.
      */
     public boolean maybeHas(Predicate<BlockState> pPredicate) {
-        return this.states.maybeHas(pPredicate);
+        LevelChunkSection.PackedStates packedstates = this.packedStates;
+        return packedstates != null ? packedstates.palette().stream().anyMatch(pPredicate) : this.states.maybeHas(pPredicate);
     }
 
     public Holder<Biome> getNoiseBiome(int pX, int pY, int pZ) {
@@ -203,4 +283,103 @@ public class LevelChunkSection {
 
         this.biomes = palettedcontainer;
     }
+
+    static class BlockCounter implements PalettedContainer.CountConsumer<BlockState> {
+        public int nonEmptyBlockCount;
+        public int tickingBlockCount;
+        public int tickingFluidCount;
+
+        public void accept(BlockState p_204444_, int p_204445_) {
+            FluidState fluidstate = p_204444_.getFluidState();
+            if (!p_204444_.isEmpty()) { // Neo: Fix MC-232360 for modded blocks (Makes modded isAir blocks not be replaced with Blocks.AIR in all-air chunk sections)
+                this.nonEmptyBlockCount += p_204445_;
+                if (p_204444_.isRandomlyTicking()) {
+                    this.tickingBlockCount += p_204445_;
+                }
+            }
+
+            if (!fluidstate.isEmpty()) {
+                this.nonEmptyBlockCount += p_204445_;
+                if (fluidstate.isRandomlyTicking()) {
+                    this.tickingFluidCount += p_204445_;
+                }
+            }
+        }
+    }
+
+    /**
+     * Neo: Saved block states, with the storage read at the bits they were saved with.
+     *
+     * @param directlyWritable whether the palette and storage are exactly what the unpacked container would send to the client. This holds for every
+     *                         palette except the global one, which the client reads with registry ids rather than palette indices.
+     */
+    static record PackedStates(List<BlockState> palette, @Nullable long[] data, BitStorage storage, boolean directlyWritable) {
+        static DataResult<LevelChunkSection.PackedStates> of(PalettedContainerRO.PackedData<BlockState> pPackedData) {
+            List<BlockState> list = pPackedData.paletteEntries();
+            long[] along = pPackedData.storage().map(LongStream::toArray).orElse(null);
+            int i = PalettedContainer.Strategy.SECTION_STATES.calculateBitsForSerialization(Block.BLOCK_STATE_REGISTRY, list.size());
+            BitStorage bitstorage;
+            if (i == 0) {
+                bitstorage = new ZeroBitStorage(SECTION_SIZE);
+            } else {
+                if (along == null) {
+                    return DataResult.error(() -> "Missing values for non-zero storage");
+                }
+
+                try {
+                    bitstorage = new SimpleBitStorage(i, SECTION_SIZE, along);
+                } catch (SimpleBitStorage.InitializationException simplebitstorage$initializationexception) {
+                    return DataResult.error(() -> "Failed to read PalettedContainer: " + simplebitstorage$initializationexception.getMessage());
+                }
+            }
+
+            boolean flag = PalettedContainer.Strategy.SECTION_STATES.getConfiguration(Block.BLOCK_STATE_REGISTRY, i).factory()
+                != PalettedContainer.Strategy.GLOBAL_PALETTE_FACTORY;
+            return DataResult.success(new LevelChunkSection.PackedStates(list, along, bitstorage, flag));
+        }
+
+        /**
+         * @return the state at the given index, or {@code null} if the storage points past the palette and the unpacked container has to decide
+         */
+        @Nullable
+        BlockState get(int pIndex) {
+            int i = this.storage.get(pIndex);
+            return i < this.palette.size() ? this.palette.get(i) : null;
+        }
+
+        void write(FriendlyByteBuf pBuffer) {
+            pBuffer.writeByte(this.storage.getBits());
+            if (this.storage.getBits() == 0) {
+                pBuffer.writeVarInt(Block.BLOCK_STATE_REGISTRY.getId(this.palette.get(0)));
+            } else {
+                pBuffer.writeVarInt(this.palette.size());
+
+                for(BlockState blockstate : this.palette) {
+                    pBuffer.writeVarInt(Block.BLOCK_STATE_REGISTRY.getId(blockstate));
+                }
+            }
+
+            pBuffer.writeLongArray(this.storage.getRaw());
+        }
+
+        int getSerializedSize() {
+            int i;
+            if (this.storage.getBits() == 0) {
+                i = VarInt.getByteSize(Block.BLOCK_STATE_REGISTRY.getId(this.palette.get(0)));
+            } else {
+                i = VarInt.getByteSize(this.palette.size());
+
+                for(BlockState blockstate : this.palette) {
+                    i += VarInt.getByteSize(Block.BLOCK_STATE_REGISTRY.getId(blockstate));
+                }
+            }
+
+            long[] along = this.storage.getRaw();
+            return 1 + i + VarInt.getByteSize(along.length) + along.length * 8;
+        }
+
+        PalettedContainerRO.PackedData<BlockState> toPackedData() {
+            return new PalettedContainerRO.PackedData<>(this.palette, Optional.ofNullable(this.data).map(Arrays::stream));
+        }
+    }
 }
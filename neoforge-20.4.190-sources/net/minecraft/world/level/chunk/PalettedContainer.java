@@ -58,19 +58,26 @@ public class PalettedContainer<T> implements PaletteResize<T>, PalettedContainer
     private static <T, C extends PalettedContainerRO<T>> Codec<C> codec(
         IdMap<T> pRegistry, Codec<T> pCodec, PalettedContainer.Strategy pStrategy, T pValue, PalettedContainerRO.Unpacker<T, C> pUnpacker
     ) {
-        return RecordCodecBuilder.<PalettedContainerRO.PackedData<T>>create(
-                p_188047_ -> p_188047_.group(
-                            pCodec.mapResult(ExtraCodecs.orElsePartial(pValue))
-                                .listOf()
-                                .fieldOf("palette")
-                                .forGetter(PalettedContainerRO.PackedData::paletteEntries),
-                            Codec.LONG_STREAM.optionalFieldOf("data").forGetter(PalettedContainerRO.PackedData::storage)
-                        )
-                        .apply(p_188047_, PalettedContainerRO.PackedData::new)
-            )
+        return packedCodec(pCodec, pValue)
             .comapFlatMap(p_238262_ -> pUnpacker.read(pRegistry, pStrategy, p_238262_), p_238263_ -> p_238263_.pack(pRegistry, pStrategy));
     }
 
+    /**
+     * Neo: The serialized form shared by {@link #codecRW} and {@link #codecRO}, for callers that want to keep the palette and packed storage without unpacking them.
+     */
+    public static <T> Codec<PalettedContainerRO.PackedData<T>> packedCodec(Codec<T> pCodec, T pValue) {
+        return RecordCodecBuilder.create(
+            p_188047_ -> p_188047_.group(
+                        pCodec.mapResult(ExtraCodecs.orElsePartial(pValue))
+                            .listOf()
+                            .fieldOf("palette")
+                            .forGetter(PalettedContainerRO.PackedData::paletteEntries),
+                        Codec.LONG_STREAM.optionalFieldOf("data").forGetter(PalettedContainerRO.PackedData::storage)
+                    )
+                    .apply(p_188047_, PalettedContainerRO.PackedData::new)
+        );
+    }
+
     public PalettedContainer(
         IdMap<T> pRegistry, PalettedContainer.Strategy pStrategy, PalettedContainer.Configuration<T> pConfiguration, BitStorage pStorage, List<T> pValues
     ) {
@@ -195,7 +202,7 @@ public class PalettedContainer<T> implements PaletteResize<T>, PalettedContainer
         }
     }
 
-    private static <T> DataResult<PalettedContainer<T>> unpack(
+    static <T> DataResult<PalettedContainer<T>> unpack(
         IdMap<T> p_188068_, PalettedContainer.Strategy p_188069_, PalettedContainerRO.PackedData<T> p_238258_
     ) {
         List<T> list = p_238258_.paletteEntries();
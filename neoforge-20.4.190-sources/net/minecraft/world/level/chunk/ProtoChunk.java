@@ -222,6 +222,15 @@ public class ProtoChunk extends ChunkAccess {
             this.setBelowZeroRetrogen(null);
         }
 
+        // Neo: Free the generation data that later statuses never read, as a chunk can be parked at an intermediate status in the generation border for a long time
+        if (pStatus.isOrAfter(ChunkStatus.CARVERS)) {
+            this.noiseChunk = null;
+        }
+
+        if (pStatus.isOrAfter(ChunkStatus.FEATURES)) {
+            this.carvingMasks.clear();
+        }
+
         this.setUnsaved(true);
     }
 
@@ -294,6 +303,11 @@ public class ProtoChunk extends ChunkAccess {
     }
 
     public void setCarvingMask(GenerationStep.Carving pStep, CarvingMask pCarvingMask) {
+        // Neo: Carving masks are only read while placing features, so do not keep the ones loaded for chunks that are already past that
+        if (this.status.isOrAfter(ChunkStatus.FEATURES)) {
+            return;
+        }
+
         this.carvingMasks.put(pStep, pCarvingMask);
     }
 
@@ -0,0 +1,159 @@
+package net.minecraft.world.level.chunk.storage;
+
+import com.mojang.logging.LogUtils;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import net.minecraft.Util;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.visitors.CollectFields;
+import net.minecraft.nbt.visitors.FieldSelector;
+import net.minecraft.world.level.ChunkPos;
+import org.slf4j.Logger;
+
+/**
+ * Neo: Collects the fields picked by a set of {@link FieldSelector}s from every stored chunk of a {@link ChunkScanAccess}, without loading any of the chunks.
+ * <p>
+ * Each scan thread captures one region at a time through {@link ChunkScanAccess#captureRegion(ChunkPos)}, which keeps pending saves visible,
+ * and then decompresses and visits its chunks on the given executor. Accesses that can not capture regions are scanned one chunk at a time through
+ * {@link ChunkScanAccess#scanChunk(ChunkPos, net.minecraft.nbt.StreamTagVisitor)} instead. The consumer is called as soon as each chunk has been read, from several threads at once,
+ * with the data as it is stored: it has not been upgraded by the data fixers, so selecting {@code DataVersion} as well is recommended.
+ * <p>
+ * For example, the inhabited time of every chunk of a level can be collected with
+ * {@code BulkChunkScanner.scan(level.getChunkSource().chunkScanner(), 4, consumer, new FieldSelector(IntTag.TYPE, "InhabitedTime"))}.
+ */
+public final class BulkChunkScanner {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private final ChunkScanAccess access;
+    private final Executor executor;
+    private final BiConsumer<ChunkPos, CompoundTag> consumer;
+    private final FieldSelector[] selectors;
+    private final Queue<ChunkPos> regions = new ConcurrentLinkedQueue<>();
+    private final AtomicLong scannedChunks = new AtomicLong();
+    private final AtomicLong failedChunks = new AtomicLong();
+
+    private BulkChunkScanner(ChunkScanAccess pAccess, Executor pExecutor, BiConsumer<ChunkPos, CompoundTag> pConsumer, FieldSelector[] pSelectors) {
+        this.access = pAccess;
+        this.executor = pExecutor;
+        this.consumer = pConsumer;
+        this.selectors = pSelectors;
+    }
+
+    public static CompletableFuture<BulkChunkScanner.Result> scan(
+        ChunkScanAccess pAccess, int pParallelism, BiConsumer<ChunkPos, CompoundTag> pConsumer, FieldSelector... pSelectors
+    ) {
+        return scan(pAccess, Util.backgroundExecutor(), pParallelism, pConsumer, pSelectors);
+    }
+
+    /**
+     * Scans every stored chunk.
+     *
+     * @param pParallelism the number of regions that are scanned at the same time
+     * @param pConsumer    receives the selected fields of each chunk, and has to be thread-safe
+     * @return a future completed once every region has been scanned, which fails with an {@link UnsupportedOperationException}
+     *         if the access can not list its regions
+     */
+    public static CompletableFuture<BulkChunkScanner.Result> scan(
+        ChunkScanAccess pAccess, Executor pExecutor, int pParallelism, BiConsumer<ChunkPos, CompoundTag> pConsumer, FieldSelector... pSelectors
+    ) {
+        BulkChunkScanner bulkchunkscanner = new BulkChunkScanner(pAccess, pExecutor, pConsumer, pSelectors);
+        return pAccess.listRegions().thenCompose(regions -> bulkchunkscanner.scanRegions(regions, pParallelism));
+    }
+
+    private CompletableFuture<BulkChunkScanner.Result> scanRegions(List<ChunkPos> pRegions, int pParallelism) {
+        this.regions.addAll(pRegions);
+        CompletableFuture<?>[] futures = new CompletableFuture[Math.max(1, Math.min(pParallelism, pRegions.size()))];
+
+        for(int i = 0; i < futures.length; ++i) {
+            futures[i] = this.scanNextRegion();
+        }
+
+        return CompletableFuture.allOf(futures)
+            .thenApply(ignored -> new BulkChunkScanner.Result(pRegions.size(), this.scannedChunks.get(), this.failedChunks.get()));
+    }
+
+    private CompletableFuture<Void> scanNextRegion() {
+        ChunkPos chunkpos = this.regions.poll();
+        if (chunkpos == null) {
+            return CompletableFuture.completedFuture(null);
+        } else {
+            return this.access
+                .captureRegion(chunkpos)
+                .thenAcceptAsync(this::scanRegion, this.executor)
+                .exceptionallyCompose(
+                    throwable -> isUnsupported(throwable) ? this.scanRegionByChunk(chunkpos) : CompletableFuture.failedFuture(throwable)
+                )
+                .exceptionally(throwable -> {
+                    LOGGER.warn("Failed to scan region {}, {}", chunkpos.x, chunkpos.z, throwable);
+                    return null;
+                })
+                .thenCompose(ignored -> this.scanNextRegion());
+        }
+    }
+
+    private void scanRegion(Map<ChunkPos, ChunkScanAccess.StoredChunk> pChunks) {
+        for(Entry<ChunkPos, ChunkScanAccess.StoredChunk> entry : pChunks.entrySet()) {
+            CollectFields collectfields = new CollectFields(this.selectors);
+
+            try {
+                entry.getValue().accept(collectfields);
+                if (collectfields.getResult() instanceof CompoundTag compoundtag) {
+                    this.consumer.accept(entry.getKey(), compoundtag);
+                }
+
+                this.scannedChunks.incrementAndGet();
+            } catch (Exception exception) {
+                LOGGER.warn("Failed to scan chunk {}", entry.getKey(), exception);
+                this.failedChunks.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Scans every chunk position of a region on its own, for accesses that can not capture whole regions.
+     */
+    private CompletableFuture<Void> scanRegionByChunk(ChunkPos pRegionPos) {
+        CompletableFuture<?>[] futures = new CompletableFuture[1024];
+
+        for(int i = 0; i < 32; ++i) {
+            for(int j = 0; j < 32; ++j) {
+                ChunkPos chunkpos = new ChunkPos((pRegionPos.x << 5) + j, (pRegionPos.z << 5) + i);
+                CollectFields collectfields = new CollectFields(this.selectors);
+                futures[i * 32 + j] = this.access.scanChunk(chunkpos, collectfields).thenRunAsync(() -> {
+                    if (collectfields.getResult() instanceof CompoundTag compoundtag) {
+                        this.consumer.accept(chunkpos, compoundtag);
+                        this.scannedChunks.incrementAndGet();
+                    }
+                }, this.executor).exceptionally(throwable -> {
+                    LOGGER.warn("Failed to scan chunk {}", chunkpos, throwable);
+                    this.failedChunks.incrementAndGet();
+                    return null;
+                });
+            }
+        }
+
+        return CompletableFuture.allOf(futures);
+    }
+
+    private static boolean isUnsupported(Throwable pThrowable) {
+        Throwable throwable = pThrowable instanceof CompletionException ? pThrowable.getCause() : pThrowable;
+        return throwable instanceof UnsupportedOperationException;
+    }
+
+    /**
+     * The totals of a finished scan.
+     *
+     * @param regions  the number of regions that were scanned
+     * @param chunks   the number of chunks that were read
+     * @param failures the number of chunks that could not be read
+     */
+    public static record Result(int regions, long chunks, long failures) {
+    }
+}
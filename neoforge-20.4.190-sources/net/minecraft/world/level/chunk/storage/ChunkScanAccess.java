@@ -1,9 +1,44 @@
 package net.minecraft.world.level.chunk.storage;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import net.minecraft.nbt.StreamTagVisitor;
 import net.minecraft.world.level.ChunkPos;
 
 public interface ChunkScanAccess {
     CompletableFuture<Void> scanChunk(ChunkPos pChunkPos, StreamTagVisitor pVisitor);
+
+    /**
+     * Neo: Lists the regions that hold stored chunks.
+     *
+     * @return the region coordinates of every region, or a future failed with an {@link UnsupportedOperationException} if bulk scans are not supported
+     */
+    default CompletableFuture<List<ChunkPos>> listRegions() {
+        return CompletableFuture.failedFuture(new UnsupportedOperationException("Bulk scan not supported by " + this));
+    }
+
+    /**
+     * Neo: Captures the current data of every chunk stored in a region. Unlike {@link #scanChunk(ChunkPos, StreamTagVisitor)}, the captured chunks are
+     * visited by the caller on any thread, so the expensive decompression and parsing is not bound to the thread that owns the storage.
+     *
+     * @return the captured chunks by chunk position, each of which has to be visited exactly once,
+     *         or a future failed with an {@link UnsupportedOperationException} if bulk scans are not supported
+     * @see BulkChunkScanner
+     */
+    default CompletableFuture<Map<ChunkPos, ChunkScanAccess.StoredChunk>> captureRegion(ChunkPos pRegionPos) {
+        return CompletableFuture.failedFuture(new UnsupportedOperationException("Bulk scan not supported by " + this));
+    }
+
+    /**
+     * Neo: The data of a single chunk captured by {@link #captureRegion(ChunkPos)}.
+     */
+    @FunctionalInterface
+    public interface StoredChunk {
+        /**
+         * Streams the chunk data to the visitor and releases anything held for it.
+         */
+        void accept(StreamTagVisitor pVisitor) throws IOException;
+    }
 }
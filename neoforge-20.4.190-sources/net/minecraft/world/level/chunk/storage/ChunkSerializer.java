@@ -12,7 +12,10 @@ import java.util.EnumSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import javax.annotation.Nullable;
+import net.minecraft.SharedConstants;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Holder;
 import net.minecraft.core.Registry;
@@ -21,6 +24,7 @@ import net.minecraft.core.SectionPos;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.CompoundTagWriter;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.LongArrayTag;
 import net.minecraft.nbt.NbtOps;
@@ -68,7 +72,15 @@ public class ChunkSerializer {
     private static final Codec<PalettedContainer<BlockState>> BLOCK_STATE_CODEC = PalettedContainer.codecRW(
         Block.BLOCK_STATE_REGISTRY, BlockState.CODEC, PalettedContainer.Strategy.SECTION_STATES, Blocks.AIR.defaultBlockState()
     );
+    /**
+     * Neo: Reads only the palette and packed storage of block states, which {@link LevelChunkSection} keeps until they are first accessed.
+     */
+    private static final Codec<PalettedContainerRO.PackedData<BlockState>> PACKED_BLOCK_STATE_CODEC = PalettedContainer.packedCodec(
+        BlockState.CODEC, Blocks.AIR.defaultBlockState()
+    );
+    private static final boolean LAZY_SECTION_DECODING = Boolean.parseBoolean(System.getProperty("neoforge.lazySectionDecoding", "true"));
     private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Map<BlockState, CompoundTagWriter.Encoded> ENCODED_BLOCK_STATES = new ConcurrentHashMap<>();
     private static final String TAG_UPGRADE_DATA = "UpgradeData";
     private static final String BLOCK_TICKS_TAG = "block_ticks";
     private static final String FLUID_TICKS_TAG = "fluid_ticks";
@@ -103,11 +115,23 @@ public class ChunkSerializer {
             int k = compoundtag.getByte("Y");
             int l = pLevel.getSectionIndexFromSectionY(k);
             if (l >= 0 && l < alevelchunksection.length) {
-                PalettedContainer<BlockState> palettedcontainer;
+                PalettedContainerRO.PackedData<BlockState> packeddata = null;
+                PalettedContainer<BlockState> palettedcontainer = null;
                 if (compoundtag.contains("block_states", 10)) {
-                    palettedcontainer = BLOCK_STATE_CODEC.parse(NbtOps.INSTANCE, compoundtag.getCompound("block_states"))
-                        .promotePartial(p_188283_ -> logErrors(pPos, k, p_188283_))
-                        .getOrThrow(false, LOGGER::error);
+                    if (LAZY_SECTION_DECODING) {
+                        packeddata = PACKED_BLOCK_STATE_CODEC.parse(NbtOps.INSTANCE, compoundtag.getCompound("block_states"))
+                            .promotePartial(p_188283_ -> logErrors(pPos, k, p_188283_))
+                            .getOrThrow(false, LOGGER::error);
+                        if (packeddata.paletteEntries().isEmpty()) {
+                            packeddata = null;
+                        }
+                    }
+
+                    if (packeddata == null) {
+                        palettedcontainer = BLOCK_STATE_CODEC.parse(NbtOps.INSTANCE, compoundtag.getCompound("block_states"))
+                            .promotePartial(p_188283_ -> logErrors(pPos, k, p_188283_))
+                            .getOrThrow(false, LOGGER::error);
+                    }
                 } else {
                     palettedcontainer = new PalettedContainer<>(
                         Block.BLOCK_STATE_REGISTRY, Blocks.AIR.defaultBlockState(), PalettedContainer.Strategy.SECTION_STATES
@@ -125,7 +149,11 @@ public class ChunkSerializer {
                     );
                 }
 
-                LevelChunkSection levelchunksection = new LevelChunkSection(palettedcontainer, palettedcontainerro);
+                LevelChunkSection levelchunksection = packeddata != null
+                    ? LevelChunkSection.fromPackedStates(packeddata, palettedcontainerro)
+                        .promotePartial(p_188283_ -> logErrors(pPos, k, p_188283_))
+                        .getOrThrow(false, LOGGER::error)
+                    : new LevelChunkSection(palettedcontainer, palettedcontainerro);
                 alevelchunksection[l] = levelchunksection;
                 SectionPos sectionpos = SectionPos.of(pPos, k);
                 pPoiManager.checkConsistencyWithBlocks(sectionpos, levelchunksection);
@@ -140,11 +168,11 @@ public class ChunkSerializer {
                 }
 
                 if (flag3) {
-                    levellightengine.queueSectionData(LightLayer.BLOCK, SectionPos.of(pPos, k), new DataLayer(compoundtag.getByteArray("BlockLight")));
+                    levellightengine.queueSectionData(LightLayer.BLOCK, SectionPos.of(pPos, k), DataLayer.ofData(compoundtag.getByteArray("BlockLight"), LightLayer.BLOCK));
                 }
 
                 if (flag4) {
-                    levellightengine.queueSectionData(LightLayer.SKY, SectionPos.of(pPos, k), new DataLayer(compoundtag.getByteArray("SkyLight")));
+                    levellightengine.queueSectionData(LightLayer.SKY, SectionPos.of(pPos, k), DataLayer.ofData(compoundtag.getByteArray("SkyLight"), LightLayer.SKY));
                 }
             }
         }
@@ -282,20 +310,39 @@ public class ChunkSerializer {
     }
 
     public static CompoundTag write(ServerLevel pLevel, ChunkAccess pChunk) {
+        return writeChunk(pLevel, pChunk, true).toTag();
+    }
+
+    /**
+     * Neo: Returns the bytes {@link net.minecraft.nbt.NbtIo#write(CompoundTag, java.io.DataOutput)} would write for the tag {@link #write} builds, without building the tag.
+     * The sections, their palettes, light and heightmaps are written straight from the chunk, so this must be called on the thread that saves the chunk.
+     */
+    public static byte[] serialize(ServerLevel pLevel, ChunkAccess pChunk) {
+        return writeChunk(pLevel, pChunk, false).toByteArray();
+    }
+
+    /**
+     * Neo: Collects the chunk data in the order {@link #write} used to put it into the tag, so that both the tag and the streamed bytes stay identical to
+     * what was saved before.
+     *
+     * @param pDetached whether the result is turned into a tag, in which case shared arrays are copied so the tag owns them
+     */
+    private static CompoundTagWriter writeChunk(ServerLevel pLevel, ChunkAccess pChunk, boolean pDetached) {
         ChunkPos chunkpos = pChunk.getPos();
-        CompoundTag compoundtag = NbtUtils.addCurrentDataVersion(new CompoundTag());
-        compoundtag.putInt("xPos", chunkpos.x);
-        compoundtag.putInt("yPos", pChunk.getMinSection());
-        compoundtag.putInt("zPos", chunkpos.z);
-        compoundtag.putLong("LastUpdate", pLevel.getGameTime());
-        compoundtag.putLong("InhabitedTime", pChunk.getInhabitedTime());
-        compoundtag.putString("Status", BuiltInRegistries.CHUNK_STATUS.getKey(pChunk.getStatus()).toString());
+        CompoundTagWriter compoundtagwriter = new CompoundTagWriter();
+        compoundtagwriter.putInt("DataVersion", SharedConstants.getCurrentVersion().getDataVersion().getVersion());
+        compoundtagwriter.putInt("xPos", chunkpos.x);
+        compoundtagwriter.putInt("yPos", pChunk.getMinSection());
+        compoundtagwriter.putInt("zPos", chunkpos.z);
+        compoundtagwriter.putLong("LastUpdate", pLevel.getGameTime());
+        compoundtagwriter.putLong("InhabitedTime", pChunk.getInhabitedTime());
+        compoundtagwriter.putString("Status", BuiltInRegistries.CHUNK_STATUS.getKey(pChunk.getStatus()).toString());
         BlendingData blendingdata = pChunk.getBlendingData();
         if (blendingdata != null) {
             BlendingData.CODEC
                 .encodeStart(NbtOps.INSTANCE, blendingdata)
                 .resultOrPartial(LOGGER::error)
-                .ifPresent(p_196909_ -> compoundtag.put("blending_data", p_196909_));
+                .ifPresent(p_196909_ -> compoundtagwriter.put("blending_data", p_196909_));
         }
 
         BelowZeroRetrogen belowzeroretrogen = pChunk.getBelowZeroRetrogen();
@@ -303,16 +350,16 @@ public class ChunkSerializer {
             BelowZeroRetrogen.CODEC
                 .encodeStart(NbtOps.INSTANCE, belowzeroretrogen)
                 .resultOrPartial(LOGGER::error)
-                .ifPresent(p_188279_ -> compoundtag.put("below_zero_retrogen", p_188279_));
+                .ifPresent(p_188279_ -> compoundtagwriter.put("below_zero_retrogen", p_188279_));
         }
 
         UpgradeData upgradedata = pChunk.getUpgradeData();
         if (!upgradedata.isEmpty()) {
-            compoundtag.put("UpgradeData", upgradedata.write());
+            compoundtagwriter.put("UpgradeData", upgradedata.write());
         }
 
         LevelChunkSection[] alevelchunksection = pChunk.getSections();
-        ListTag listtag = new ListTag();
+        CompoundTagWriter.ListWriter listwriter = new CompoundTagWriter.ListWriter();
         LevelLightEngine levellightengine = pLevel.getChunkSource().getLightEngine();
         Registry<Biome> registry = pLevel.registryAccess().registryOrThrow(Registries.BIOME);
         Codec<PalettedContainerRO<Holder<Biome>>> codec = makeBiomeCodec(registry);
@@ -324,33 +371,47 @@ public class ChunkSerializer {
             DataLayer datalayer = levellightengine.getLayerListener(LightLayer.BLOCK).getDataLayerData(SectionPos.of(chunkpos, i));
             DataLayer datalayer1 = levellightengine.getLayerListener(LightLayer.SKY).getDataLayerData(SectionPos.of(chunkpos, i));
             if (flag1 || datalayer != null || datalayer1 != null) {
-                CompoundTag compoundtag1 = new CompoundTag();
+                CompoundTagWriter compoundtagwriter1 = new CompoundTagWriter();
                 if (flag1) {
                     LevelChunkSection levelchunksection = alevelchunksection[j];
-                    compoundtag1.put(
-                        "block_states", BLOCK_STATE_CODEC.encodeStart(NbtOps.INSTANCE, levelchunksection.getStates()).getOrThrow(false, LOGGER::error)
+                    // Neo: encode the containers directly instead of through their codecs, into the same entries the codecs produce
+                    compoundtagwriter1.put(
+                        "block_states",
+                        writePalettedContainer(levelchunksection.packStates(), (list, state) -> list.add(encodeBlockState(state)))
                     );
-                    compoundtag1.put("biomes", codec.encodeStart(NbtOps.INSTANCE, levelchunksection.getBiomes()).getOrThrow(false, LOGGER::error));
+                    PalettedContainerRO<Holder<Biome>> biomes = levelchunksection.getBiomes();
+                    if (biomes.maybeHas(biome -> biome.unwrapKey().isEmpty())) {
+                        compoundtagwriter1.put("biomes", codec.encodeStart(NbtOps.INSTANCE, biomes).getOrThrow(false, LOGGER::error));
+                    } else {
+                        compoundtagwriter1.put(
+                            "biomes",
+                            writePalettedContainer(
+                                biomes.pack(registry.asHolderIdMap(), PalettedContainer.Strategy.SECTION_BIOMES),
+                                (list, biome) -> list.addString(biome.unwrapKey().orElseThrow().location().toString())
+                            )
+                        );
+                    }
                 }
 
                 if (datalayer != null && !datalayer.isEmpty()) {
-                    compoundtag1.putByteArray("BlockLight", datalayer.getData());
+                    // Neo: Do not allocate the data of uniform layers that are still in use just to save them
+                    compoundtagwriter1.putByteArray("BlockLight", layerData(datalayer, pDetached));
                 }
 
                 if (datalayer1 != null && !datalayer1.isEmpty()) {
-                    compoundtag1.putByteArray("SkyLight", datalayer1.getData());
+                    compoundtagwriter1.putByteArray("SkyLight", layerData(datalayer1, pDetached));
                 }
 
-                if (!compoundtag1.isEmpty()) {
-                    compoundtag1.putByte("Y", (byte)i);
-                    listtag.add(compoundtag1);
+                if (!compoundtagwriter1.isEmpty()) {
+                    compoundtagwriter1.putByte("Y", (byte)i);
+                    listwriter.add(compoundtagwriter1);
                 }
             }
         }
 
-        compoundtag.put("sections", listtag);
+        compoundtagwriter.put("sections", listwriter);
         if (flag) {
-            compoundtag.putBoolean("isLightOn", true);
+            compoundtagwriter.putBoolean("isLightOn", true);
         }
 
         ListTag listtag1 = new ListTag();
@@ -362,54 +423,89 @@ public class ChunkSerializer {
             }
         }
 
-        compoundtag.put("block_entities", listtag1);
+        compoundtagwriter.put("block_entities", listtag1);
         if (pChunk.getStatus().getChunkType() == ChunkStatus.ChunkType.PROTOCHUNK) {
             ProtoChunk protochunk = (ProtoChunk)pChunk;
             ListTag listtag2 = new ListTag();
             listtag2.addAll(protochunk.getEntities());
-            compoundtag.put("entities", listtag2);
-            CompoundTag compoundtag4 = new CompoundTag();
+            compoundtagwriter.put("entities", listtag2);
+            CompoundTagWriter compoundtagwriter4 = new CompoundTagWriter();
 
             for(GenerationStep.Carving generationstep$carving : GenerationStep.Carving.values()) {
                 CarvingMask carvingmask = protochunk.getCarvingMask(generationstep$carving);
                 if (carvingmask != null) {
-                    compoundtag4.putLongArray(generationstep$carving.toString(), carvingmask.toArray());
+                    compoundtagwriter4.putLongArray(generationstep$carving.toString(), carvingmask.toArray());
                 }
             }
 
-            compoundtag.put("CarvingMasks", compoundtag4);
+            compoundtagwriter.put("CarvingMasks", compoundtagwriter4);
         }
         else if (pChunk instanceof LevelChunk levelChunk){
 
              Tag lightTag = levelChunk.getAuxLightManager(chunkpos).serializeNBT();
-             if (lightTag != null) compoundtag.put(net.neoforged.neoforge.common.world.LevelChunkAuxiliaryLightManager.LIGHT_NBT_KEY, lightTag);
+             if (lightTag != null) compoundtagwriter.put(net.neoforged.neoforge.common.world.LevelChunkAuxiliaryLightManager.LIGHT_NBT_KEY, lightTag);
         }
 
-        saveTicks(pLevel, compoundtag, pChunk.getTicksForSerialization());
-        compoundtag.put("PostProcessing", packOffsets(pChunk.getPostProcessing()));
-        CompoundTag compoundtag2 = new CompoundTag();
+        saveTicks(pLevel, compoundtagwriter, pChunk.getTicksForSerialization());
+        compoundtagwriter.put("PostProcessing", packOffsets(pChunk.getPostProcessing()));
+        CompoundTagWriter compoundtagwriter2 = new CompoundTagWriter();
 
         for(Entry<Heightmap.Types, Heightmap> entry : pChunk.getHeightmaps()) {
             if (pChunk.getStatus().heightmapsAfter().contains(entry.getKey())) {
-                compoundtag2.put(entry.getKey().getSerializationKey(), new LongArrayTag(entry.getValue().getRawData()));
+                compoundtagwriter2.putLongArray(entry.getKey().getSerializationKey(), entry.getValue().getRawData());
             }
         }
 
         try {
             final CompoundTag capTag = pChunk.writeAttachmentsToNBT();
-            if (capTag != null) compoundtag.put(net.neoforged.neoforge.attachment.AttachmentHolder.ATTACHMENTS_NBT_KEY, capTag);
+            if (capTag != null) compoundtagwriter.put(net.neoforged.neoforge.attachment.AttachmentHolder.ATTACHMENTS_NBT_KEY, capTag);
         } catch (Exception exception) {
             LOGGER.error("Failed to write chunk attachments. An attachment has likely thrown an exception trying to write state. It will not persist. Report this to the mod author", exception);
         }
-        compoundtag.put("Heightmaps", compoundtag2);
-        compoundtag.put(
+        compoundtagwriter.put("Heightmaps", compoundtagwriter2);
+        compoundtagwriter.put(
             "structures",
             packStructureData(StructurePieceSerializationContext.fromLevel(pLevel), chunkpos, pChunk.getAllStarts(), pChunk.getAllReferences())
         );
-        return compoundtag;
+        return compoundtagwriter;
+    }
+
+    /**
+     * Neo: Collects the same entries {@link PalettedContainer#codecRW} and {@link PalettedContainer#codecRO} would encode, without the intermediate
+     * {@link com.mojang.serialization.DataResult}s, record builders and boxed streams of the codec, since this runs for every section of every saved chunk.
+     */
+    private static <T> CompoundTagWriter writePalettedContainer(
+        PalettedContainerRO.PackedData<T> pPackedData, BiConsumer<CompoundTagWriter.ListWriter, T> pEntryWriter
+    ) {
+        CompoundTagWriter.ListWriter listwriter = new CompoundTagWriter.ListWriter();
+
+        for(T t : pPackedData.paletteEntries()) {
+            pEntryWriter.accept(listwriter, t);
+        }
+
+        CompoundTagWriter compoundtagwriter = new CompoundTagWriter();
+        compoundtagwriter.put("palette", listwriter);
+        pPackedData.storage().ifPresent(storage -> compoundtagwriter.putLongArray("data", storage.toArray()));
+        return compoundtagwriter;
+    }
+
+    /**
+     * Neo: Block states always encode to the same palette entry, so each is encoded once and its bytes are reused by every later save.
+     */
+    private static CompoundTagWriter.Encoded encodeBlockState(BlockState pState) {
+        CompoundTagWriter.Encoded encoded = ENCODED_BLOCK_STATES.get(pState);
+        return encoded != null ? encoded : ENCODED_BLOCK_STATES.computeIfAbsent(pState, state -> CompoundTagWriter.Encoded.of(NbtUtils.writeBlockState(state)));
+    }
+
+    private static byte[] layerData(DataLayer pLayer, boolean pDetached) {
+        if (!pLayer.isDefinitelyHomogenous()) {
+            return pLayer.getData();
+        } else {
+            return pDetached ? pLayer.toByteArray().clone() : pLayer.toByteArray();
+        }
     }
 
-    private static void saveTicks(ServerLevel pLevel, CompoundTag pTag, ChunkAccess.TicksToSave pTicksToSave) {
+    private static void saveTicks(ServerLevel pLevel, CompoundTagWriter pTag, ChunkAccess.TicksToSave pTicksToSave) {
         long i = pLevel.getLevelData().getGameTime();
         pTag.put("block_ticks", pTicksToSave.blocks().save(i, p_258987_ -> BuiltInRegistries.BLOCK.getKey(p_258987_).toString()));
         pTag.put("fluid_ticks", pTicksToSave.fluids().save(i, p_258989_ -> BuiltInRegistries.FLUID.getKey(p_258989_).toString()));
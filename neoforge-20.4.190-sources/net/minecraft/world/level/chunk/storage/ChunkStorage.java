@@ -93,11 +93,34 @@ public class ChunkStorage implements AutoCloseable {
 
     public void write(ChunkPos pChunkPos, CompoundTag pChunkData) {
         this.worker.store(pChunkPos, pChunkData);
+        this.removeLegacyStructureIndex(pChunkPos);
+    }
+
+    /**
+     * Neo: Writes chunk data that has already been serialized, see {@link IOWorker#storeSerialized(ChunkPos, byte[])}.
+     */
+    public void writeSerialized(ChunkPos pChunkPos, byte[] pSerializedData) {
+        this.worker.storeSerialized(pChunkPos, pSerializedData);
+        this.removeLegacyStructureIndex(pChunkPos);
+    }
+
+    /**
+     * Neo: Drops the legacy structure data of a chunk that has been written in the current format, for writers that bypass the IO worker.
+     */
+    public void removeLegacyStructureIndex(ChunkPos pChunkPos) {
         if (this.legacyStructureHandler != null) {
             this.legacyStructureHandler.removeIndex(pChunkPos.toLong());
         }
     }
 
+    /**
+     * Neo: Opens a region file of this storage for exclusive use by the caller, bypassing the IO worker.
+     * Nothing else may read or write chunks of that region through this storage until the file has been closed.
+     */
+    public RegionFile openRegionFile(int pRegionX, int pRegionZ) throws IOException {
+        return this.worker.openRegionFile(pRegionX, pRegionZ);
+    }
+
     public void flushWorker() {
         this.worker.synchronize(true).join();
     }
@@ -107,7 +130,45 @@ public class ChunkStorage implements AutoCloseable {
         this.worker.close();
     }
 
+    /**
+     * Neo: Compacts every region file of this storage that has at least the given share of dead space, one at a time while the IO worker is idle.
+     * A region that fails to compact is logged by the IO worker and counted, without stopping the other regions from being compacted.
+     *
+     * @return the total amount of bytes reclaimed and the number of regions that failed
+     */
+    public CompletableFuture<ChunkStorage.CompactionResult> compactRegions(float pMinDeadSpace) {
+        return this.worker.listRegions().thenCompose(regions -> {
+            CompletableFuture<ChunkStorage.CompactionResult> future = CompletableFuture.completedFuture(new ChunkStorage.CompactionResult(0L, 0));
+
+            for(ChunkPos region : regions) {
+                future = future.thenCompose(
+                    total -> this.worker
+                        .compactRegion(region.x, region.z, pMinDeadSpace)
+                        .handle((reclaimed, exception) -> exception != null ? total.addFailure() : total.addReclaimed(reclaimed))
+                );
+            }
+
+            return future;
+        });
+    }
+
     public ChunkScanAccess chunkScanner() {
         return this.worker;
     }
+
+    /**
+     * Neo: The outcome of {@link #compactRegions(float)}.
+     *
+     * @param reclaimed the amount of bytes reclaimed
+     * @param failed    the number of region files that failed to compact
+     */
+    public static record CompactionResult(long reclaimed, int failed) {
+        ChunkStorage.CompactionResult addReclaimed(long pReclaimed) {
+            return new ChunkStorage.CompactionResult(this.reclaimed + pReclaimed, this.failed);
+        }
+
+        ChunkStorage.CompactionResult addFailure() {
+            return new ChunkStorage.CompactionResult(this.reclaimed, this.failed + 1);
+        }
+    }
 }
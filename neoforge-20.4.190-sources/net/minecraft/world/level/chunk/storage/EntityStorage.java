@@ -112,6 +112,10 @@ public class EntityStorage implements EntityPersistentStorage<Entity> {
         }
     }
 
+    public ChunkScanAccess chunkScanner() {
+        return this.worker;
+    }
+
     @Override
     public void flush(boolean pSynchronize) {
         this.worker.synchronize(pSynchronize).join();
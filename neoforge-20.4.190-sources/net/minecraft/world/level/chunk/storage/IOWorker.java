@@ -1,15 +1,22 @@
 package net.minecraft.world.level.chunk.storage;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.mojang.datafixers.util.Either;
 import com.mojang.logging.LogUtils;
 import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.BitSet;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.Map.Entry;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -19,6 +26,8 @@ import javax.annotation.Nullable;
 import net.minecraft.Util;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.IntTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
 import net.minecraft.nbt.StreamTagVisitor;
 import net.minecraft.nbt.Tag;
 import net.minecraft.nbt.visitors.CollectFields;
@@ -38,6 +47,8 @@ public class IOWorker implements ChunkScanAccess, AutoCloseable {
     private final Map<ChunkPos, IOWorker.PendingStore> pendingWrites = Maps.newLinkedHashMap();
     private final Long2ObjectLinkedOpenHashMap<CompletableFuture<BitSet>> regionCacheForBlender = new Long2ObjectLinkedOpenHashMap<>();
     private static final int REGION_CACHE_SIZE = 1024;
+    // Neo: the number of pending stores of one region file that are written together
+    private static final int MAX_BATCH_SIZE = Integer.parseInt(System.getProperty("neoforge.ioWorkerBatchSize", "1024"));
 
     protected IOWorker(Path pFolder, boolean pSync, String pWorkerName) {
         this.storage = new RegionFileStorage(pFolder, pSync);
@@ -130,6 +141,20 @@ public class IOWorker implements ChunkScanAccess, AutoCloseable {
         return this.<CompletableFuture<Void>>submitTask(() -> {
             IOWorker.PendingStore ioworker$pendingstore = this.pendingWrites.computeIfAbsent(pChunkPos, p_223488_ -> new IOWorker.PendingStore(pChunkData));
             ioworker$pendingstore.data = pChunkData;
+            ioworker$pendingstore.serializedData = null;
+            return Either.left(ioworker$pendingstore.result);
+        }).thenCompose(Function.identity());
+    }
+
+    /**
+     * Neo: Stores chunk data that has already been serialized the way {@link NbtIo#write(CompoundTag, java.io.DataOutput)} writes it.
+     * Loads and scans of the chunk read the bytes back until they have been written.
+     */
+    public CompletableFuture<Void> storeSerialized(ChunkPos pChunkPos, byte[] pSerializedData) {
+        return this.<CompletableFuture<Void>>submitTask(() -> {
+            IOWorker.PendingStore ioworker$pendingstore = this.pendingWrites.computeIfAbsent(pChunkPos, p_223488_ -> new IOWorker.PendingStore(null));
+            ioworker$pendingstore.data = null;
+            ioworker$pendingstore.serializedData = pSerializedData;
             return Either.left(ioworker$pendingstore.result);
         }).thenCompose(Function.identity());
     }
@@ -137,16 +162,13 @@ public class IOWorker implements ChunkScanAccess, AutoCloseable {
     public CompletableFuture<Optional<CompoundTag>> loadAsync(ChunkPos pChunkPos) {
         return this.submitTask(() -> {
             IOWorker.PendingStore ioworker$pendingstore = this.pendingWrites.get(pChunkPos);
-            if (ioworker$pendingstore != null) {
-                return Either.left(Optional.ofNullable(ioworker$pendingstore.data));
-            } else {
-                try {
-                    CompoundTag compoundtag = this.storage.read(pChunkPos);
-                    return Either.left(Optional.ofNullable(compoundtag));
-                } catch (Exception exception) {
-                    LOGGER.warn("Failed to read chunk {}", pChunkPos, exception);
-                    return Either.right(exception);
-                }
+
+            try {
+                CompoundTag compoundtag = ioworker$pendingstore != null ? ioworker$pendingstore.readData() : this.storage.read(pChunkPos);
+                return Either.left(Optional.ofNullable(compoundtag));
+            } catch (Exception exception) {
+                LOGGER.warn("Failed to read chunk {}", pChunkPos, exception);
+                return Either.right(exception);
             }
         });
     }
@@ -177,8 +199,8 @@ public class IOWorker implements ChunkScanAccess, AutoCloseable {
             try {
                 IOWorker.PendingStore ioworker$pendingstore = this.pendingWrites.get(pChunkPos);
                 if (ioworker$pendingstore != null) {
-                    if (ioworker$pendingstore.data != null) {
-                        ioworker$pendingstore.data.acceptAsRoot(pVisitor);
+                    if (ioworker$pendingstore.hasData()) {
+                        ioworker$pendingstore.accept(pVisitor);
                     }
                 } else {
                     this.storage.scanChunk(pChunkPos, pVisitor);
@@ -192,8 +214,100 @@ public class IOWorker implements ChunkScanAccess, AutoCloseable {
         });
     }
 
+    /**
+     * Neo: Lists the region files of this worker's storage.
+     */
+    @Override
+    public CompletableFuture<List<ChunkPos>> listRegions() {
+        return this.submitTask(IOWorker.Priority.BACKGROUND, () -> {
+            try {
+                return Either.left(this.storage.listRegions());
+            } catch (Exception exception) {
+                LOGGER.warn("Failed to list region files", (Throwable)exception);
+                return Either.right(exception);
+            }
+        });
+    }
+
+    /**
+     * Neo: Opens a region file of this worker's storage for exclusive use by the caller.
+     * @see RegionFileStorage#openRegionFile(int, int)
+     */
+    public RegionFile openRegionFile(int pRegionX, int pRegionZ) throws IOException {
+        return this.storage.openRegionFile(pRegionX, pRegionZ);
+    }
+
+    /**
+     * Neo: Captures the stored chunks of a region, with pending stores taking precedence over the region file.
+     * Only the compressed data is copied on this worker, decompressing and parsing it is left to the caller.
+     * Captures run behind chunk loads, so scanning a whole level does not hold up the server.
+     */
+    @Override
+    public CompletableFuture<Map<ChunkPos, ChunkScanAccess.StoredChunk>> captureRegion(ChunkPos pRegionPos) {
+        return this.submitTask(IOWorker.Priority.BACKGROUND, () -> {
+            try {
+                Map<ChunkPos, ChunkScanAccess.StoredChunk> map = Maps.newLinkedHashMap();
+                Set<ChunkPos> set = new HashSet<>();
+
+                for(Entry<ChunkPos, IOWorker.PendingStore> entry : this.pendingWrites.entrySet()) {
+                    ChunkPos chunkpos = entry.getKey();
+                    if (chunkpos.getRegionX() == pRegionPos.x && chunkpos.getRegionZ() == pRegionPos.z) {
+                        set.add(chunkpos);
+                        IOWorker.PendingStore ioworker$pendingstore = entry.getValue();
+                        if (ioworker$pendingstore.hasData()) {
+                            map.put(chunkpos, ioworker$pendingstore::accept);
+                        }
+                    }
+                }
+
+                for(Entry<ChunkPos, DataInputStream> entry1 : this.storage.openRegion(pRegionPos.x, pRegionPos.z).entrySet()) {
+                    DataInputStream datainputstream = entry1.getValue();
+                    if (set.contains(entry1.getKey())) {
+                        datainputstream.close();
+                    } else {
+                        map.put(entry1.getKey(), visitor -> {
+                            try (DataInputStream datainputstream1 = datainputstream) {
+                                NbtIo.parse(datainputstream1, visitor, NbtAccounter.unlimitedHeap());
+                            }
+                        });
+                    }
+                }
+
+                return Either.left(map);
+            } catch (Exception exception) {
+                LOGGER.warn("Failed to capture region {}, {}", pRegionPos.x, pRegionPos.z, exception);
+                return Either.right(exception);
+            }
+        });
+    }
+
+    /**
+     * Neo: Compacts a region file once this worker has no other work left, so compaction never delays loads or saves.
+     *
+     * @return the amount of bytes the region file shrank by
+     * @see RegionFileStorage#compact(int, int, float)
+     */
+    public CompletableFuture<Long> compactRegion(int pRegionX, int pRegionZ, float pMinDeadSpace) {
+        return this.mailbox.askEither(processor -> new StrictQueue.IntRunnable(IOWorker.Priority.IDLE.ordinal(), () -> {
+                if (!this.shutdownRequested.get()) {
+                    try {
+                        processor.tell(Either.left(this.storage.compact(pRegionX, pRegionZ, pMinDeadSpace)));
+                    } catch (Exception exception) {
+                        LOGGER.error("Failed to compact region {}, {}", pRegionX, pRegionZ, exception);
+                        processor.tell(Either.right(exception));
+                    }
+                }
+
+                this.tellStorePending();
+            }));
+    }
+
     private <T> CompletableFuture<T> submitTask(Supplier<Either<T, Exception>> pTask) {
-        return this.mailbox.askEither(p_223483_ -> new StrictQueue.IntRunnable(IOWorker.Priority.FOREGROUND.ordinal(), () -> {
+        return this.submitTask(IOWorker.Priority.FOREGROUND, pTask);
+    }
+
+    private <T> CompletableFuture<T> submitTask(IOWorker.Priority pPriority, Supplier<Either<T, Exception>> pTask) {
+        return this.mailbox.askEither(p_223483_ -> new StrictQueue.IntRunnable(pPriority.ordinal(), () -> {
                 if (!this.shutdownRequested.get()) {
                     p_223483_.tell(pTask.get());
                 }
@@ -207,7 +321,28 @@ public class IOWorker implements ChunkScanAccess, AutoCloseable {
             Iterator<Entry<ChunkPos, IOWorker.PendingStore>> iterator = this.pendingWrites.entrySet().iterator();
             Entry<ChunkPos, IOWorker.PendingStore> entry = iterator.next();
             iterator.remove();
-            this.runStore(entry.getKey(), entry.getValue());
+            // Neo: drain the other pending stores of the same region file and write them all at once
+            List<Entry<ChunkPos, IOWorker.PendingStore>> list = Lists.newArrayList();
+            if (entry.getValue().hasData()) {
+                int i = entry.getKey().getRegionX();
+                int j = entry.getKey().getRegionZ();
+
+                while(iterator.hasNext() && list.size() + 1 < MAX_BATCH_SIZE) {
+                    Entry<ChunkPos, IOWorker.PendingStore> entry1 = iterator.next();
+                    if (entry1.getValue().hasData() && entry1.getKey().getRegionX() == i && entry1.getKey().getRegionZ() == j) {
+                        list.add(entry1);
+                        iterator.remove();
+                    }
+                }
+            }
+
+            if (list.isEmpty()) {
+                this.runStore(entry.getKey(), entry.getValue());
+            } else {
+                list.add(0, entry);
+                this.runStore(list);
+            }
+
             this.tellStorePending();
         }
     }
@@ -218,7 +353,7 @@ public class IOWorker implements ChunkScanAccess, AutoCloseable {
 
     private void runStore(ChunkPos pChunkPos, IOWorker.PendingStore pPendingStore) {
         try {
-            this.storage.write(pChunkPos, pPendingStore.data);
+            this.storage.write(pChunkPos, pPendingStore.hasData() ? pPendingStore : null);
             pPendingStore.result.complete(null);
         } catch (Exception exception) {
             LOGGER.error("Failed to store chunk {}", pChunkPos, exception);
@@ -226,6 +361,35 @@ public class IOWorker implements ChunkScanAccess, AutoCloseable {
         }
     }
 
+    private void runStore(List<Entry<ChunkPos, IOWorker.PendingStore>> pPendingStores) {
+        Map<ChunkPos, IOWorker.PendingStore> map = Maps.newLinkedHashMap();
+
+        for(Entry<ChunkPos, IOWorker.PendingStore> entry : pPendingStores) {
+            map.put(entry.getKey(), entry.getValue());
+        }
+
+        try {
+            Map<ChunkPos, Exception> map1 = this.storage.write(pPendingStores.get(0).getKey(), map);
+
+            for(Entry<ChunkPos, IOWorker.PendingStore> entry1 : pPendingStores) {
+                Exception exception = map1.get(entry1.getKey());
+                if (exception == null) {
+                    entry1.getValue().result.complete(null);
+                } else {
+                    LOGGER.error("Failed to store chunk {}", entry1.getKey(), exception);
+                    entry1.getValue().result.completeExceptionally(exception);
+                }
+            }
+        } catch (Exception exception1) {
+            // Neo: store the chunks one by one to find out which of them fail, writing a chunk again is harmless
+            LOGGER.warn("Failed to store batch of {} chunks around {}, storing them one by one", pPendingStores.size(), pPendingStores.get(0).getKey(), exception1);
+
+            for(Entry<ChunkPos, IOWorker.PendingStore> entry2 : pPendingStores) {
+                this.runStore(entry2.getKey(), entry2.getValue());
+            }
+        }
+    }
+
     @Override
     public void close() throws IOException {
         if (this.shutdownRequested.compareAndSet(false, true)) {
@@ -240,19 +404,55 @@ public class IOWorker implements ChunkScanAccess, AutoCloseable {
         }
     }
 
-    static class PendingStore {
+    static class PendingStore implements RegionFileStorage.ChunkData {
         @Nullable
         CompoundTag data;
+        /**
+         * Neo: The data already serialized, which is stored instead of {@link #data} when set.
+         */
+        @Nullable
+        byte[] serializedData;
         final CompletableFuture<Void> result = new CompletableFuture<>();
 
         public PendingStore(@Nullable CompoundTag pData) {
             this.data = pData;
         }
+
+        boolean hasData() {
+            return this.data != null || this.serializedData != null;
+        }
+
+        @Nullable
+        CompoundTag readData() throws IOException {
+            return this.serializedData != null ? NbtIo.read(this.openSerializedData()) : this.data;
+        }
+
+        void accept(StreamTagVisitor pVisitor) throws IOException {
+            if (this.serializedData != null) {
+                NbtIo.parse(this.openSerializedData(), pVisitor, NbtAccounter.unlimitedHeap());
+            } else if (this.data != null) {
+                this.data.acceptAsRoot(pVisitor);
+            }
+        }
+
+        @Override
+        public void write(DataOutput pOutput) throws IOException {
+            if (this.serializedData != null) {
+                pOutput.write(this.serializedData);
+            } else {
+                NbtIo.write(this.data, pOutput);
+            }
+        }
+
+        private DataInputStream openSerializedData() {
+            return new DataInputStream(new ByteArrayInputStream(this.serializedData));
+        }
     }
 
     static enum Priority {
         FOREGROUND,
         BACKGROUND,
+        IDLE,
         SHUTDOWN;
     }
 }
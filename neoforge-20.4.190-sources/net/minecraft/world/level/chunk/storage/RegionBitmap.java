@@ -50,6 +50,13 @@ public class RegionBitmap {
         }
     }
 
+    /**
+     * Neo: Gets the amount of 4 KiB sectors that are currently marked as used.
+     */
+    public int getUsedCount() {
+        return this.used.cardinality();
+    }
+
     @VisibleForTesting
     public IntSet getUsed() {
         return this.used.stream().collect(IntArraySet::new, IntCollection::add, IntCollection::addAll);
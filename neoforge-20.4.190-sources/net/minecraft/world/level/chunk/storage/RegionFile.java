@@ -2,19 +2,32 @@ package net.minecraft.world.level.chunk.storage;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.ints.IntList;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import net.minecraft.Util;
 import net.minecraft.world.level.ChunkPos;
@@ -35,21 +48,73 @@ public class RegionFile implements AutoCloseable {
     private static final int EXTERNAL_STREAM_FLAG = 128;
     private static final int EXTERNAL_CHUNK_THRESHOLD = 256;
     private static final int CHUNK_NOT_PRESENT = 0;
+    /**
+     * Neo: Releases a mapping right away instead of when it is garbage collected, or {@code null} if the runtime does not allow it.
+     * A live mapping keeps the file open, which prevents it from being replaced or deleted on some platforms.
+     */
+    @Nullable
+    private static final Consumer<ByteBuffer> UNMAPPER = createUnmapper();
+    // Neo: serve chunk reads straight from read-only mappings of the region file instead of copying them out with a positional channel read,
+    // as long as the mappings can be released on close
+    private static final boolean USE_MEMORY_MAPPING = UNMAPPER != null
+        && Boolean.parseBoolean(System.getProperty("neoforge.regionFileMemoryMapping", "true"));
+    private static final int MAPPING_SEGMENT_SHIFT = 20;
+    private static final int MAPPING_SEGMENT_SIZE = 1 << MAPPING_SEGMENT_SHIFT;
+    /**
+     * Neo: Offset table indices ordered along a Z-order curve over the local chunk coordinates, so chunks that are close in the world end up close in the file.
+     */
+    private static final int[] Z_ORDER = Util.make(new int[1024], order -> {
+        for(int i = 0; i < 1024; ++i) {
+            int x = 0;
+            int z = 0;
+
+            for(int bit = 0; bit < 5; ++bit) {
+                x |= (i >> 2 * bit & 1) << bit;
+                z |= (i >> 2 * bit + 1 & 1) << bit;
+            }
+
+            order[i] = x + z * 32;
+        }
+    });
     private final FileChannel file;
     private final Path externalFileDir;
-    final RegionFileVersion version;
+    volatile RegionFileVersion version;
+    @Nullable
+    private volatile RegionFileVersion dictionaryVersion;
+    private final boolean readOnly;
     private final ByteBuffer header = ByteBuffer.allocateDirect(8192);
     private final IntBuffer offsets;
     private final IntBuffer timestamps;
     @VisibleForTesting
     protected final RegionBitmap usedSectors = new RegionBitmap();
+    /**
+     * Neo: Mappings of the file in segments of {@value #MAPPING_SEGMENT_SIZE} bytes. A segment is only mapped once the file covers all of it,
+     * as mapping past the end would grow the file, and is never remapped since region files do not shrink.
+     */
+    private MappedByteBuffer[] mappedSegments = new MappedByteBuffer[0];
+    private boolean mappingsReleased;
 
     public RegionFile(Path pRegionFile, Path pContainingFolder, boolean pSync) throws IOException {
         this(pRegionFile, pContainingFolder, RegionFileVersion.VERSION_DEFLATE, pSync);
     }
 
     public RegionFile(Path pRegionFile, Path pContainingFolder, RegionFileVersion pVersion, boolean pSync) throws IOException {
+        this(pRegionFile, pContainingFolder, pVersion, null, pSync);
+    }
+
+    /**
+     * @param pDictionaryVersion Neo: the version bound to the dictionary of the containing folder, used to read chunks compressed with {@link RegionFileVersion#VERSION_DEFLATE_DICTIONARY}
+     */
+    public RegionFile(Path pRegionFile, Path pContainingFolder, RegionFileVersion pVersion, @Nullable RegionFileVersion pDictionaryVersion, boolean pSync) throws IOException {
+        this(pRegionFile, pContainingFolder, pVersion, pDictionaryVersion, pSync, false);
+    }
+
+    private RegionFile(
+        Path pRegionFile, Path pContainingFolder, RegionFileVersion pVersion, @Nullable RegionFileVersion pDictionaryVersion, boolean pSync, boolean pReadOnly
+    ) throws IOException {
         this.version = pVersion;
+        this.dictionaryVersion = pDictionaryVersion;
+        this.readOnly = pReadOnly;
         if (!Files.isDirectory(pContainingFolder)) {
             throw new IllegalArgumentException("Expected directory, got " + pContainingFolder.toAbsolutePath());
         } else {
@@ -58,7 +123,9 @@ public class RegionFile implements AutoCloseable {
             this.offsets.limit(1024);
             this.header.position(4096);
             this.timestamps = this.header.asIntBuffer();
-            if (pSync) {
+            if (pReadOnly) {
+                this.file = FileChannel.open(pRegionFile, StandardOpenOption.READ);
+            } else if (pSync) {
                 this.file = FileChannel.open(pRegionFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DSYNC);
             } else {
                 this.file = FileChannel.open(pRegionFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
@@ -97,6 +164,23 @@ public class RegionFile implements AutoCloseable {
         }
     }
 
+    /**
+     * Neo: Opens a region file for reading only, without mapping it, so that it can be read while the region file storage owning it keeps writing to it.
+     * Chunks compressed with a dictionary can not be read from it.
+     */
+    public static RegionFile openReadOnly(Path pRegionFile, Path pContainingFolder) throws IOException {
+        return new RegionFile(pRegionFile, pContainingFolder, RegionFileVersion.VERSION_DEFLATE, null, false, true);
+    }
+
+    /**
+     * Neo: Switches the compression used for chunks written from now on, and the dictionary used to read chunks back.
+     * The dictionary version is replaced first, so that reads on other threads can always decompress what gets written with the new version.
+     */
+    void setVersion(RegionFileVersion pVersion, @Nullable RegionFileVersion pDictionaryVersion) {
+        this.dictionaryVersion = pDictionaryVersion;
+        this.version = pVersion;
+    }
+
     /**
      * Gets the path to store a chunk that can not be stored within the region file because it's larger than 1 MiB.
      */
@@ -105,8 +189,25 @@ public class RegionFile implements AutoCloseable {
         return this.externalFileDir.resolve(s);
     }
 
+    /**
+     * Neo: When the region file is mapped, the returned stream reads the mapping directly. It has to be read before this region file is written to
+     * or closed, so it must not be handed to another thread; use {@link #getDetachedChunkDataInputStream(ChunkPos)} for that.
+     */
     @Nullable
     public synchronized DataInputStream getChunkDataInputStream(ChunkPos pChunkPos) throws IOException {
+        return this.getChunkDataInputStream(pChunkPos, false);
+    }
+
+    /**
+     * Neo: Opens the data of a chunk from a copy of its sectors, so that the stream stays valid after the region file is written to or closed.
+     */
+    @Nullable
+    public synchronized DataInputStream getDetachedChunkDataInputStream(ChunkPos pChunkPos) throws IOException {
+        return this.getChunkDataInputStream(pChunkPos, true);
+    }
+
+    @Nullable
+    private DataInputStream getChunkDataInputStream(ChunkPos pChunkPos, boolean pDetached) throws IOException {
         int i = this.getOffset(pChunkPos);
         if (i == 0) {
             return null;
@@ -114,9 +215,7 @@ public class RegionFile implements AutoCloseable {
             int j = getSectorNumber(i);
             int k = getNumSectors(i);
             int l = k * 4096;
-            ByteBuffer bytebuffer = ByteBuffer.allocate(l);
-            this.file.read(bytebuffer, (long)(j * 4096));
-            bytebuffer.flip();
+            ByteBuffer bytebuffer = pDetached ? this.readSectors(j, l) : this.getSectors(j, l);
             if (bytebuffer.remaining() < 5) {
                 LOGGER.error("Chunk {} header is truncated: expected {} but read {}", pChunkPos, l, bytebuffer.remaining());
                 return null;
@@ -148,6 +247,115 @@ public class RegionFile implements AutoCloseable {
         }
     }
 
+    /**
+     * Neo: Gets the given byte range starting at a sector as a view of the mapping of the file, without copying it.
+     * Falls back to {@link #readSectors(int, int)} if the range is not covered by a single mapped segment.
+     */
+    private ByteBuffer getSectors(int pSectorOffset, int pLength) throws IOException {
+        if (USE_MEMORY_MAPPING && !this.readOnly) {
+            long position = (long)pSectorOffset * 4096L;
+            int offset = (int)(position & (long)(MAPPING_SEGMENT_SIZE - 1));
+            if (offset + pLength <= MAPPING_SEGMENT_SIZE) {
+                MappedByteBuffer segment = this.getMappedSegment((int)(position >> MAPPING_SEGMENT_SHIFT));
+                if (segment != null) {
+                    return segment.slice(offset, pLength);
+                }
+            }
+        }
+
+        return this.readSectors(pSectorOffset, pLength);
+    }
+
+    /**
+     * Neo: Reads the given byte range starting at a sector, stopping early at the end of the file.
+     *
+     * @return a heap buffer that is ready to be read from
+     */
+    private ByteBuffer readSectors(int pSectorOffset, int pLength) throws IOException {
+        long start = (long)pSectorOffset * 4096L;
+        ByteBuffer bytebuffer = ByteBuffer.allocate(pLength);
+        int read = 0;
+        if (USE_MEMORY_MAPPING && !this.readOnly) {
+            while(read < pLength) {
+                long position = start + (long)read;
+                MappedByteBuffer segment = this.getMappedSegment((int)(position >> MAPPING_SEGMENT_SHIFT));
+                if (segment == null) {
+                    break;
+                }
+
+                int offset = (int)(position & (long)(MAPPING_SEGMENT_SIZE - 1));
+                int length = Math.min(pLength - read, MAPPING_SEGMENT_SIZE - offset);
+                bytebuffer.put(read, segment, offset, length);
+                read += length;
+            }
+        }
+
+        // The end of the file that is not covered by a whole segment yet is read from the channel
+        bytebuffer.position(read);
+        if (read < pLength) {
+            this.file.read(bytebuffer, start + (long)read);
+        }
+
+        bytebuffer.flip();
+        return bytebuffer;
+    }
+
+    /**
+     * Neo: Gets the mapping of the given segment of the file, mapping it if the file covers the whole segment.
+     *
+     * @return the mapping, or {@code null} if the file ends within the segment
+     */
+    @Nullable
+    private MappedByteBuffer getMappedSegment(int pSegment) throws IOException {
+        MappedByteBuffer[] segments = this.mappedSegments;
+        if (pSegment < segments.length && segments[pSegment] != null) {
+            return segments[pSegment];
+        } else if (this.mappingsReleased || (long)(pSegment + 1) << MAPPING_SEGMENT_SHIFT > this.file.size()) {
+            return null;
+        } else {
+            MappedByteBuffer mapped = this.file.map(FileChannel.MapMode.READ_ONLY, (long)pSegment << MAPPING_SEGMENT_SHIFT, (long)MAPPING_SEGMENT_SIZE);
+            this.mappedSegments = segments = Arrays.copyOf(segments, Math.max(segments.length, pSegment + 1));
+            segments[pSegment] = mapped;
+            return mapped;
+        }
+    }
+
+    /**
+     * Neo: Releases every mapping of the file. Streams still reading from a mapping must have been closed before.
+     */
+    private void releaseMappings() {
+        MappedByteBuffer[] segments = this.mappedSegments;
+        this.mappedSegments = new MappedByteBuffer[0];
+        this.mappingsReleased = true;
+
+        for(MappedByteBuffer segment : segments) {
+            if (segment != null) {
+                UNMAPPER.accept(segment);
+            }
+        }
+    }
+
+    @Nullable
+    private static Consumer<ByteBuffer> createUnmapper() {
+        try {
+            Class<?> oclass = Class.forName("sun.misc.Unsafe");
+            Field field = oclass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+            Method method = oclass.getMethod("invokeCleaner", ByteBuffer.class);
+            return buffer -> {
+                try {
+                    method.invoke(unsafe, buffer);
+                } catch (ReflectiveOperationException exception) {
+                    LOGGER.warn("Failed to release region file mapping", exception);
+                }
+            };
+        } catch (ReflectiveOperationException | RuntimeException exception) {
+            LOGGER.warn("Region file mappings can not be released on this runtime, reading region files through their channel instead", exception);
+            return null;
+        }
+    }
+
     /**
      * Gets a timestamp for the current time to be written to a region file.
      */
@@ -165,7 +373,9 @@ public class RegionFile implements AutoCloseable {
 
     @Nullable
     private DataInputStream createChunkInputStream(ChunkPos pChunkPos, byte pVersionByte, InputStream pInputStream) throws IOException {
-        RegionFileVersion regionfileversion = RegionFileVersion.fromId(pVersionByte);
+        RegionFileVersion regionfileversion = this.dictionaryVersion != null && pVersionByte == this.dictionaryVersion.getId()
+            ? this.dictionaryVersion
+            : RegionFileVersion.fromId(pVersionByte);
         if (regionfileversion == null) {
             LOGGER.error("Chunk {} has invalid chunk stream version {}", pChunkPos, pVersionByte);
             return null;
@@ -185,8 +395,10 @@ public class RegionFile implements AutoCloseable {
         }
     }
 
-    private static ByteArrayInputStream createStream(ByteBuffer pSourceBuffer, int pLength) {
-        return new ByteArrayInputStream(pSourceBuffer.array(), pSourceBuffer.position(), pLength);
+    private static InputStream createStream(ByteBuffer pSourceBuffer, int pLength) {
+        return pSourceBuffer.hasArray()
+            ? new ByteArrayInputStream(pSourceBuffer.array(), pSourceBuffer.arrayOffset() + pSourceBuffer.position(), pLength)
+            : new RegionFile.BufferInputStream(pSourceBuffer.slice(pSourceBuffer.position(), pLength));
     }
 
     /**
@@ -227,7 +439,7 @@ public class RegionFile implements AutoCloseable {
             ByteBuffer bytebuffer = ByteBuffer.allocate(5);
 
             try {
-                this.file.read(bytebuffer, (long)(j * 4096));
+                this.file.read(bytebuffer, (long)j * 4096L);
                 bytebuffer.flip();
                 if (bytebuffer.remaining() != 5) {
                     return false;
@@ -272,11 +484,19 @@ public class RegionFile implements AutoCloseable {
         return new DataOutputStream(this.version.wrap(new RegionFile.ChunkBuffer(pChunkPos)));
     }
 
+    /**
+     * Neo: Creates a stream for a chunk whose data is added to the given batch on close instead of being written right away.
+     * @see #write(Map)
+     */
+    public DataOutputStream getChunkDataOutputStream(ChunkPos pChunkPos, Map<ChunkPos, ByteBuffer> pBatch) throws IOException {
+        return new DataOutputStream(this.version.wrap(new RegionFile.ChunkBuffer(pChunkPos, pBatch)));
+    }
+
     public void flush() throws IOException {
         this.file.force(true);
     }
 
-    public void clear(ChunkPos pChunkPos) throws IOException {
+    public synchronized void clear(ChunkPos pChunkPos) throws IOException {
         int i = getOffsetIndex(pChunkPos);
         int j = this.offsets.get(i);
         if (j != 0) {
@@ -320,6 +540,151 @@ public class RegionFile implements AutoCloseable {
         }
     }
 
+    /**
+     * Neo: Writes several chunks of this region at once. Each chunk that fits into the region file gets its own allocation, so chunks keep filling the holes
+     * left by older versions instead of growing the file, and chunks that end up next to each other are written with one write call. The header is updated
+     * once for the whole batch. Oversized chunks still go through {@link #write(ChunkPos, ByteBuffer)} one at a time.
+     */
+    protected synchronized void write(Map<ChunkPos, ByteBuffer> pChunks) throws IOException {
+        Map<ChunkPos, ByteBuffer> inline = new LinkedHashMap<>();
+
+        for(Entry<ChunkPos, ByteBuffer> entry : pChunks.entrySet()) {
+            if (sizeToSectors(entry.getValue().remaining()) >= 256) {
+                this.write(entry.getKey(), entry.getValue());
+            } else {
+                inline.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        if (!inline.isEmpty()) {
+            IntList newOffsets = new IntArrayList(inline.size());
+
+            for(ByteBuffer data : inline.values()) {
+                int sectorCount = sizeToSectors(data.remaining());
+                newOffsets.add(this.packSectorOffset(this.usedSectors.allocate(sectorCount), sectorCount));
+            }
+
+            try {
+                this.writeAllocated(new ArrayList<>(inline.values()), newOffsets);
+            } catch (IOException ioexception) {
+                // Nothing points at the new sectors yet, so they can be handed out again
+                for(int newOffset : newOffsets) {
+                    this.usedSectors.free(getSectorNumber(newOffset), getNumSectors(newOffset));
+                }
+
+                throw ioexception;
+            }
+
+            IntList oldOffsets = new IntArrayList(inline.size());
+            int i = 0;
+
+            for(ChunkPos chunkpos : inline.keySet()) {
+                int index = getOffsetIndex(chunkpos);
+                oldOffsets.add(this.offsets.get(index));
+                this.offsets.put(index, newOffsets.getInt(i++));
+                this.timestamps.put(index, getTimestamp());
+            }
+
+            this.writeHeader();
+
+            for(ChunkPos chunkpos : inline.keySet()) {
+                Files.deleteIfExists(this.getExternalChunkPath(chunkpos));
+            }
+
+            for(int oldOffset : oldOffsets) {
+                if (oldOffset != 0) {
+                    this.usedSectors.free(getSectorNumber(oldOffset), getNumSectors(oldOffset));
+                }
+            }
+        }
+    }
+
+    /**
+     * Neo: Writes chunk data to the sectors allocated for it, merging the writes of chunks whose sectors directly follow each other.
+     */
+    private void writeAllocated(List<ByteBuffer> pChunks, IntList pOffsets) throws IOException {
+        int[] order = new int[pChunks.size()];
+
+        for(int i = 0; i < order.length; ++i) {
+            order[i] = i;
+        }
+
+        IntArrays.quickSort(order, (first, second) -> Integer.compare(getSectorNumber(pOffsets.getInt(first)), getSectorNumber(pOffsets.getInt(second))));
+        int start = 0;
+
+        while(start < order.length) {
+            int end = start + 1;
+            int firstSector = getSectorNumber(pOffsets.getInt(order[start]));
+            int nextSector = firstSector + getNumSectors(pOffsets.getInt(order[start]));
+
+            while(end < order.length && getSectorNumber(pOffsets.getInt(order[end])) == nextSector) {
+                nextSector += getNumSectors(pOffsets.getInt(order[end]));
+                ++end;
+            }
+
+            ByteBuffer last = pChunks.get(order[end - 1]);
+            ByteBuffer combined = ByteBuffer.allocate((getSectorNumber(pOffsets.getInt(order[end - 1])) - firstSector) * 4096 + last.remaining());
+
+            for(int i = start; i < end; ++i) {
+                ByteBuffer data = pChunks.get(order[i]);
+                combined.put((getSectorNumber(pOffsets.getInt(order[i])) - firstSector) * 4096, data, data.position(), data.remaining());
+            }
+
+            long position = (long)firstSector * 4096L;
+
+            while(combined.hasRemaining()) {
+                position += (long)this.file.write(combined, position);
+            }
+
+            start = end;
+        }
+    }
+
+    /**
+     * Neo: Gets the share of sectors in the file that are not used by the header or any chunk.
+     */
+    public synchronized float getDeadSpaceRatio() throws IOException {
+        int i = sizeToSectors((int)this.file.size());
+        return i <= 2 ? 0.0F : (float)Math.max(i - this.usedSectors.getUsedCount(), 0) / (float)i;
+    }
+
+    /**
+     * Neo: Writes a copy of this region file to the given path, with all chunks stored back to back in Z-order directly after the header and no trailing free space.
+     * Chunk data is copied as-is, so this works regardless of the compression each chunk was written with.
+     */
+    public synchronized void compactTo(Path pTarget) throws IOException {
+        ByteBuffer newHeader = ByteBuffer.allocate(8192);
+        int sector = 2;
+
+        try (FileChannel filechannel = FileChannel.open(pTarget, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for(int index : Z_ORDER) {
+                int offset = this.offsets.get(index);
+                if (offset != 0) {
+                    int sectorCount = getNumSectors(offset);
+                    ByteBuffer data = this.readSectors(getSectorNumber(offset), sectorCount * 4096);
+                    long position = (long)sector * 4096L;
+
+                    while(data.hasRemaining()) {
+                        position += (long)filechannel.write(data, position);
+                    }
+
+                    newHeader.putInt(index * 4, this.packSectorOffset(sector, sectorCount));
+                    newHeader.putInt(4096 + index * 4, this.timestamps.get(index));
+                    sector += sectorCount;
+                }
+            }
+
+            filechannel.write(newHeader, 0L);
+            if (filechannel.size() < (long)sector * 4096L) {
+                ByteBuffer padding = PADDING_BUFFER.duplicate();
+                padding.position(0);
+                filechannel.write(padding, (long)sector * 4096L - 1L);
+            }
+
+            filechannel.force(true);
+        }
+    }
+
     private ByteBuffer createExternalStub() {
         ByteBuffer bytebuffer = ByteBuffer.allocate(5);
         bytebuffer.putInt(1);
@@ -363,14 +728,22 @@ public class RegionFile implements AutoCloseable {
     }
 
     @Override
-    public void close() throws IOException {
-        try {
-            this.padToFullSector();
-        } finally {
+    public synchronized void close() throws IOException {
+        if (this.readOnly) {
+            this.file.close();
+        } else {
+            if (USE_MEMORY_MAPPING) {
+                this.releaseMappings();
+            }
+
             try {
-                this.file.force(true);
+                this.padToFullSector();
             } finally {
-                this.file.close();
+                try {
+                    this.file.force(true);
+                } finally {
+                    this.file.close();
+                }
             }
         }
     }
@@ -387,8 +760,14 @@ public class RegionFile implements AutoCloseable {
 
     class ChunkBuffer extends ByteArrayOutputStream {
         private final ChunkPos pos;
+        @Nullable
+        private final Map<ChunkPos, ByteBuffer> batch;
 
         public ChunkBuffer(ChunkPos pPos) {
+            this(pPos, null);
+        }
+
+        public ChunkBuffer(ChunkPos pPos, @Nullable Map<ChunkPos, ByteBuffer> pBatch) {
             super(8096);
             super.write(0);
             super.write(0);
@@ -396,13 +775,59 @@ public class RegionFile implements AutoCloseable {
             super.write(0);
             super.write(RegionFile.this.version.getId());
             this.pos = pPos;
+            this.batch = pBatch;
         }
 
         @Override
         public void close() throws IOException {
             ByteBuffer bytebuffer = ByteBuffer.wrap(this.buf, 0, this.count);
             bytebuffer.putInt(0, this.count - 5 + 1);
-            RegionFile.this.write(this.pos, bytebuffer);
+            if (this.batch != null) {
+                this.batch.put(this.pos, bytebuffer);
+            } else {
+                RegionFile.this.write(this.pos, bytebuffer);
+            }
+        }
+    }
+
+    /**
+     * Neo: Reads a buffer that views the mapping of the file, so chunk data is decompressed without being copied out first.
+     */
+    static class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer pBuffer) {
+            this.buffer = pBuffer;
+        }
+
+        @Override
+        public int read() {
+            return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] pBytes, int pOffset, int pLength) {
+            if (pLength == 0) {
+                return 0;
+            } else if (!this.buffer.hasRemaining()) {
+                return -1;
+            } else {
+                int i = Math.min(pLength, this.buffer.remaining());
+                this.buffer.get(pBytes, pOffset, i);
+                return i;
+            }
+        }
+
+        @Override
+        public long skip(long pCount) {
+            int i = (int)Math.min(Math.max(pCount, 0L), (long)this.buffer.remaining());
+            this.buffer.position(this.buffer.position() + i);
+            return (long)i;
+        }
+
+        @Override
+        public int available() {
+            return this.buffer.remaining();
         }
     }
 
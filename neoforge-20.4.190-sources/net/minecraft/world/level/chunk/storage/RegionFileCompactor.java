@@ -0,0 +1,79 @@
+package net.minecraft.world.level.chunk.storage;
+
+import com.mojang.logging.LogUtils;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import net.minecraft.core.Registry;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.dimension.LevelStem;
+import net.minecraft.world.level.storage.LevelStorageSource;
+import org.slf4j.Logger;
+
+/**
+ * Neo: Offline counterpart of {@link ChunkStorage#compactRegions(float)}, which compacts the region files of every dimension of a level before the server starts.
+ * Every folder that is managed by a {@link RegionFileStorage} is compacted, which covers chunks, entities and points of interest.
+ */
+public final class RegionFileCompactor {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final List<String> FOLDERS = List.of("region", "entities", "poi");
+
+    private RegionFileCompactor() {
+    }
+
+    public static void compactLevel(LevelStorageSource.LevelStorageAccess pLevelStorage, Registry<LevelStem> pDimensions) {
+        LOGGER.info("Compacting region files!");
+        long total = 0L;
+
+        for(ResourceKey<LevelStem> resourcekey : pDimensions.registryKeySet()) {
+            ResourceKey<Level> level = Registries.levelStemToLevel(resourcekey);
+            Path dimensionPath = pLevelStorage.getDimensionPath(level);
+
+            for(String folder : FOLDERS) {
+                total += compactFolder(dimensionPath.resolve(folder));
+            }
+        }
+
+        LOGGER.info("Region file compaction finished, reclaimed {} MiB", total / 1024L / 1024L);
+    }
+
+    /**
+     * Compacts every region file in the given folder that has any dead space.
+     *
+     * @return the amount of bytes reclaimed
+     */
+    public static long compactFolder(Path pFolder) {
+        if (!Files.isDirectory(pFolder)) {
+            return 0L;
+        } else {
+            long total = 0L;
+
+            try (RegionFileStorage regionfilestorage = new RegionFileStorage(pFolder, true)) {
+                List<ChunkPos> regions = regionfilestorage.listRegions();
+
+                for(int i = 0; i < regions.size(); ++i) {
+                    ChunkPos region = regions.get(i);
+
+                    try {
+                        total += regionfilestorage.compact(region.x, region.z, 0.0F);
+                    } catch (IOException ioexception) {
+                        LOGGER.error("Failed to compact region {}, {} in {}", region.x, region.z, pFolder, ioexception);
+                    }
+
+                    if ((i + 1) % 64 == 0) {
+                        LOGGER.info("{}% of {} compacted ({} / {} region files)...", Mth.floor((float)(i + 1) / (float)regions.size() * 100.0F), pFolder, i + 1, regions.size());
+                    }
+                }
+            } catch (IOException ioexception1) {
+                LOGGER.error("Failed to compact region files in {}", pFolder, ioexception1);
+            }
+
+            return total;
+        }
+    }
+}
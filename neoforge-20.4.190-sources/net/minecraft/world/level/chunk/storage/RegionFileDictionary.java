@@ -0,0 +1,210 @@
+package net.minecraft.world.level.chunk.storage;
+
+import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import net.minecraft.Util;
+import net.minecraft.world.level.ChunkPos;
+import org.slf4j.Logger;
+
+/**
+ * Neo: Loads and trains the preset dictionary used by {@link RegionFileVersion#VERSION_DEFLATE_DICTIONARY} for a single region folder.
+ * <p>
+ * The dictionary is built once from a sample of the uncompressed chunk data already stored in the folder, by keeping the byte segments
+ * that occur in the most chunks. It never changes after it has been written, as every chunk compressed with it needs the exact same bytes to be read back.
+ */
+public final class RegionFileDictionary {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    public static final String FILE_NAME = "region.dict";
+    private static final Pattern REGEX = Pattern.compile("^r\\.(-?[0-9]+)\\.(-?[0-9]+)\\.mca$");
+    /**
+     * Deflate can only refer back 32 KiB, so any bytes beyond that would never be used.
+     */
+    private static final int MAX_SIZE = 32768;
+    private static final int MIN_SAMPLES = 64;
+    private static final int MAX_SAMPLES = 1024;
+    private static final int SEGMENT_LENGTH = 32;
+    private static final int SEGMENT_STEP = 8;
+    private static final Map<Path, CompletableFuture<byte[]>> TRAINING = new ConcurrentHashMap<>();
+
+    private RegionFileDictionary() {
+    }
+
+    /**
+     * Reads the dictionary of the given region folder, if one has been trained before.
+     */
+    @Nullable
+    public static byte[] load(Path pFolder) {
+        Path path = pFolder.resolve(FILE_NAME);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        } else {
+            try {
+                return Files.readAllBytes(path);
+            } catch (IOException ioexception) {
+                LOGGER.error("Failed to read region file dictionary {}", path, ioexception);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Trains the dictionary of the given region folder on the IO pool, unless one has been saved in the meantime. Storages opening the folder while it trains
+     * share the same result, so a folder never ends up with a second dictionary that would make the chunks written with the first one unreadable.
+     *
+     * @return the dictionary, or {@code null} if the folder does not hold enough chunks to train from yet
+     */
+    public static CompletableFuture<byte[]> trainAsync(Path pFolder) {
+        Path folder = pFolder.toAbsolutePath().normalize();
+        // Training only starts once the future is registered, so a storage losing the race never trains a second dictionary
+        CompletableFuture<Void> start = new CompletableFuture<>();
+        CompletableFuture<byte[]> future = start.thenApplyAsync(ignored -> {
+            byte[] dictionary = load(folder);
+            return dictionary != null ? dictionary : train(folder);
+        }, Util.ioPool());
+        CompletableFuture<byte[]> running = TRAINING.putIfAbsent(folder, future);
+        if (running != null) {
+            return running;
+        } else {
+            future.whenComplete((dictionary, throwable) -> TRAINING.remove(folder, future));
+            start.complete(null);
+            return future;
+        }
+    }
+
+    /**
+     * Trains a dictionary from the chunks stored in the given region folder and saves it next to the region files.
+     * The region files are only read, so this can run while the folder is in use.
+     *
+     * @return the new dictionary, or {@code null} if the folder does not hold enough chunks to train from yet
+     */
+    @Nullable
+    public static byte[] train(Path pFolder) {
+        try {
+            List<byte[]> samples = collectSamples(pFolder);
+            if (samples.size() < MIN_SAMPLES) {
+                return null;
+            } else {
+                byte[] dictionary = buildDictionary(samples);
+                Path path = Files.createTempFile(pFolder, "dict", null);
+                Files.write(path, dictionary);
+                Files.move(path, pFolder.resolve(FILE_NAME), StandardCopyOption.ATOMIC_MOVE);
+                LOGGER.info("Trained {} byte region file dictionary for {} from {} chunks", dictionary.length, pFolder, samples.size());
+                return dictionary;
+            }
+        } catch (IOException ioexception) {
+            LOGGER.error("Failed to train region file dictionary for {}", pFolder, ioexception);
+            return null;
+        }
+    }
+
+    private static List<byte[]> collectSamples(Path pFolder) throws IOException {
+        List<byte[]> samples = new ArrayList<>();
+        if (!Files.isDirectory(pFolder)) {
+            return samples;
+        } else {
+            List<Path> regions;
+            try (Stream<Path> stream = Files.list(pFolder)) {
+                regions = stream.filter(file -> REGEX.matcher(file.getFileName().toString()).matches()).toList();
+            }
+
+            for(Path path : regions) {
+                Matcher matcher = REGEX.matcher(path.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+
+                int regionX = Integer.parseInt(matcher.group(1)) << 5;
+                int regionZ = Integer.parseInt(matcher.group(2)) << 5;
+
+                try (RegionFile regionfile = RegionFile.openReadOnly(path, pFolder)) {
+                    for(int x = 0; x < 32 && samples.size() < MAX_SAMPLES; ++x) {
+                        for(int z = 0; z < 32 && samples.size() < MAX_SAMPLES; ++z) {
+                            ChunkPos chunkpos = new ChunkPos(regionX + x, regionZ + z);
+                            try (DataInputStream datainputstream = regionfile.getChunkDataInputStream(chunkpos)) {
+                                if (datainputstream != null) {
+                                    samples.add(datainputstream.readAllBytes());
+                                }
+                            } catch (IOException ioexception) {
+                                LOGGER.warn("Failed to read chunk {} while sampling {}", chunkpos, path, ioexception);
+                            }
+                        }
+                    }
+                }
+
+                if (samples.size() >= MAX_SAMPLES) {
+                    break;
+                }
+            }
+
+            return samples;
+        }
+    }
+
+    /**
+     * Scores every {@value #SEGMENT_LENGTH} byte segment by the number of samples containing it and concatenates the best ones, with the most common segments last,
+     * since deflate encodes shorter distances more cheaply.
+     */
+    private static byte[] buildDictionary(List<byte[]> pSamples) {
+        Int2IntOpenHashMap occurrences = new Int2IntOpenHashMap();
+        Int2LongOpenHashMap firstLocations = new Int2LongOpenHashMap();
+
+        for(int sample = 0; sample < pSamples.size(); ++sample) {
+            byte[] data = pSamples.get(sample);
+            IntSet seen = new IntOpenHashSet();
+
+            for(int offset = 0; offset + SEGMENT_LENGTH <= data.length; offset += SEGMENT_STEP) {
+                int hash = hashSegment(data, offset);
+                if (seen.add(hash)) {
+                    occurrences.addTo(hash, 1);
+                    firstLocations.putIfAbsent(hash, (long)sample << 32 | (long)offset);
+                }
+            }
+        }
+
+        IntArrayList segments = new IntArrayList();
+        occurrences.int2IntEntrySet().forEach(entry -> {
+            if (entry.getIntValue() > 1) {
+                segments.add(entry.getIntKey());
+            }
+        });
+        segments.sort((first, second) -> Integer.compare(occurrences.get(second), occurrences.get(first)));
+        int count = Math.min(segments.size(), MAX_SIZE / SEGMENT_LENGTH);
+        byte[] dictionary = new byte[count * SEGMENT_LENGTH];
+
+        for(int i = 0; i < count; ++i) {
+            long location = firstLocations.get(segments.getInt(i));
+            byte[] source = pSamples.get((int)(location >>> 32));
+            System.arraycopy(source, (int)location, dictionary, dictionary.length - (i + 1) * SEGMENT_LENGTH, SEGMENT_LENGTH);
+        }
+
+        return dictionary;
+    }
+
+    private static int hashSegment(byte[] pData, int pOffset) {
+        int hash = 1;
+
+        for(int i = 0; i < SEGMENT_LENGTH; ++i) {
+            hash = 31 * hash + pData[pOffset + i];
+        }
+
+        return hash;
+    }
+}
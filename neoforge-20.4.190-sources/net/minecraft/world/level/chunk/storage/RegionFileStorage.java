@@ -1,10 +1,23 @@
 package net.minecraft.world.level.chunk.storage;
 
+import com.mojang.logging.LogUtils;
 import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
 import java.io.DataInputStream;
+import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import net.minecraft.FileUtil;
 import net.minecraft.nbt.CompoundTag;
@@ -13,23 +26,76 @@ import net.minecraft.nbt.NbtIo;
 import net.minecraft.nbt.StreamTagVisitor;
 import net.minecraft.util.ExceptionCollector;
 import net.minecraft.world.level.ChunkPos;
+import org.slf4j.Logger;
 
 /**
  * Handles reading and writing the {@link net.minecraft.world.level.chunk.storage.RegionFile region files} for a {@link net.minecraft.world.level.Level}.
  */
 public final class RegionFileStorage implements AutoCloseable {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Pattern REGEX = Pattern.compile("^r\\.(-?[0-9]+)\\.(-?[0-9]+)\\.mca$");
     public static final String ANVIL_EXTENSION = ".mca";
+    // Neo: only chunk data is sampled for compression dictionaries, entities and points of interest are stored in other folders
+    private static final String CHUNK_FOLDER = "region";
     private static final int MAX_CACHE_SIZE = 256;
     private final Long2ObjectLinkedOpenHashMap<RegionFile> regionCache = new Long2ObjectLinkedOpenHashMap<>();
     private final Path folder;
     private final boolean sync;
+    /**
+     * Neo: The compression region files are opened with. A dictionary finishing training in the background replaces it as a whole,
+     * so any thread reads a matching pair.
+     */
+    private volatile RegionFileStorage.Compression compression;
+    /**
+     * Neo: The compression the cached region files use, only accessed by the thread using this storage.
+     */
+    private RegionFileStorage.Compression cachedCompression;
 
     RegionFileStorage(Path pFolder, boolean pSync) {
         this.folder = pFolder;
         this.sync = pSync;
+        // Neo: chunks written with a dictionary stay readable even if a different compression has been selected since
+        byte[] dictionary = RegionFileDictionary.load(pFolder);
+        RegionFileVersion selected = RegionFileVersion.getSelected();
+        RegionFileVersion dictionaryVersion = dictionary != null ? RegionFileVersion.withDictionary(dictionary) : null;
+        if (!selected.requiresDictionary()) {
+            this.compression = new RegionFileStorage.Compression(selected, dictionaryVersion);
+        } else if (dictionaryVersion != null) {
+            this.compression = new RegionFileStorage.Compression(dictionaryVersion, dictionaryVersion);
+        } else {
+            this.compression = new RegionFileStorage.Compression(RegionFileVersion.VERSION_DEFLATE, null);
+            if (CHUNK_FOLDER.equals(pFolder.getFileName().toString())) {
+                // Neo: sampling reads up to a thousand chunks, so train off the thread building the level and write plain deflate until the dictionary is ready
+                RegionFileDictionary.trainAsync(pFolder).thenAccept(trained -> {
+                    if (trained != null) {
+                        RegionFileVersion trainedVersion = RegionFileVersion.withDictionary(trained);
+                        this.compression = new RegionFileStorage.Compression(trainedVersion, trainedVersion);
+                    } else {
+                        LOGGER.info("Not enough chunks in {} to train a compression dictionary yet, using deflate until the next restart", pFolder);
+                    }
+                });
+            }
+        }
+
+        this.cachedCompression = this.compression;
+    }
+
+    /**
+     * Neo: Switches the cached region files to a dictionary that finished training in the background.
+     */
+    private void applyTrainedDictionary() {
+        RegionFileStorage.Compression regionfilestorage$compression = this.compression;
+        if (regionfilestorage$compression != this.cachedCompression) {
+            this.cachedCompression = regionfilestorage$compression;
+
+            for(RegionFile regionfile : this.regionCache.values()) {
+                regionfile.setVersion(regionfilestorage$compression.version(), regionfilestorage$compression.dictionaryVersion());
+            }
+        }
     }
 
     private RegionFile getRegionFile(ChunkPos pChunkPos) throws IOException {
+        this.applyTrainedDictionary();
         long i = ChunkPos.asLong(pChunkPos.getRegionX(), pChunkPos.getRegionZ());
         RegionFile regionfile = this.regionCache.getAndMoveToFirst(i);
         if (regionfile != null) {
@@ -40,13 +106,94 @@ public final class RegionFileStorage implements AutoCloseable {
             }
 
             FileUtil.createDirectoriesSafe(this.folder);
-            Path path = this.folder.resolve("r." + pChunkPos.getRegionX() + "." + pChunkPos.getRegionZ() + ".mca");
-            RegionFile regionfile1 = new RegionFile(path, this.folder, this.sync);
+            Path path = this.getRegionPath(pChunkPos.getRegionX(), pChunkPos.getRegionZ());
+            RegionFile regionfile1 = new RegionFile(
+                path, this.folder, this.cachedCompression.version(), this.cachedCompression.dictionaryVersion(), this.sync
+            );
             this.regionCache.putAndMoveToFirst(i, regionfile1);
             return regionfile1;
         }
     }
 
+    private Path getRegionPath(int pRegionX, int pRegionZ) {
+        return this.folder.resolve("r." + pRegionX + "." + pRegionZ + ".mca");
+    }
+
+    /**
+     * Neo: Lists the region files in this storage's folder.
+     *
+     * @return the region coordinates of every region file
+     */
+    public List<ChunkPos> listRegions() throws IOException {
+        if (!Files.isDirectory(this.folder)) {
+            return List.of();
+        } else {
+            List<ChunkPos> list = new ArrayList<>();
+
+            try (Stream<Path> stream = Files.list(this.folder)) {
+                stream.forEach(file -> {
+                    Matcher matcher = REGEX.matcher(file.getFileName().toString());
+                    if (matcher.matches()) {
+                        list.add(new ChunkPos(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+                    }
+                });
+            }
+
+            return list;
+        }
+    }
+
+    /**
+     * Neo: Rewrites a region file without dead space and with its chunks in Z-order, if enough of the file is unused.
+     *
+     * @param pMinDeadSpace the share of unused sectors the file needs to have to be compacted
+     * @return the amount of bytes the file shrank by
+     * @see RegionFile#compactTo(Path)
+     */
+    public long compact(int pRegionX, int pRegionZ, float pMinDeadSpace) throws IOException {
+        Path path = this.getRegionPath(pRegionX, pRegionZ);
+        if (!Files.isRegularFile(path)) {
+            return 0L;
+        } else {
+            RegionFile regionfile = this.getRegionFile(ChunkPos.minFromRegion(pRegionX, pRegionZ));
+            float f = regionfile.getDeadSpaceRatio();
+            if (f <= 0.0F || f < pMinDeadSpace) {
+                return 0L;
+            } else {
+                long i = Files.size(path);
+                Path path1 = Files.createTempFile(this.folder, "compact", null);
+
+                try {
+                    regionfile.compactTo(path1);
+                    // Closing releases the mappings of the file, which would otherwise keep it from being replaced on some platforms
+                    this.regionCache.remove(ChunkPos.asLong(pRegionX, pRegionZ));
+                    regionfile.close();
+                    Files.move(path1, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(path1);
+                }
+
+                return i - Files.size(path);
+            }
+        }
+    }
+
+    /**
+     * Neo: Opens a region file outside of the cache of this storage, with the same compression. The caller owns the returned file and has to close it,
+     * and has to make sure the region is not accessed through this storage in the meantime.
+     */
+    public RegionFile openRegionFile(int pRegionX, int pRegionZ) throws IOException {
+        RegionFileStorage.Compression regionfilestorage$compression = this.compression;
+        FileUtil.createDirectoriesSafe(this.folder);
+        return new RegionFile(
+            this.getRegionPath(pRegionX, pRegionZ),
+            this.folder,
+            regionfilestorage$compression.version(),
+            regionfilestorage$compression.dictionaryVersion(),
+            this.sync
+        );
+    }
+
     @Nullable
     public CompoundTag read(ChunkPos pChunkPos) throws IOException {
         RegionFile regionfile = this.getRegionFile(pChunkPos);
@@ -63,6 +210,53 @@ public final class RegionFileStorage implements AutoCloseable {
         return compoundtag;
     }
 
+    /**
+     * Neo: Opens the data of every chunk stored in a region file. The streams only hold a copy of the compressed data,
+     * so they can be decompressed and parsed on any thread once this returns. A region that is not cached is opened
+     * outside of the cache, so that scanning many regions does not evict the regions in use.
+     *
+     * @return the open streams by chunk position, which the caller has to close
+     */
+    public Map<ChunkPos, DataInputStream> openRegion(int pRegionX, int pRegionZ) throws IOException {
+        if (!Files.isRegularFile(this.getRegionPath(pRegionX, pRegionZ))) {
+            return Map.of();
+        } else {
+            this.applyTrainedDictionary();
+            RegionFile regionfile = this.regionCache.get(ChunkPos.asLong(pRegionX, pRegionZ));
+            if (regionfile != null) {
+                return readRegion(regionfile, pRegionX, pRegionZ);
+            } else {
+                try (RegionFile regionfile1 = this.openRegionFile(pRegionX, pRegionZ)) {
+                    return readRegion(regionfile1, pRegionX, pRegionZ);
+                }
+            }
+        }
+    }
+
+    private static Map<ChunkPos, DataInputStream> readRegion(RegionFile pRegionFile, int pRegionX, int pRegionZ) throws IOException {
+        Map<ChunkPos, DataInputStream> map = new LinkedHashMap<>();
+
+        try {
+            for(int i = 0; i < 32; ++i) {
+                for(int j = 0; j < 32; ++j) {
+                    ChunkPos chunkpos = new ChunkPos((pRegionX << 5) + j, (pRegionZ << 5) + i);
+                    DataInputStream datainputstream = pRegionFile.getDetachedChunkDataInputStream(chunkpos);
+                    if (datainputstream != null) {
+                        map.put(chunkpos, datainputstream);
+                    }
+                }
+            }
+        } catch (IOException ioexception) {
+            for(DataInputStream datainputstream1 : map.values()) {
+                datainputstream1.close();
+            }
+
+            throw ioexception;
+        }
+
+        return map;
+    }
+
     public void scanChunk(ChunkPos pChunkPos, StreamTagVisitor pVisitor) throws IOException {
         RegionFile regionfile = this.getRegionFile(pChunkPos);
 
@@ -74,16 +268,53 @@ public final class RegionFileStorage implements AutoCloseable {
     }
 
     protected void write(ChunkPos pChunkPos, @Nullable CompoundTag pChunkData) throws IOException {
+        if (pChunkData == null) {
+            this.write(pChunkPos, (RegionFileStorage.ChunkData)null);
+        } else {
+            this.write(pChunkPos, output -> NbtIo.write(pChunkData, output));
+        }
+    }
+
+    /**
+     * Neo: Writes a chunk whose data may already be serialized, or clears it if there is no data.
+     */
+    protected void write(ChunkPos pChunkPos, @Nullable RegionFileStorage.ChunkData pChunkData) throws IOException {
         RegionFile regionfile = this.getRegionFile(pChunkPos);
         if (pChunkData == null) {
             regionfile.clear(pChunkPos);
         } else {
             try (DataOutputStream dataoutputstream = regionfile.getChunkDataOutputStream(pChunkPos)) {
-                NbtIo.write(pChunkData, dataoutputstream);
+                pChunkData.write(dataoutputstream);
             }
         }
     }
 
+    /**
+     * Neo: Writes several chunks that all belong to the same region file as one batch. A chunk that fails to encode is left out of the batch,
+     * so it does not keep the other chunks from being written.
+     *
+     * @return the chunks that failed to encode, with their errors
+     * @throws IOException if writing the batch to the region file failed, in which case the offsets of the chunks that fit into the region file are unchanged
+     * @see RegionFile#write(Map)
+     */
+    protected Map<ChunkPos, Exception> write(ChunkPos pRegionPos, Map<ChunkPos, ? extends RegionFileStorage.ChunkData> pChunks) throws IOException {
+        RegionFile regionfile = this.getRegionFile(pRegionPos);
+        Map<ChunkPos, ByteBuffer> map = new LinkedHashMap<>();
+        Map<ChunkPos, Exception> failures = new LinkedHashMap<>();
+
+        for(Entry<ChunkPos, ? extends RegionFileStorage.ChunkData> entry : pChunks.entrySet()) {
+            try (DataOutputStream dataoutputstream = regionfile.getChunkDataOutputStream(entry.getKey(), map)) {
+                entry.getValue().write(dataoutputstream);
+            } catch (Exception exception) {
+                map.remove(entry.getKey());
+                failures.put(entry.getKey(), exception);
+            }
+        }
+
+        regionfile.write(map);
+        return failures;
+    }
+
     @Override
     public void close() throws IOException {
         ExceptionCollector<IOException> exceptioncollector = new ExceptionCollector<>();
@@ -104,4 +335,18 @@ public final class RegionFileStorage implements AutoCloseable {
             regionfile.flush();
         }
     }
+
+    /**
+     * Neo: The compression new chunks are written with, and the dictionary compression chunks written before may use.
+     */
+    static record Compression(RegionFileVersion version, @Nullable RegionFileVersion dictionaryVersion) {
+    }
+
+    /**
+     * Neo: The data of a chunk to write, either as a tag or already serialized the way {@link NbtIo#write(CompoundTag, DataOutput)} writes it.
+     */
+    @FunctionalInterface
+    interface ChunkData {
+        void write(DataOutput pOutput) throws IOException;
+    }
 }
@@ -1,32 +1,44 @@
 package net.minecraft.world.level.chunk.storage;
 
+import com.google.common.collect.Maps;
+import com.mojang.logging.LogUtils;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Map;
+import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
 import javax.annotation.Nullable;
+import net.jpountz.lz4.LZ4BlockInputStream;
+import net.jpountz.lz4.LZ4BlockOutputStream;
 import net.minecraft.util.FastBufferedInputStream;
+import org.slf4j.Logger;
 
 /**
  * A decorator for input and output streams used to read and write the chunk data from region files. This exists as there are different ways of compressing the chunk data inside a region file.
  * @see net.minecraft.world.level.chunk.storage.RegionFileVersion#VERSION_GZIP
  * @see net.minecraft.world.level.chunk.storage.RegionFileVersion#VERSION_DEFLATE
  * @see net.minecraft.world.level.chunk.storage.RegionFileVersion#VERSION_NONE
+ * @see net.minecraft.world.level.chunk.storage.RegionFileVersion#VERSION_LZ4
+ * @see net.minecraft.world.level.chunk.storage.RegionFileVersion#VERSION_DEFLATE_DICTIONARY
  */
 public class RegionFileVersion {
+    private static final Logger LOGGER = LogUtils.getLogger();
     private static final Int2ObjectMap<RegionFileVersion> VERSIONS = new Int2ObjectOpenHashMap<>();
+    private static final Map<String, RegionFileVersion> VERSIONS_BY_NAME = Maps.newHashMap();
     /**
      * Used to store the chunk data in gzip format. Unused in practice.
      */
     public static final RegionFileVersion VERSION_GZIP = register(
         new RegionFileVersion(
-            1, p_63767_ -> new FastBufferedInputStream(new GZIPInputStream(p_63767_)), p_63769_ -> new BufferedOutputStream(new GZIPOutputStream(p_63769_))
+            1, "gzip", p_63767_ -> new FastBufferedInputStream(new GZIPInputStream(p_63767_)), p_63769_ -> new BufferedOutputStream(new GZIPOutputStream(p_63769_))
         )
     );
     /**
@@ -35,6 +47,7 @@ public class RegionFileVersion {
     public static final RegionFileVersion VERSION_DEFLATE = register(
         new RegionFileVersion(
             2,
+            "deflate",
             p_196964_ -> new FastBufferedInputStream(new InflaterInputStream(p_196964_)),
             p_196966_ -> new BufferedOutputStream(new DeflaterOutputStream(p_196966_))
         )
@@ -42,22 +55,62 @@ public class RegionFileVersion {
     /**
      * Used to keep the chunk data uncompressed. Unused in practice.
      */
-    public static final RegionFileVersion VERSION_NONE = register(new RegionFileVersion(3, p_196960_ -> p_196960_, p_196962_ -> p_196962_));
+    public static final RegionFileVersion VERSION_NONE = register(new RegionFileVersion(3, "none", p_196960_ -> p_196960_, p_196962_ -> p_196962_));
+    /**
+     * Neo: Used to store the chunk data in LZ4 block format. Compresses worse than deflate, but is several times faster in both directions.
+     */
+    public static final RegionFileVersion VERSION_LZ4 = register(
+        new RegionFileVersion(
+            4, "lz4", inputStream -> new FastBufferedInputStream(new LZ4BlockInputStream(inputStream)), outputStream -> new BufferedOutputStream(new LZ4BlockOutputStream(outputStream))
+        )
+    );
+    /**
+     * Neo: Used to store the chunk data as raw deflate with a preset dictionary trained from the chunks of the same region folder.
+     * The registered instance has no dictionary and refuses to wrap streams, region files use the instance returned by {@link #withDictionary(byte[])} instead.
+     * @see net.minecraft.world.level.chunk.storage.RegionFileDictionary
+     */
+    public static final RegionFileVersion VERSION_DEFLATE_DICTIONARY = register(new RegionFileVersion(5, "deflate_dictionary", inputStream -> {
+        throw new IOException("Chunk was compressed with a dictionary, but no dictionary is available");
+    }, outputStream -> {
+        throw new IOException("Cannot compress with a dictionary before one was trained");
+    }));
+    private static volatile RegionFileVersion selected = VERSION_DEFLATE;
     private final int id;
+    private final String name;
     private final RegionFileVersion.StreamWrapper<InputStream> inputWrapper;
     private final RegionFileVersion.StreamWrapper<OutputStream> outputWrapper;
 
-    private RegionFileVersion(int pId, RegionFileVersion.StreamWrapper<InputStream> pInputWrapper, RegionFileVersion.StreamWrapper<OutputStream> pOutputWrapper) {
+    private RegionFileVersion(
+        int pId, String pName, RegionFileVersion.StreamWrapper<InputStream> pInputWrapper, RegionFileVersion.StreamWrapper<OutputStream> pOutputWrapper
+    ) {
         this.id = pId;
+        this.name = pName;
         this.inputWrapper = pInputWrapper;
         this.outputWrapper = pOutputWrapper;
     }
 
     private static RegionFileVersion register(RegionFileVersion pFileVersion) {
         VERSIONS.put(pFileVersion.id, pFileVersion);
+        VERSIONS_BY_NAME.put(pFileVersion.name, pFileVersion);
         return pFileVersion;
     }
 
+    /**
+     * Neo: Selects the version newly written chunks are compressed with, by its name.
+     */
+    public static void configure(String pName) {
+        RegionFileVersion regionfileversion = VERSIONS_BY_NAME.get(pName);
+        if (regionfileversion == null) {
+            LOGGER.error("Unknown region file compression '{}', falling back to {}", pName, selected.name);
+        } else {
+            selected = regionfileversion;
+        }
+    }
+
+    public static RegionFileVersion getSelected() {
+        return selected;
+    }
+
     @Nullable
     public static RegionFileVersion fromId(int pId) {
         return VERSIONS.get(pId);
@@ -71,6 +124,26 @@ public class RegionFileVersion {
         return this.id;
     }
 
+    public String getName() {
+        return this.name;
+    }
+
+    public boolean requiresDictionary() {
+        return this.id == VERSION_DEFLATE_DICTIONARY.id;
+    }
+
+    /**
+     * Neo: Creates an unregistered copy of {@link #VERSION_DEFLATE_DICTIONARY} bound to the given preset dictionary.
+     */
+    public static RegionFileVersion withDictionary(byte[] pDictionary) {
+        return new RegionFileVersion(
+            VERSION_DEFLATE_DICTIONARY.id,
+            VERSION_DEFLATE_DICTIONARY.name,
+            inputStream -> new FastBufferedInputStream(new RegionFileVersion.DictionaryInflaterInputStream(inputStream, pDictionary)),
+            outputStream -> new BufferedOutputStream(new RegionFileVersion.DictionaryDeflaterOutputStream(outputStream, pDictionary))
+        );
+    }
+
     public OutputStream wrap(OutputStream pOutputStream) throws IOException {
         return this.outputWrapper.wrap(pOutputStream);
     }
@@ -83,4 +156,36 @@ public class RegionFileVersion {
     interface StreamWrapper<O> {
         O wrap(O pStream) throws IOException;
     }
+
+    static class DictionaryDeflaterOutputStream extends DeflaterOutputStream {
+        public DictionaryDeflaterOutputStream(OutputStream pOutputStream, byte[] pDictionary) {
+            super(pOutputStream, new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+            this.def.setDictionary(pDictionary);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                this.def.end();
+            }
+        }
+    }
+
+    static class DictionaryInflaterInputStream extends InflaterInputStream {
+        public DictionaryInflaterInputStream(InputStream pInputStream, byte[] pDictionary) {
+            super(pInputStream, new Inflater(true));
+            this.inf.setDictionary(pDictionary);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                this.inf.end();
+            }
+        }
+    }
 }
@@ -0,0 +1,584 @@
+package net.minecraft.world.level.levelgen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import net.minecraft.core.Holder;
+import net.minecraft.util.CubicSpline;
+import net.minecraft.util.KeyDispatchDataCodec;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.levelgen.blending.Blender;
+import net.minecraft.world.level.levelgen.synth.BlendedNoise;
+
+/**
+ * Neo: The functions filled into the interpolator slices of a {@link NoiseChunk}, compiled into a flat table of instructions over {@code double} arrays.
+ * <p>
+ * Every distinct function reachable from the interpolated functions becomes one instruction, which keeps its values for the current noise column in a
+ * plain array. Arithmetic runs as loops over those arrays and noise is sampled straight from the block position, instead of through a tree of virtual
+ * {@link DensityFunction#fillArray} calls that set up the noise chunk as context for every element. Functions that are reached more than once, like the
+ * ones shared between interpolators or wrapped in {@code cache_once}, are computed once per column.
+ * <p>
+ * {@code mul}, {@code min}, {@code max} and {@code range_choice} only compute their other arguments for the elements that need them, like the functions do.
+ * The instructions are therefore run on demand over lists of element indices rather than in one fixed order. Each instruction performs the same operations
+ * as the function it was compiled from, so the generated terrain is unchanged. Functions that are unknown, or that depend on the state of the noise chunk,
+ * are filled through the noise chunk as before.
+ * <p>
+ * The program is used unless the {@code neoforge.compiledDensityFunctions} system property is set to {@code false}.
+ */
+final class DensityProgram {
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("neoforge.compiledDensityFunctions", "true"));
+    private static final int CONSTANT = 0;
+    private static final int ADD = 1;
+    private static final int MUL = 2;
+    private static final int MIN = 3;
+    private static final int MAX = 4;
+    private static final int ADD_CONSTANT = 5;
+    private static final int MUL_CONSTANT = 6;
+    private static final int CLAMP = 7;
+    private static final int TRANSFORM = 8;
+    private static final int TRANSFORM_WITH_CONTEXT = 9;
+    private static final int RANGE_CHOICE = 10;
+    private static final int Y_CLAMPED_GRADIENT = 11;
+    private static final int NOISE = 12;
+    private static final int SHIFTED_NOISE = 13;
+    private static final int SPLINE = 14;
+    private static final int COMPUTE = 15;
+    private static final int FALLBACK = 16;
+    private final Map<DensityFunction, DensityProgram.Instruction> instructions = new IdentityHashMap<>();
+    private final DensityProgram.Instruction[] roots;
+    private final DensityProgram.Column column;
+    private final DensityFunctions.Spline.Point point;
+    private final DensityFunction.ContextProvider fallbackProvider;
+    private final int[] blockYs;
+    private final int[] allIndices;
+    private int generation;
+
+    /**
+     * @param pRoots            the functions to fill, one output array each
+     * @param pBlockYs          the block y of every element of a column
+     * @param pBlender          the blender of the noise chunk, for functions that blend their density
+     * @param pFallbackProvider fills the functions the program does not compile, for the column passed to {@link #fillColumn}
+     */
+    DensityProgram(List<DensityFunction> pRoots, int[] pBlockYs, Blender pBlender, DensityFunction.ContextProvider pFallbackProvider) {
+        this.blockYs = pBlockYs;
+        this.allIndices = new int[pBlockYs.length];
+
+        for(int i = 0; i < this.allIndices.length; ++i) {
+            this.allIndices[i] = i;
+        }
+
+        this.column = new DensityProgram.Column(pBlender);
+        this.point = new DensityFunctions.Spline.Point(this.column);
+        this.fallbackProvider = pFallbackProvider;
+        this.roots = new DensityProgram.Instruction[pRoots.size()];
+
+        for(int j = 0; j < this.roots.length; ++j) {
+            this.roots[j] = this.compile(pRoots.get(j));
+        }
+    }
+
+    int size() {
+        return this.roots.length;
+    }
+
+    /**
+     * Fills the values of every root function for the column at the given block position into the array at the same index of {@code pOutputs}.
+     */
+    void fillColumn(int pBlockX, int pBlockZ, double[][] pOutputs) {
+        ++this.generation;
+        this.column.blockX = pBlockX;
+        this.column.blockZ = pBlockZ;
+
+        for(int i = 0; i < this.roots.length; ++i) {
+            DensityProgram.Instruction densityprogram$instruction = this.roots[i];
+            this.evaluate(densityprogram$instruction, this.allIndices, this.allIndices.length);
+            System.arraycopy(densityprogram$instruction.values, 0, pOutputs[i], 0, this.allIndices.length);
+        }
+    }
+
+    private DensityProgram.Instruction compile(DensityFunction pFunction) {
+        DensityFunction densityfunction = unwrap(pFunction);
+        DensityProgram.Instruction densityprogram$instruction = this.instructions.get(densityfunction);
+        if (densityprogram$instruction == null) {
+            densityprogram$instruction = this.compileNew(densityfunction);
+            this.instructions.put(densityfunction, densityprogram$instruction);
+        }
+
+        return densityprogram$instruction;
+    }
+
+    /**
+     * Skips the wrappers whose {@link DensityFunction#fillArray} only fills the function they wrap while the slices are filled.
+     */
+    private static DensityFunction unwrap(DensityFunction pFunction) {
+        DensityFunction densityfunction = pFunction;
+
+        while(true) {
+            if (densityfunction instanceof NoiseChunk.NoiseInterpolator
+                || densityfunction instanceof NoiseChunk.CacheOnce
+                || densityfunction instanceof NoiseChunk.Cache2D
+                || densityfunction instanceof NoiseColumnCache.Cached
+                || densityfunction instanceof DensityFunctions.Marker) {
+                densityfunction = ((DensityFunctions.MarkerOrMarked)densityfunction).wrapped();
+            } else {
+                if (!(densityfunction instanceof DensityFunctions.HolderHolder densityfunctions$holderholder)) {
+                    return densityfunction;
+                }
+
+                densityfunction = densityfunctions$holderholder.function().value();
+            }
+        }
+    }
+
+    private DensityProgram.Instruction compileNew(DensityFunction pFunction) {
+        int i = this.allIndices.length;
+        if (pFunction instanceof DensityFunctions.Constant densityfunctions$constant) {
+            DensityProgram.Instruction densityprogram$instruction = new DensityProgram.Instruction(CONSTANT, i);
+            densityprogram$instruction.lower = densityfunctions$constant.value();
+            return densityprogram$instruction;
+        } else if (pFunction instanceof DensityFunctions.Ap2 densityfunctions$ap2) {
+            DensityProgram.Instruction densityprogram$instruction = new DensityProgram.Instruction(switch(densityfunctions$ap2.type()) {
+                case ADD -> ADD;
+                case MUL -> MUL;
+                case MIN -> MIN;
+                case MAX -> MAX;
+            }, i);
+            densityprogram$instruction.first = this.compile(densityfunctions$ap2.argument1());
+            densityprogram$instruction.second = this.compile(densityfunctions$ap2.argument2());
+            densityprogram$instruction.lower = densityfunctions$ap2.argument2().minValue();
+            densityprogram$instruction.upper = densityfunctions$ap2.argument2().maxValue();
+            return densityprogram$instruction;
+        } else if (pFunction instanceof DensityFunctions.MulOrAdd densityfunctions$muloradd) {
+            DensityProgram.Instruction densityprogram$instruction = new DensityProgram.Instruction(
+                densityfunctions$muloradd.specificType() == DensityFunctions.MulOrAdd.Type.MUL ? MUL_CONSTANT : ADD_CONSTANT, i
+            );
+            densityprogram$instruction.first = this.compile(densityfunctions$muloradd.input());
+            densityprogram$instruction.lower = densityfunctions$muloradd.argument();
+            return densityprogram$instruction;
+        } else if (pFunction instanceof DensityFunctions.Clamp densityfunctions$clamp) {
+            DensityProgram.Instruction densityprogram$instruction = new DensityProgram.Instruction(CLAMP, i);
+            densityprogram$instruction.first = this.compile(densityfunctions$clamp.input());
+            densityprogram$instruction.lower = densityfunctions$clamp.minValue();
+            densityprogram$instruction.upper = densityfunctions$clamp.maxValue();
+            return densityprogram$instruction;
+        } else if (pFunction instanceof DensityFunctions.PureTransformer densityfunctions$puretransformer) {
+            DensityProgram.Instruction densityprogram$instruction = new DensityProgram.Instruction(TRANSFORM, i);
+            densityprogram$instruction.first = this.compile(densityfunctions$puretransformer.input());
+            densityprogram$instruction.function = pFunction;
+            return densityprogram$instruction;
+        } else if (pFunction instanceof DensityFunctions.TransformerWithContext densityfunctions$transformerwithcontext) {
+            DensityProgram.Instruction densityprogram$instruction = new DensityProgram.Instruction(TRANSFORM_WITH_CONTEXT, i);
+            densityprogram$instruction.first = this.compile(densityfunctions$transformerwithcontext.input());
+            densityprogram$instruction.function = pFunction;
+            return densityprogram$instruction;
+        } else if (pFunction instanceof DensityFunctions.RangeChoice densityfunctions$rangechoice) {
+            DensityProgram.Instruction densityprogram$instruction = new DensityProgram.Instruction(RANGE_CHOICE, i);
+            densityprogram$instruction.first = this.compile(densityfunctions$rangechoice.input());
+            densityprogram$instruction.second = this.compile(densityfunctions$rangechoice.whenInRange());
+            densityprogram$instruction.third = this.compile(densityfunctions$rangechoice.whenOutOfRange());
+            densityprogram$instruction.lower = densityfunctions$rangechoice.minInclusive();
+            densityprogram$instruction.upper = densityfunctions$rangechoice.maxExclusive();
+            return densityprogram$instruction;
+        } else if (pFunction instanceof DensityFunctions.YClampedGradient densityfunctions$yclampedgradient) {
+            DensityProgram.Instruction densityprogram$instruction = new DensityProgram.Instruction(Y_CLAMPED_GRADIENT, i);
+            densityprogram$instruction.function = pFunction;
+            return densityprogram$instruction;
+        } else if (pFunction instanceof DensityFunctions.Noise densityfunctions$noise) {
+            DensityProgram.Instruction densityprogram$instruction = new DensityProgram.Instruction(NOISE, i);
+            densityprogram$instruction.noise = densityfunctions$noise.noise();
+            densityprogram$instruction.lower = densityfunctions$noise.xzScale();
+            densityprogram$instruction.upper = densityfunctions$noise.yScale();
+            return densityprogram$instruction;
+        } else if (pFunction instanceof DensityFunctions.ShiftedNoise densityfunctions$shiftednoise) {
+            DensityProgram.Instruction densityprogram$instruction = new DensityProgram.Instruction(SHIFTED_NOISE, i);
+            densityprogram$instruction.first = this.compile(densityfunctions$shiftednoise.shiftX());
+            densityprogram$instruction.second = this.compile(densityfunctions$shiftednoise.shiftY());
+            densityprogram$instruction.third = this.compile(densityfunctions$shiftednoise.shiftZ());
+            densityprogram$instruction.noise = densityfunctions$shiftednoise.noise();
+            densityprogram$instruction.lower = densityfunctions$shiftednoise.xzScale();
+            densityprogram$instruction.upper = densityfunctions$shiftednoise.yScale();
+            return densityprogram$instruction;
+        } else if (pFunction instanceof DensityFunctions.Spline densityfunctions$spline) {
+            DensityProgram.Instruction densityprogram$instruction = new DensityProgram.Instruction(SPLINE, i);
+            List<DensityProgram.Instruction> list = new ArrayList<>();
+            // The coordinates read the values their instructions computed for the element being evaluated
+            densityprogram$instruction.spline = densityfunctions$spline.spline().mapAll(coordinate -> {
+                DensityFunction densityfunction = coordinate.function().value();
+                DensityProgram.Instruction coordinateInstruction = this.compile(densityfunction);
+                if (!list.contains(coordinateInstruction)) {
+                    list.add(coordinateInstruction);
+                }
+
+                return new DensityFunctions.Spline.Coordinate(
+                    new Holder.Direct<>(new DensityProgram.Register(coordinateInstruction.values, this.column, densityfunction.minValue(), densityfunction.maxValue()))
+                );
+            });
+            densityprogram$instruction.coordinates = list.toArray(new DensityProgram.Instruction[0]);
+            return densityprogram$instruction;
+        } else if (pFunction instanceof DensityFunctions.ShiftNoise
+            || pFunction instanceof BlendedNoise
+            || pFunction instanceof DensityFunctions.EndIslandDensityFunction
+            || pFunction instanceof DensityFunctions.BlendAlpha
+            || pFunction instanceof DensityFunctions.BlendOffset
+            || pFunction instanceof DensityFunctions.BeardifierMarker) {
+            // These only read the block position, so they can be computed at the column without the noise chunk
+            DensityProgram.Instruction densityprogram$instruction = new DensityProgram.Instruction(COMPUTE, i);
+            densityprogram$instruction.function = pFunction;
+            return densityprogram$instruction;
+        } else {
+            DensityProgram.Instruction densityprogram$instruction = new DensityProgram.Instruction(FALLBACK, i);
+            densityprogram$instruction.function = pFunction;
+            return densityprogram$instruction;
+        }
+    }
+
+    /**
+     * Makes sure the instruction holds its values for the given elements of the current column, computing the ones it does not have yet.
+     */
+    private void evaluate(DensityProgram.Instruction pInstruction, int[] pIndices, int pCount) {
+        int[] aint = pInstruction.pending;
+        int[] aint1 = pInstruction.computed;
+        int i = 0;
+
+        for(int j = 0; j < pCount; ++j) {
+            int k = pIndices[j];
+            if (aint1[k] != this.generation) {
+                aint1[k] = this.generation;
+                aint[i++] = k;
+            }
+        }
+
+        if (i > 0) {
+            this.compute(pInstruction, aint, i);
+        }
+    }
+
+    private void compute(DensityProgram.Instruction pInstruction, int[] pIndices, int pCount) {
+        double[] adouble = pInstruction.values;
+        switch(pInstruction.opcode) {
+            case CONSTANT:
+                for(int i = 0; i < pCount; ++i) {
+                    adouble[pIndices[i]] = pInstruction.lower;
+                }
+                break;
+            case ADD: {
+                this.evaluate(pInstruction.first, pIndices, pCount);
+                this.evaluate(pInstruction.second, pIndices, pCount);
+                double[] adouble1 = pInstruction.first.values;
+                double[] adouble2 = pInstruction.second.values;
+
+                for(int i = 0; i < pCount; ++i) {
+                    int j = pIndices[i];
+                    adouble[j] = adouble1[j] + adouble2[j];
+                }
+                break;
+            }
+            case MUL: {
+                this.evaluate(pInstruction.first, pIndices, pCount);
+                double[] adouble1 = pInstruction.first.values;
+                int[] aint = pInstruction.selected;
+                int k = 0;
+
+                for(int i = 0; i < pCount; ++i) {
+                    int j = pIndices[i];
+                    if (adouble1[j] != 0.0) {
+                        aint[k++] = j;
+                    }
+                }
+
+                this.evaluate(pInstruction.second, aint, k);
+                double[] adouble2 = pInstruction.second.values;
+
+                for(int i = 0; i < pCount; ++i) {
+                    int j = pIndices[i];
+                    double d0 = adouble1[j];
+                    adouble[j] = d0 == 0.0 ? 0.0 : d0 * adouble2[j];
+                }
+                break;
+            }
+            case MIN: {
+                this.evaluate(pInstruction.first, pIndices, pCount);
+                double[] adouble1 = pInstruction.first.values;
+                double d1 = pInstruction.lower;
+                int[] aint = pInstruction.selected;
+                int k = 0;
+
+                for(int i = 0; i < pCount; ++i) {
+                    int j = pIndices[i];
+                    if (!(adouble1[j] < d1)) {
+                        aint[k++] = j;
+                    }
+                }
+
+                this.evaluate(pInstruction.second, aint, k);
+                double[] adouble2 = pInstruction.second.values;
+
+                for(int i = 0; i < pCount; ++i) {
+                    int j = pIndices[i];
+                    double d0 = adouble1[j];
+                    adouble[j] = d0 < d1 ? d0 : Math.min(d0, adouble2[j]);
+                }
+                break;
+            }
+            case MAX: {
+                this.evaluate(pInstruction.first, pIndices, pCount);
+                double[] adouble1 = pInstruction.first.values;
+                double d1 = pInstruction.upper;
+                int[] aint = pInstruction.selected;
+                int k = 0;
+
+                for(int i = 0; i < pCount; ++i) {
+                    int j = pIndices[i];
+                    if (!(adouble1[j] > d1)) {
+                        aint[k++] = j;
+                    }
+                }
+
+                this.evaluate(pInstruction.second, aint, k);
+                double[] adouble2 = pInstruction.second.values;
+
+                for(int i = 0; i < pCount; ++i) {
+                    int j = pIndices[i];
+                    double d0 = adouble1[j];
+                    adouble[j] = d0 > d1 ? d0 : Math.max(d0, adouble2[j]);
+                }
+                break;
+            }
+            case ADD_CONSTANT: {
+                this.evaluate(pInstruction.first, pIndices, pCount);
+                double[] adouble1 = pInstruction.first.values;
+
+                for(int i = 0; i < pCount; ++i) {
+                    int j = pIndices[i];
+                    adouble[j] = adouble1[j] + pInstruction.lower;
+                }
+                break;
+            }
+            case MUL_CONSTANT: {
+                this.evaluate(pInstruction.first, pIndices, pCount);
+                double[] adouble1 = pInstruction.first.values;
+
+                for(int i = 0; i < pCount; ++i) {
+                    int j = pIndices[i];
+                    adouble[j] = adouble1[j] * pInstruction.lower;
+                }
+                break;
+            }
+            case CLAMP: {
+                this.evaluate(pInstruction.first, pIndices, pCount);
+                double[] adouble1 = pInstruction.first.values;
+
+                for(int i = 0; i < pCount; ++i) {
+                    int j = pIndices[i];
+                    adouble[j] = Mth.clamp(adouble1[j], pInstruction.lower, pInstruction.upper);
+                }
+                break;
+            }
+            case TRANSFORM: {
+                this.evaluate(pInstruction.first, pIndices, pCount);
+                double[] adouble1 = pInstruction.first.values;
+                DensityFunctions.PureTransformer densityfunctions$puretransformer = (DensityFunctions.PureTransformer)pInstruction.function;
+
+                for(int i = 0; i < pCount; ++i) {
+                    int j = pIndices[i];
+                    adouble[j] = densityfunctions$puretransformer.transform(adouble1[j]);
+                }
+                break;
+            }
+            case TRANSFORM_WITH_CONTEXT: {
+                this.evaluate(pInstruction.first, pIndices, pCount);
+                double[] adouble1 = pInstruction.first.values;
+                DensityFunctions.TransformerWithContext densityfunctions$transformerwithcontext = (DensityFunctions.TransformerWithContext)pInstruction.function;
+
+                for(int i = 0; i < pCount; ++i) {
+                    int j = pIndices[i];
+                    this.column.blockY = this.blockYs[j];
+                    adouble[j] = densityfunctions$transformerwithcontext.transform(this.column, adouble1[j]);
+                }
+                break;
+            }
+            case RANGE_CHOICE: {
+                this.evaluate(pInstruction.first, pIndices, pCount);
+                double[] adouble1 = pInstruction.first.values;
+                int[] aint = pInstruction.selected;
+                int[] aint1 = pInstruction.rejected;
+                int k = 0;
+                int l = 0;
+
+                for(int i = 0; i < pCount; ++i) {
+                    int j = pIndices[i];
+                    double d0 = adouble1[j];
+                    if (d0 >= pInstruction.lower && d0 < pInstruction.upper) {
+                        aint[k++] = j;
+                    } else {
+                        aint1[l++] = j;
+                    }
+                }
+
+                this.evaluate(pInstruction.second, aint, k);
+                this.evaluate(pInstruction.third, aint1, l);
+                double[] adouble2 = pInstruction.second.values;
+                double[] adouble3 = pInstruction.third.values;
+
+                for(int i = 0; i < k; ++i) {
+                    int j = aint[i];
+                    adouble[j] = adouble2[j];
+                }
+
+                for(int i = 0; i < l; ++i) {
+                    int j = aint1[i];
+                    adouble[j] = adouble3[j];
+                }
+                break;
+            }
+            case Y_CLAMPED_GRADIENT: {
+                DensityFunctions.YClampedGradient densityfunctions$yclampedgradient = (DensityFunctions.YClampedGradient)pInstruction.function;
+
+                for(int i = 0; i < pCount; ++i) {
+                    int j = pIndices[i];
+                    adouble[j] = Mth.clampedMap(
+                        (double)this.blockYs[j],
+                        (double)densityfunctions$yclampedgradient.fromY(),
+                        (double)densityfunctions$yclampedgradient.toY(),
+                        densityfunctions$yclampedgradient.fromValue(),
+                        densityfunctions$yclampedgradient.toValue()
+                    );
+                }
+                break;
+            }
+            case NOISE: {
+                double d0 = (double)this.column.blockX * pInstruction.lower;
+                double d1 = (double)this.column.blockZ * pInstruction.lower;
+
+                for(int i = 0; i < pCount; ++i) {
+                    int j = pIndices[i];
+                    adouble[j] = pInstruction.noise.getValue(d0, (double)this.blockYs[j] * pInstruction.upper, d1);
+                }
+                break;
+            }
+            case SHIFTED_NOISE: {
+                this.evaluate(pInstruction.first, pIndices, pCount);
+                this.evaluate(pInstruction.second, pIndices, pCount);
+                this.evaluate(pInstruction.third, pIndices, pCount);
+                double[] adouble1 = pInstruction.first.values;
+                double[] adouble2 = pInstruction.second.values;
+                double[] adouble3 = pInstruction.third.values;
+                double d0 = (double)this.column.blockX * pInstruction.lower;
+                double d1 = (double)this.column.blockZ * pInstruction.lower;
+
+                for(int i = 0; i < pCount; ++i) {
+                    int j = pIndices[i];
+                    adouble[j] = pInstruction.noise
+                        .getValue(d0 + adouble1[j], (double)this.blockYs[j] * pInstruction.upper + adouble2[j], d1 + adouble3[j]);
+                }
+                break;
+            }
+            case SPLINE: {
+                for(DensityProgram.Instruction densityprogram$instruction : pInstruction.coordinates) {
+                    this.evaluate(densityprogram$instruction, pIndices, pCount);
+                }
+
+                for(int i = 0; i < pCount; ++i) {
+                    int j = pIndices[i];
+                    this.column.blockY = this.blockYs[j];
+                    this.column.index = j;
+                    adouble[j] = (double)pInstruction.spline.apply(this.point);
+                }
+                break;
+            }
+            case COMPUTE:
+                for(int i = 0; i < pCount; ++i) {
+                    int j = pIndices[i];
+                    this.column.blockY = this.blockYs[j];
+                    adouble[j] = pInstruction.function.compute(this.column);
+                }
+                break;
+            default:
+                // The noise chunk can only fill whole columns
+                pInstruction.function.fillArray(adouble, this.fallbackProvider);
+                Arrays.fill(pInstruction.computed, this.generation);
+        }
+    }
+
+    static final class Instruction {
+        final int opcode;
+        final double[] values;
+        final int[] computed;
+        final int[] pending;
+        @Nullable
+        final int[] selected;
+        @Nullable
+        final int[] rejected;
+        DensityProgram.Instruction first;
+        DensityProgram.Instruction second;
+        DensityProgram.Instruction third;
+        double lower;
+        double upper;
+        DensityFunction function;
+        DensityFunction.NoiseHolder noise;
+        CubicSpline<DensityFunctions.Spline.Point, DensityFunctions.Spline.Coordinate> spline;
+        DensityProgram.Instruction[] coordinates;
+
+        Instruction(int pOpcode, int pSize) {
+            this.opcode = pOpcode;
+            this.values = new double[pSize];
+            this.computed = new int[pSize];
+            this.pending = new int[pSize];
+            this.selected = pOpcode == MUL || pOpcode == MIN || pOpcode == MAX || pOpcode == RANGE_CHOICE ? new int[pSize] : null;
+            this.rejected = pOpcode == RANGE_CHOICE ? new int[pSize] : null;
+        }
+    }
+
+    /**
+     * The position of the element being computed, for the functions that read it themselves.
+     */
+    static final class Column implements DensityFunction.FunctionContext {
+        private final Blender blender;
+        int blockX;
+        int blockY;
+        int blockZ;
+        int index;
+
+        Column(Blender pBlender) {
+            this.blender = pBlender;
+        }
+
+        @Override
+        public int blockX() {
+            return this.blockX;
+        }
+
+        @Override
+        public int blockY() {
+            return this.blockY;
+        }
+
+        @Override
+        public int blockZ() {
+            return this.blockZ;
+        }
+
+        @Override
+        public Blender getBlender() {
+            return this.blender;
+        }
+    }
+
+    /**
+     * Reads the value an instruction computed for the element being computed, used as the coordinate of compiled splines.
+     */
+    static record Register(double[] values, DensityProgram.Column column, double minValue, double maxValue) implements DensityFunction.SimpleFunction {
+        @Override
+        public double compute(DensityFunction.FunctionContext pContext) {
+            return this.values[this.column.index];
+        }
+
+        @Override
+        public KeyDispatchDataCodec<? extends DensityFunction> codec() {
+            throw new UnsupportedOperationException("Calling .codec() on Register");
+        }
+    }
+}
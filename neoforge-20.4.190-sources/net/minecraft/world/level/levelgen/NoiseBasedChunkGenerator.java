@@ -81,7 +81,7 @@ public class NoiseBasedChunkGenerator extends ChunkGenerator {
         return CompletableFuture.supplyAsync(Util.wrapThreadWithTaskName("init_biomes", () -> {
             this.doCreateBiomes(pBlender, pRandomState, pStructureManager, pChunk);
             return pChunk;
-        }), Util.backgroundExecutor());
+        }), Util.worldgenExecutor());
     }
 
     private void doCreateBiomes(Blender pBlender, RandomState pRandom, StructureManager pStructureManager, ChunkAccess pChunk) {
@@ -346,7 +346,7 @@ public class NoiseBasedChunkGenerator extends ChunkGenerator {
 
             return CompletableFuture.supplyAsync(
                     Util.wrapThreadWithTaskName("wgen_fill_noise", () -> this.doFill(pBlender, pStructureManager, pRandom, pChunk, j, k)),
-                    Util.backgroundExecutor()
+                    Util.worldgenExecutor()
                 )
                 .whenCompleteAsync((p_224309_, p_224310_) -> {
                     for(LevelChunkSection levelchunksection1 : set) {
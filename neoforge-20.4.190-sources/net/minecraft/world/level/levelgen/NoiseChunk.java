@@ -34,6 +34,8 @@ public class NoiseChunk implements DensityFunction.ContextProvider, DensityFunct
     final List<NoiseChunk.CacheAllInCell> cellCaches;
     private final Map<DensityFunction, DensityFunction> wrapped = new HashMap<>();
     private final Long2IntMap preliminarySurfaceLevel = new Long2IntOpenHashMap();
+    @Nullable
+    private final NoiseColumnCache sharedPreliminarySurfaceLevel;
     private final Aquifer aquifer;
     private final DensityFunction initialDensityNoJaggedness;
     private final NoiseChunk.BlockStateFiller blockStateRule;
@@ -57,6 +59,10 @@ public class NoiseChunk implements DensityFunction.ContextProvider, DensityFunct
     long interpolationCounter;
     long arrayInterpolationCounter;
     int arrayIndex;
+    /** Neo: The compiled interpolated functions, see {@link DensityProgram} */
+    @Nullable
+    private DensityProgram sliceProgram;
+    private double[][] sliceProgramOutputs;
     private final DensityFunction.ContextProvider sliceFillingContextProvider = new DensityFunction.ContextProvider() {
         @Override
         public DensityFunction.FunctionContext forIndex(int p_209253_) {
@@ -118,6 +124,8 @@ public class NoiseChunk implements DensityFunction.ContextProvider, DensityFunct
         this.firstNoiseZ = QuartPos.fromBlock(pFirstNoiseZ);
         this.noiseSizeXZ = QuartPos.fromBlock(pCellCountXZ * this.cellWidth);
         this.blender = pBlendifier;
+        // Neo: Blending changes the surface of the chunks next to old ones, so only share the levels of unblended chunks
+        this.sharedPreliminarySurfaceLevel = pBlendifier == Blender.empty() ? pRandom.preliminarySurfaceLevelCache(pNoiseSettings) : null;
         this.beardifier = pBeardifier;
         this.blendAlpha = new NoiseChunk.FlatCache(new NoiseChunk.BlendAlpha(), false);
         this.blendOffset = new NoiseChunk.FlatCache(new NoiseChunk.BlendOffset(), false);
@@ -194,7 +202,13 @@ public class NoiseChunk implements DensityFunction.ContextProvider, DensityFunct
     public int preliminarySurfaceLevel(int pX, int pZ) {
         int i = QuartPos.toBlock(QuartPos.fromBlock(pX));
         int j = QuartPos.toBlock(QuartPos.fromBlock(pZ));
-        return this.preliminarySurfaceLevel.computeIfAbsent(ColumnPos.asLong(i, j), this::computePreliminarySurfaceLevel);
+        return this.preliminarySurfaceLevel.computeIfAbsent(ColumnPos.asLong(i, j), this::getOrComputePreliminarySurfaceLevel);
+    }
+
+    private int getOrComputePreliminarySurfaceLevel(long pColumn) {
+        return this.sharedPreliminarySurfaceLevel == null
+            ? this.computePreliminarySurfaceLevel(pColumn)
+            : (int)this.sharedPreliminarySurfaceLevel.getOrCompute(pColumn, this::computePreliminarySurfaceLevel);
     }
 
     private int computePreliminarySurfaceLevel(long p_198250_) {
@@ -219,12 +233,22 @@ public class NoiseChunk implements DensityFunction.ContextProvider, DensityFunct
     private void fillSlice(boolean pIsSlice0, int pStart) {
         this.cellStartBlockX = pStart * this.cellWidth;
         this.inCellX = 0;
+        DensityProgram densityprogram = this.getSliceProgram();
 
         for(int i = 0; i < this.cellCountXZ + 1; ++i) {
             int j = this.firstCellZ + i;
             this.cellStartBlockZ = j * this.cellWidth;
             this.inCellZ = 0;
             ++this.arrayInterpolationCounter;
+            if (densityprogram != null) {
+                for(int k = 0; k < this.sliceProgramOutputs.length; ++k) {
+                    NoiseChunk.NoiseInterpolator noisechunk$noiseinterpolator1 = this.interpolators.get(k);
+                    this.sliceProgramOutputs[k] = (pIsSlice0 ? noisechunk$noiseinterpolator1.slice0 : noisechunk$noiseinterpolator1.slice1)[i];
+                }
+
+                densityprogram.fillColumn(this.cellStartBlockX, this.cellStartBlockZ, this.sliceProgramOutputs);
+                continue;
+            }
 
             for(NoiseChunk.NoiseInterpolator noisechunk$noiseinterpolator : this.interpolators) {
                 double[] adouble = (pIsSlice0 ? noisechunk$noiseinterpolator.slice0 : noisechunk$noiseinterpolator.slice1)[i];
@@ -235,6 +259,32 @@ public class NoiseChunk implements DensityFunction.ContextProvider, DensityFunct
         ++this.arrayInterpolationCounter;
     }
 
+    /**
+     * Neo: Returns the interpolated functions compiled for filling the slices, compiling them again if interpolators were added since,
+     * or {@code null} if compiled density functions are disabled.
+     */
+    @Nullable
+    private DensityProgram getSliceProgram() {
+        if (!DensityProgram.ENABLED) {
+            return null;
+        } else {
+            if (this.sliceProgram == null || this.sliceProgram.size() != this.interpolators.size()) {
+                int[] aint = new int[this.cellCountY + 1];
+
+                for(int i = 0; i < aint.length; ++i) {
+                    aint[i] = (i + this.cellNoiseMinY) * this.cellHeight;
+                }
+
+                this.sliceProgram = new DensityProgram(
+                    Lists.transform(this.interpolators, NoiseChunk.NoiseInterpolator::wrapped), aint, this.blender, this.sliceFillingContextProvider
+                );
+                this.sliceProgramOutputs = new double[this.interpolators.size()][];
+            }
+
+            return this.sliceProgram;
+        }
+    }
+
     public void initializeForFirstCellX() {
         if (this.interpolating) {
             throw new IllegalStateException("Staring interpolation twice");
@@ -606,6 +656,12 @@ public class NoiseChunk implements DensityFunction.ContextProvider, DensityFunct
             this.noiseFiller = pNoiseFiller;
             this.values = new double[NoiseChunk.this.noiseSizeXZ + 1][NoiseChunk.this.noiseSizeXZ + 1];
             if (pComputeValues) {
+                // Neo: Columns shared with the neighbouring chunks are taken from the cache of the random state, unless blending changes them
+                NoiseColumnCache noisecolumncache = pNoiseFiller instanceof NoiseColumnCache.Cached noisecolumncache$cached
+                        && NoiseChunk.this.blender == Blender.empty()
+                    ? noisecolumncache$cached.cache()
+                    : null;
+
                 for(int i = 0; i <= NoiseChunk.this.noiseSizeXZ; ++i) {
                     int j = NoiseChunk.this.firstNoiseX + i;
                     int k = QuartPos.toBlock(j);
@@ -613,7 +669,10 @@ public class NoiseChunk implements DensityFunction.ContextProvider, DensityFunct
                     for(int l = 0; l <= NoiseChunk.this.noiseSizeXZ; ++l) {
                         int i1 = NoiseChunk.this.firstNoiseZ + l;
                         int j1 = QuartPos.toBlock(i1);
-                        this.values[i][l] = pNoiseFiller.compute(new DensityFunction.SinglePointContext(k, 0, j1));
+                        DensityFunction.SinglePointContext densityfunction$singlepointcontext = new DensityFunction.SinglePointContext(k, 0, j1);
+                        this.values[i][l] = noisecolumncache == null
+                            ? pNoiseFiller.compute(densityfunction$singlepointcontext)
+                            : noisecolumncache.getOrCompute(ColumnPos.asLong(j, i1), column -> pNoiseFiller.compute(densityfunction$singlepointcontext));
                     }
                 }
             }
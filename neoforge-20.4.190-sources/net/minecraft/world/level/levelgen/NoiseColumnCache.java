@@ -0,0 +1,88 @@
+package net.minecraft.world.level.levelgen;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import java.util.function.LongToDoubleFunction;
+import net.minecraft.util.Mth;
+
+/**
+ * Neo: Bounded cache of values that only depend on the column they are sampled at, shared by every {@link NoiseChunk} of a {@link RandomState}.
+ * <p>
+ * Neighbouring chunks sample the same quart columns along their borders, so without sharing every column on a border of a chunk is computed again
+ * by each chunk next to it. The cache is direct mapped: a column is stored in a single slot picked by its hash and replaces whatever was held there,
+ * which keeps the memory use fixed and lets any thread read and write it without locking. Entries are immutable, so at worst a racing lookup misses
+ * and computes the value again.
+ * <p>
+ * The number of slots of each cache is set with the {@code neoforge.noiseColumnCacheSize} system property. A size of {@code 0} disables sharing.
+ */
+public final class NoiseColumnCache {
+    private static final int SIZE = Integer.parseInt(System.getProperty("neoforge.noiseColumnCacheSize", "4096"));
+    private final NoiseColumnCache.Entry[] entries;
+    private final int mask;
+
+    public NoiseColumnCache() {
+        int i = SIZE <= 0 ? 0 : Mth.smallestEncompassingPowerOfTwo(SIZE);
+        this.entries = new NoiseColumnCache.Entry[i];
+        this.mask = i - 1;
+    }
+
+    /**
+     * Returns the cached value of the column, or computes and caches it if the column is not cached.
+     *
+     * @param pColumn   the column, as packed by {@link net.minecraft.server.level.ColumnPos#asLong(int, int)}
+     * @param pComputer computes the value of the column, which must always return the same value for the same column
+     */
+    public double getOrCompute(long pColumn, LongToDoubleFunction pComputer) {
+        if (this.entries.length == 0) {
+            return pComputer.applyAsDouble(pColumn);
+        } else {
+            int i = (int)HashCommon.mix(pColumn) & this.mask;
+            NoiseColumnCache.Entry noisecolumncache$entry = this.entries[i];
+            if (noisecolumncache$entry != null && noisecolumncache$entry.column == pColumn) {
+                return noisecolumncache$entry.value;
+            } else {
+                double d0 = pComputer.applyAsDouble(pColumn);
+                this.entries[i] = new NoiseColumnCache.Entry(pColumn, d0);
+                return d0;
+            }
+        }
+    }
+
+    /**
+     * Carries the shared cache of a {@code flat_cache} marker through {@link DensityFunction#mapAll(DensityFunction.Visitor)}, so that the
+     * {@link NoiseChunk} wrapping the marker can find it. It computes exactly like the function it wraps, as flat caching only happens in noise chunks.
+     */
+    public static record Cached(DensityFunction wrapped, NoiseColumnCache cache) implements DensityFunctions.MarkerOrMarked {
+        @Override
+        public DensityFunctions.Marker.Type type() {
+            return DensityFunctions.Marker.Type.FlatCache;
+        }
+
+        @Override
+        public double compute(DensityFunction.FunctionContext pContext) {
+            return this.wrapped.compute(pContext);
+        }
+
+        @Override
+        public void fillArray(double[] pArray, DensityFunction.ContextProvider pContextProvider) {
+            this.wrapped.fillArray(pArray, pContextProvider);
+        }
+
+        @Override
+        public DensityFunction mapAll(DensityFunction.Visitor pVisitor) {
+            return pVisitor.apply(new NoiseColumnCache.Cached(this.wrapped.mapAll(pVisitor), this.cache));
+        }
+
+        @Override
+        public double minValue() {
+            return this.wrapped.minValue();
+        }
+
+        @Override
+        public double maxValue() {
+            return this.wrapped.maxValue();
+        }
+    }
+
+    static record Entry(long column, double value) {
+    }
+}
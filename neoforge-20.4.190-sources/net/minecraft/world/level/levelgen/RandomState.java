@@ -23,6 +23,7 @@ public final class RandomState {
     private final PositionalRandomFactory oreRandom;
     private final Map<ResourceKey<NormalNoise.NoiseParameters>, NormalNoise> noiseIntances;
     private final Map<ResourceLocation, PositionalRandomFactory> positionalRandoms;
+    private final Map<NoiseSettings, NoiseColumnCache> preliminarySurfaceLevels;
 
     public static RandomState create(HolderGetter.Provider pRegistries, ResourceKey<NoiseGeneratorSettings> pSettingsKey, long pLevelSeed) {
         return create(
@@ -43,6 +44,7 @@ public final class RandomState {
         this.oreRandom = this.random.fromHashOf(new ResourceLocation("ore")).forkPositional();
         this.noiseIntances = new ConcurrentHashMap<>();
         this.positionalRandoms = new ConcurrentHashMap<>();
+        this.preliminarySurfaceLevels = new ConcurrentHashMap<>();
         this.surfaceSystem = new SurfaceSystem(this, pSettings.defaultBlock(), pSettings.seaLevel(), this.random);
         final boolean flag = pSettings.useLegacyRandomSource();
 
@@ -87,6 +89,12 @@ public final class RandomState {
                 if (p_224596_ instanceof BlendedNoise blendednoise) {
                     RandomSource randomsource = flag ? this.newLegacyInstance(0L) : RandomState.this.random.fromHashOf(new ResourceLocation("terrain"));
                     return blendednoise.withNewRandom(randomsource);
+                } else if (p_224596_ instanceof DensityFunctions.Marker densityfunctions$marker
+                    && densityfunctions$marker.type() == DensityFunctions.Marker.Type.FlatCache) {
+                    // Neo: Share the flat cached columns between the noise chunks of neighbouring chunks
+                    return new DensityFunctions.Marker(
+                        DensityFunctions.Marker.Type.FlatCache, new NoiseColumnCache.Cached(densityfunctions$marker.wrapped(), new NoiseColumnCache())
+                    );
                 } else {
                     return (DensityFunction)(p_224596_ instanceof DensityFunctions.EndIslandDensityFunction
                         ? new DensityFunctions.EndIslandDensityFunction(pLevelSeed)
@@ -108,7 +116,9 @@ public final class RandomState {
                 if (p_249732_ instanceof DensityFunctions.HolderHolder densityfunctions$holderholder) {
                     return densityfunctions$holderholder.function().value();
                 } else {
-                    return p_249732_ instanceof DensityFunctions.Marker densityfunctions$marker ? densityfunctions$marker.wrapped() : p_249732_;
+                    return p_249732_ instanceof DensityFunctions.MarkerOrMarked densityfunctions$markerormarked
+                        ? densityfunctions$markerormarked.wrapped()
+                        : p_249732_;
                 }
             }
 
@@ -136,6 +146,13 @@ public final class RandomState {
         return this.positionalRandoms.computeIfAbsent(pLocation, p_224569_ -> this.random.fromHashOf(pLocation).forkPositional());
     }
 
+    /**
+     * Neo: Returns the preliminary surface levels shared by every {@link NoiseChunk} with the given settings.
+     */
+    public NoiseColumnCache preliminarySurfaceLevelCache(NoiseSettings pSettings) {
+        return this.preliminarySurfaceLevels.computeIfAbsent(pSettings, settings -> new NoiseColumnCache());
+    }
+
     public NoiseRouter router() {
         return this.router;
     }
@@ -9,6 +9,22 @@ import net.minecraft.util.RandomSource;
  */
 public final class ImprovedNoise {
     private static final float SHIFT_UP_EPSILON = 1.0E-7F;
+    /**
+     * Neo: The components of {@link SimplexNoise#GRADIENT} as doubles, so that sampling a corner does not load a nested array and convert its components.
+     * The dot product is computed in the same order as {@link SimplexNoise#dot(int[], double, double, double)}, so the results are bit for bit identical.
+     */
+    private static final double[] GRADIENT_X = new double[16];
+    private static final double[] GRADIENT_Y = new double[16];
+    private static final double[] GRADIENT_Z = new double[16];
+
+    static {
+        for(int i = 0; i < 16; ++i) {
+            GRADIENT_X[i] = (double)SimplexNoise.GRADIENT[i][0];
+            GRADIENT_Y[i] = (double)SimplexNoise.GRADIENT[i][1];
+            GRADIENT_Z[i] = (double)SimplexNoise.GRADIENT[i][2];
+        }
+    }
+
     /**
      * A permutation array used in noise calculation.
      * This is populated with the values [0, 256) and shuffled per instance of {@code ImprovedNoise}.
@@ -84,7 +100,8 @@ public final class ImprovedNoise {
     }
 
     private static double gradDot(int pGradIndex, double pXFactor, double pYFactor, double pZFactor) {
-        return SimplexNoise.dot(SimplexNoise.GRADIENT[pGradIndex & 15], pXFactor, pYFactor, pZFactor);
+        int i = pGradIndex & 15;
+        return GRADIENT_X[i] * pXFactor + GRADIENT_Y[i] * pYFactor + GRADIENT_Z[i] * pZFactor;
     }
 
     private int p(int pIndex) {
@@ -265,6 +265,22 @@ public abstract class LayerLightSectionStorage<M extends DataLayerStorageMap<M>>
 
     protected void swapSectionMap() {
         if (!this.changedSections.isEmpty()) {
+            // Neo: Release the data of layers that became uniform, by replacing them, as the old instance can still be visible to other threads.
+            // Dark sky light is kept, as an empty sky layer counts as missing (see DataLayer#ofData)
+            LongIterator longiterator = this.changedSections.iterator();
+
+            while(longiterator.hasNext()) {
+                long j = longiterator.nextLong();
+                DataLayer datalayer = this.updatingSectionData.getLayer(j);
+                if (datalayer != null && !datalayer.isDefinitelyHomogenous()) {
+                    int k = datalayer.getUniformValue();
+                    if (k != -1 && (k != 0 || this.layer != LightLayer.SKY)) {
+                        this.updatingSectionData.setLayer(j, new DataLayer(k));
+                    }
+                }
+            }
+
+            this.updatingSectionData.clearCache();
             M m = this.updatingSectionData.copy();
             m.disableCache();
             this.visibleSectionData = m;
@@ -1,5 +1,7 @@
 package net.minecraft.world.level.lighting;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import javax.annotation.Nullable;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.SectionPos;
@@ -57,6 +59,30 @@ public class LevelLightEngine implements LightEventListener {
         return i;
     }
 
+    /**
+     * Neo: Runs the pending updates like {@link #runLightUpdates()}, but propagates block light on the given executor while sky light is propagated
+     * on the calling thread. The two engines have their own storage and queues and only read the chunks, so they can run at the same time.
+     */
+    public int runLightUpdates(Executor pExecutor) {
+        if (this.blockEngine != null && this.skyEngine != null && this.blockEngine.hasLightWork() && this.skyEngine.hasLightWork()) {
+            CompletableFuture<Integer> completablefuture = CompletableFuture.supplyAsync(this.blockEngine::runLightUpdates, pExecutor);
+            int i = this.skyEngine.runLightUpdates();
+            return i + completablefuture.join();
+        } else {
+            // Not through runLightUpdates(), which the threaded engine overrides to prevent running it directly
+            int j = 0;
+            if (this.blockEngine != null) {
+                j += this.blockEngine.runLightUpdates();
+            }
+
+            if (this.skyEngine != null) {
+                j += this.skyEngine.runLightUpdates();
+            }
+
+            return j;
+        }
+    }
+
     @Override
     public void updateSectionStatus(SectionPos pPos, boolean pIsEmpty) {
         if (this.blockEngine != null) {
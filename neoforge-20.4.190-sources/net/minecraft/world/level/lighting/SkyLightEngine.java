@@ -305,6 +305,14 @@ public final class SkyLightEngine extends LightEngine<SkyLightSectionStorage.Sky
         int k = this.storage.getBottomSectionY();
         int l = SectionPos.sectionToBlockCoord(pChunkPos.x);
         int i1 = SectionPos.sectionToBlockCoord(pChunkPos.z);
+        // Neo: Every source of this chunk and the edges of its neighbours is at or below this height
+        int j5 = Math.max(
+            chunkskylightsources.getHighestLowestSourceY(),
+            Math.max(
+                Math.max(chunkskylightsources1.getHighestLowestSourceY(), chunkskylightsources2.getHighestLowestSourceY()),
+                Math.max(chunkskylightsources3.getHighestLowestSourceY(), chunkskylightsources4.getHighestLowestSourceY())
+            )
+        );
 
         for(int j1 = j - 1; j1 >= k; --j1) {
             long k1 = SectionPos.asLong(pChunkPos.x, j1, pChunkPos.z);
@@ -312,6 +320,12 @@ public final class SkyLightEngine extends LightEngine<SkyLightSectionStorage.Sky
             if (datalayer != null) {
                 int l1 = SectionPos.sectionToBlockCoord(j1);
                 int i2 = l1 + 15;
+                // Neo: A section entirely above every source is fully lit and has no source or edge to propagate from, so fill it without touching every block
+                if (l1 > j5) {
+                    datalayer.fill(15);
+                    continue;
+                }
+
                 boolean flag = false;
 
                 for(int j2 = 0; j2 < 16; ++j2) {
@@ -64,6 +64,26 @@ public abstract class SavedData {
         }
     }
 
+    /**
+     * Neo: Captures the data to save and clears the dirty flag, so the tag can be compressed and written off the server thread.
+     * The tag is a deep copy, as {@link #save(CompoundTag)} may hand out arrays that are still being modified.
+     *
+     * @return the tag to write, or {@code null} if this {@code SavedData} is not dirty
+     * @see net.minecraft.world.level.storage.DimensionDataStorage#save(boolean)
+     */
+    @javax.annotation.Nullable
+    public CompoundTag snapshotForSave() {
+        if (!this.isDirty()) {
+            return null;
+        } else {
+            CompoundTag compoundtag = new CompoundTag();
+            compoundtag.put("data", this.save(new CompoundTag()).copy());
+            NbtUtils.addCurrentDataVersion(compoundtag);
+            this.setDirty(false);
+            return compoundtag;
+        }
+    }
+
     public static record Factory<T extends SavedData>(Supplier<T> constructor, Function<CompoundTag, T> deserializer, @javax.annotation.Nullable DataFixTypes type) { // Neo: We do not have update logic compatible with DFU, several downstream patches from this record are made to support a nullable type.
 
         public Factory(Supplier<T> constructor, Function<CompoundTag, T> deserializer) {
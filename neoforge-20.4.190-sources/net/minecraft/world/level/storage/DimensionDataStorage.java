@@ -1,22 +1,36 @@
 package net.minecraft.world.level.storage;
 
 import com.google.common.collect.Maps;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import com.mojang.datafixers.DataFixer;
 import com.mojang.logging.LogUtils;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PushbackInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
 import javax.annotation.Nullable;
 import net.minecraft.SharedConstants;
+import net.minecraft.Util;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.NbtAccounter;
 import net.minecraft.nbt.NbtIo;
 import net.minecraft.nbt.NbtUtils;
 import net.minecraft.util.datafix.DataFixTypes;
+import net.minecraft.util.thread.ProcessorMailbox;
 import net.minecraft.world.level.saveddata.SavedData;
 import org.slf4j.Logger;
 
@@ -25,10 +39,16 @@ public class DimensionDataStorage {
     private final Map<String, SavedData> cache = Maps.newHashMap();
     private final DataFixer fixerUpper;
     private final File dataFolder;
+    // Neo: compresses and writes the snapshots taken by save off the server thread, one file at a time
+    private final ProcessorMailbox<Runnable> writer;
+    // Neo: only touched by the writer, holds the hash of the uncompressed data last written to each file
+    private final Map<String, HashCode> writtenHashes = Maps.newHashMap();
+    private volatile CompletableFuture<Void> lastWrite = CompletableFuture.completedFuture(null);
 
     public DimensionDataStorage(File pDataFolder, DataFixer pFixerUpper) {
         this.fixerUpper = pFixerUpper;
         this.dataFolder = pDataFolder;
+        this.writer = ProcessorMailbox.create(Util.ioPool(), "DimensionDataStorage-" + pDataFolder.getPath());
     }
 
     private File getDataFile(String pName) {
@@ -127,10 +147,72 @@ public class DimensionDataStorage {
     }
 
     public void save() {
+        this.save(true);
+    }
+
+    /**
+     * Neo: Snapshots every dirty {@link SavedData} on the calling thread and leaves compressing and writing them to a background writer.
+     * Each file is replaced atomically, and snapshots that are identical to what was last written are not written again.
+     *
+     * @param pFlush whether to wait until every write has finished
+     */
+    public void save(boolean pFlush) {
         this.cache.forEach((p_164866_, p_164867_) -> {
             if (p_164867_ != null) {
-                p_164867_.save(this.getDataFile(p_164866_));
+                CompoundTag compoundtag = p_164867_.snapshotForSave();
+                if (compoundtag != null) {
+                    File file1 = this.getDataFile(p_164866_);
+                    this.lastWrite = CompletableFuture.runAsync(() -> this.write(p_164866_, file1, compoundtag), this.writer::tell);
+                }
             }
         });
+        if (pFlush) {
+            this.flush();
+        }
+    }
+
+    /**
+     * Neo: Waits until every snapshot taken so far has been written.
+     */
+    public void flush() {
+        this.lastWrite.join();
+    }
+
+    private void write(String pName, File pFile, CompoundTag pTag) {
+        Path path = pFile.toPath();
+        Path path1 = null;
+
+        try {
+            ByteArrayOutputStream bytearrayoutputstream = new ByteArrayOutputStream();
+
+            try (DataOutputStream dataoutputstream = new DataOutputStream(bytearrayoutputstream)) {
+                NbtIo.write(pTag, dataoutputstream);
+            }
+
+            byte[] abyte = bytearrayoutputstream.toByteArray();
+            HashCode hashcode = Hashing.murmur3_128().hashBytes(abyte);
+            if (hashcode.equals(this.writtenHashes.get(pName)) && Files.isRegularFile(path)) {
+                return;
+            }
+
+            path1 = Files.createTempFile(path.getParent(), pFile.getName(), ".tmp");
+
+            try (OutputStream outputstream = new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(path1, StandardOpenOption.SYNC, StandardOpenOption.WRITE)))) {
+                outputstream.write(abyte);
+            }
+
+            Files.move(path1, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            this.writtenHashes.put(pName, hashcode);
+        } catch (IOException ioexception) {
+            LOGGER.error("Could not save data {}", pName, ioexception);
+        } finally {
+            if (path1 != null) {
+                try {
+                    Files.deleteIfExists(path1);
+                } catch (IOException ioexception1) {
+                    LOGGER.warn("Failed to delete temporary file {}", path1, ioexception1);
+                }
+            }
+        }
     }
 }
@@ -5,6 +5,7 @@
 
 package net.neoforged.neoforge.event.level;
 
+import java.util.function.Supplier;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.ai.village.poi.PoiManager;
@@ -15,6 +16,8 @@ import net.minecraft.world.level.chunk.ChunkStatus;
 import net.minecraft.world.level.chunk.storage.ChunkSerializer;
 import net.neoforged.bus.api.Event;
 import net.neoforged.neoforge.common.NeoForge;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * ChunkDataEvent is fired when an event involving chunk data occurs.<br>
@@ -78,8 +81,43 @@ public abstract class ChunkDataEvent extends ChunkEvent {
      * This event is fired on the {@link NeoForge#EVENT_BUS}.<br>
      **/
     public static class Save extends ChunkDataEvent {
+        @Nullable
+        private final Supplier<CompoundTag> dataFactory;
+        @Nullable
+        private CompoundTag data;
+
         public Save(ChunkAccess chunk, LevelAccessor world, CompoundTag data) {
             super(chunk, world, data);
+            this.dataFactory = null;
+            this.data = data;
+        }
+
+        /**
+         * Creates an event whose chunk data is only built once a listener asks for it.
+         * Chunks whose data no listener looks at are written without building the tag at all.
+         */
+        @ApiStatus.Internal
+        public Save(ChunkAccess chunk, LevelAccessor world, Supplier<CompoundTag> dataFactory) {
+            super(chunk, world, null);
+            this.dataFactory = dataFactory;
+        }
+
+        @Override
+        public CompoundTag getData() {
+            if (this.data == null) {
+                this.data = this.dataFactory.get();
+            }
+
+            return this.data;
+        }
+
+        /**
+         * {@return the chunk data if it has been built, or {@code null} if no listener asked for it}
+         */
+        @ApiStatus.Internal
+        @Nullable
+        public CompoundTag getDataIfBuilt() {
+            return this.data;
         }
     }
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.neoforge.server.command;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.commands.arguments.DimensionArgument;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
+
+/**
+ * Compacts the region files of a dimension while the server is running.
+ * Each region file is rewritten by the dimension's IO worker once it has no loads or saves queued.
+ */
+class CompactRegionsCommand {
+    private static final int DEFAULT_MIN_DEAD_SPACE_PERCENT = 10;
+
+    static ArgumentBuilder<CommandSourceStack, ?> register() {
+        return Commands.literal("compactregions")
+                .requires(cs -> cs.hasPermission(4)) //permission
+                .then(Commands.argument("dim", DimensionArgument.dimension())
+                        .then(Commands.argument("minDeadSpacePercent", IntegerArgumentType.integer(0, 100))
+                                .executes(ctx -> compact(ctx.getSource(), DimensionArgument.getDimension(ctx, "dim"), IntegerArgumentType.getInteger(ctx, "minDeadSpacePercent"))))
+                        .executes(ctx -> compact(ctx.getSource(), DimensionArgument.getDimension(ctx, "dim"), DEFAULT_MIN_DEAD_SPACE_PERCENT)))
+                .executes(ctx -> compact(ctx.getSource(), ctx.getSource().getLevel(), DEFAULT_MIN_DEAD_SPACE_PERCENT));
+    }
+
+    private static int compact(CommandSourceStack source, ServerLevel level, int minDeadSpacePercent) {
+        String dimension = level.dimension().location().toString();
+        source.sendSuccess(() -> Component.translatable("commands.neoforge.compactregions.started", dimension), true);
+
+        level.getChunkSource().chunkMap.compactRegions(minDeadSpacePercent / 100.0F).whenComplete((result, error) -> source.getServer().execute(() -> {
+            if (error != null) {
+                source.sendFailure(Component.translatable("commands.neoforge.compactregions.failed", dimension));
+            } else if (result.failed() > 0) {
+                source.sendFailure(Component.translatable("commands.neoforge.compactregions.partial", dimension, result.reclaimed() / 1024L, result.failed()));
+            } else {
+                source.sendSuccess(() -> Component.translatable("commands.neoforge.compactregions.done", dimension, result.reclaimed() / 1024L), true);
+            }
+        }));
+
+        return Command.SINGLE_SUCCESS;
+    }
+}
@@ -16,9 +16,12 @@ import net.minecraft.commands.Commands;
 import net.minecraft.commands.arguments.coordinates.BlockPosArgument;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.level.ChunkPos;
 import net.neoforged.neoforge.server.command.generation.GenerationBar;
+import net.neoforged.neoforge.server.command.generation.GenerationSavedData;
 import net.neoforged.neoforge.server.command.generation.GenerationTask;
 
 /**
@@ -42,6 +45,14 @@ class GenerateCommand {
         builder.then(Commands.literal("stop")
                 .executes(ctx -> stopGeneration(ctx.getSource())));
 
+        builder.then(Commands.literal("pause")
+                .executes(ctx -> pauseGeneration(ctx.getSource())));
+
+        builder.then(Commands.literal("resume")
+                .then(Commands.argument("progressBar", BoolArgumentType.bool())
+                        .executes(ctx -> resumeGeneration(ctx.getSource(), getBool(ctx, "progressBar"))))
+                .executes(ctx -> resumeGeneration(ctx.getSource(), true)));
+
         builder.then(Commands.literal("status")
                 .executes(ctx -> getGenerationStatus(ctx.getSource())));
 
@@ -67,15 +78,13 @@ class GenerateCommand {
 
         ChunkPos origin = new ChunkPos(pos);
 
-        activeTask = new GenerationTask(source.getLevel(), origin.x, origin.z, chunkRadius);
+        GenerationSavedData savedData = GenerationSavedData.getOrCreate(source.getLevel());
+        savedData.start(origin.x, origin.z, chunkRadius);
+        activeTask = new GenerationTask(source.getLevel(), savedData);
         int diameter = chunkRadius * 2 + 1;
 
         if (progressBar) {
-            generationBar = new GenerationBar();
-
-            if (source.getEntity() instanceof ServerPlayer) {
-                generationBar.addPlayer(source.getPlayer());
-            }
+            createGenerationBar(source);
         }
 
         source.sendSuccess(() -> Component.translatable("commands.neoforge.chunkgen.started",
@@ -96,8 +105,7 @@ class GenerateCommand {
             double percent = (double) count / total * 100.0;
             source.sendSuccess(() -> Component.translatable("commands.neoforge.chunkgen.stopped", count, total, percent), true);
 
-            generationBar.close();
-            generationBar = null;
+            closeGenerationBar();
             activeTask = null;
         } else {
             source.sendSuccess(() -> Component.translatable("commands.neoforge.chunkgen.not_running"), false);
@@ -106,6 +114,107 @@ class GenerateCommand {
         return Command.SINGLE_SUCCESS;
     }
 
+    private static int pauseGeneration(CommandSourceStack source) {
+        if (activeTask != null) {
+            activeTask.pause();
+
+            int count = activeTask.getOkCount() + activeTask.getErrorCount() + activeTask.getSkippedCount();
+            int total = activeTask.getTotalCount();
+
+            double percent = (double) count / total * 100.0;
+            source.sendSuccess(() -> Component.translatable("commands.neoforge.chunkgen.paused", count, total, percent), true);
+
+            closeGenerationBar();
+            activeTask = null;
+        } else {
+            source.sendSuccess(() -> Component.translatable("commands.neoforge.chunkgen.not_running"), false);
+        }
+
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int resumeGeneration(CommandSourceStack source, boolean progressBar) {
+        if (activeTask != null) {
+            source.sendSuccess(() -> Component.translatable("commands.neoforge.chunkgen.already_running"), true);
+            return Command.SINGLE_SUCCESS;
+        }
+
+        GenerationSavedData savedData = GenerationSavedData.get(source.getLevel());
+        if (savedData == null || !savedData.isActive()) {
+            source.sendSuccess(() -> Component.translatable("commands.neoforge.chunkgen.nothing_to_resume"), false);
+            return Command.SINGLE_SUCCESS;
+        }
+
+        if (progressBar) {
+            createGenerationBar(source);
+        }
+
+        resumeGeneration(source, source.getLevel(), savedData);
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static void resumeGeneration(CommandSourceStack source, ServerLevel level, GenerationSavedData savedData) {
+        savedData.setPaused(false);
+        activeTask = new GenerationTask(level, savedData);
+
+        int count = activeTask.getOkCount() + activeTask.getErrorCount() + activeTask.getSkippedCount();
+        int total = activeTask.getTotalCount();
+
+        double percent = (double) count / total * 100.0;
+        source.sendSuccess(() -> Component.translatable("commands.neoforge.chunkgen.resumed", level.dimension().location().toString(), count, total, percent), true);
+
+        activeTask.run(createPregenListener(source));
+    }
+
+    /**
+     * Continues the pregeneration that was running when the server last stopped, if there was one.
+     */
+    static void onServerStarted(MinecraftServer server) {
+        if (activeTask == null) {
+            resumeNextLevel(server);
+        }
+    }
+
+    /**
+     * Continues the saved pregeneration of the next level that was running and not paused. Only one task runs at a time,
+     * so the levels with saved progress are continued one after another as each task completes.
+     */
+    private static void resumeNextLevel(MinecraftServer server) {
+        for (ServerLevel level : server.getAllLevels()) {
+            GenerationSavedData savedData = GenerationSavedData.get(level);
+            if (savedData != null && savedData.isActive() && !savedData.isPaused()) {
+                resumeGeneration(server.createCommandSourceStack(), level, savedData);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stops the running pregeneration while keeping its progress, so that it is continued by {@link #onServerStarted(MinecraftServer)}.
+     */
+    static void onServerStopping() {
+        if (activeTask != null) {
+            activeTask.interrupt();
+            closeGenerationBar();
+            activeTask = null;
+        }
+    }
+
+    private static void createGenerationBar(CommandSourceStack source) {
+        generationBar = new GenerationBar();
+
+        if (source.getEntity() instanceof ServerPlayer) {
+            generationBar.addPlayer(source.getPlayer());
+        }
+    }
+
+    private static void closeGenerationBar() {
+        if (generationBar != null) {
+            generationBar.close();
+            generationBar = null;
+        }
+    }
+
     private static int getGenerationStatus(CommandSourceStack source) {
         if (activeTask != null) {
             int count = activeTask.getOkCount() + activeTask.getErrorCount() + activeTask.getSkippedCount();
@@ -142,11 +251,16 @@ class GenerateCommand {
                     source.sendFailure(Component.translatable("commands.neoforge.chunkgen.error"));
                 }
 
-                if (generationBar != null) {
-                    generationBar.close();
-                    generationBar = null;
-                }
+                closeGenerationBar();
                 activeTask = null;
+
+                // Continue any other level whose pregeneration was running when the server last stopped
+                MinecraftServer server = source.getServer();
+                server.execute(() -> {
+                    if (activeTask == null && server.isRunning()) {
+                        resumeNextLevel(server);
+                    }
+                });
             }
         };
     }
@@ -8,6 +8,8 @@ package net.neoforged.neoforge.server.command;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import net.minecraft.commands.CommandSourceStack;
+import net.neoforged.neoforge.event.server.ServerStartedEvent;
+import net.neoforged.neoforge.event.server.ServerStoppingEvent;
 import org.jetbrains.annotations.ApiStatus;
 
 @ApiStatus.Internal
@@ -19,8 +21,17 @@ public class NeoForgeCommand {
                         .then(TrackCommand.register())
                         .then(EntityCommand.register())
                         .then(GenerateCommand.register())
+                        .then(CompactRegionsCommand.register())
                         .then(DimensionsCommand.register())
                         .then(ModListCommand.register())
                         .then(TagsCommand.register()));
     }
+
+    public static void onServerStarted(ServerStartedEvent event) {
+        GenerateCommand.onServerStarted(event.getServer());
+    }
+
+    public static void onServerStopping(ServerStoppingEvent event) {
+        GenerateCommand.onServerStopping();
+    }
 }
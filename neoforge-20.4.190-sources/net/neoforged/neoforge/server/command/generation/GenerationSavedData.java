@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.neoforge.server.command.generation;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.saveddata.SavedData;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Stores the progress of the {@link GenerationTask} of a level, so that pregeneration can continue where it left off after a restart.
+ * <p>
+ * The cursor is the number of chunk positions in iteration order that are known to be done. Chunks after it that had already completed
+ * when the progress was saved are skipped cheaply on resume, as they are fully generated.
+ * <p>
+ * It is only accessed on the server thread, which also saves it, so the task hands its progress over with {@link net.minecraft.server.MinecraftServer#execute(Runnable)}.
+ */
+@ApiStatus.Internal
+public class GenerationSavedData extends SavedData {
+    private static final String NAME = "neoforge_generation";
+    private static final SavedData.Factory<GenerationSavedData> FACTORY = new SavedData.Factory<>(GenerationSavedData::new, GenerationSavedData::new);
+
+    private boolean active;
+    private boolean paused;
+    private int x;
+    private int z;
+    private int radius;
+    private int cursor;
+    private int okCount;
+    private int errorCount;
+    private int skippedCount;
+
+    public static GenerationSavedData getOrCreate(ServerLevel level) {
+        return level.getDataStorage().computeIfAbsent(FACTORY, NAME);
+    }
+
+    /**
+     * Returns the progress of the level without creating it, or {@code null} if the level never ran a pregeneration.
+     */
+    @Nullable
+    public static GenerationSavedData get(ServerLevel level) {
+        return level.getDataStorage().get(FACTORY, NAME);
+    }
+
+    public GenerationSavedData() {}
+
+    public GenerationSavedData(CompoundTag tag) {
+        this.active = tag.getBoolean("active");
+        this.paused = tag.getBoolean("paused");
+        this.x = tag.getInt("x");
+        this.z = tag.getInt("z");
+        this.radius = tag.getInt("radius");
+        this.cursor = tag.getInt("cursor");
+        this.okCount = tag.getInt("ok");
+        this.errorCount = tag.getInt("error");
+        this.skippedCount = tag.getInt("skipped");
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag) {
+        tag.putBoolean("active", this.active);
+        tag.putBoolean("paused", this.paused);
+        tag.putInt("x", this.x);
+        tag.putInt("z", this.z);
+        tag.putInt("radius", this.radius);
+        tag.putInt("cursor", this.cursor);
+        tag.putInt("ok", this.okCount);
+        tag.putInt("error", this.errorCount);
+        tag.putInt("skipped", this.skippedCount);
+        return tag;
+    }
+
+    public void start(int x, int z, int radius) {
+        this.active = true;
+        this.paused = false;
+        this.x = x;
+        this.z = z;
+        this.radius = radius;
+        this.cursor = 0;
+        this.okCount = 0;
+        this.errorCount = 0;
+        this.skippedCount = 0;
+        this.setDirty();
+    }
+
+    public void update(int cursor, int ok, int error, int skipped) {
+        if (this.active) {
+            this.cursor = cursor;
+            this.okCount = ok;
+            this.errorCount = error;
+            this.skippedCount = skipped;
+            this.setDirty();
+        }
+    }
+
+    public void setPaused(boolean paused) {
+        if (this.active) {
+            this.paused = paused;
+            this.setDirty();
+        }
+    }
+
+    public void clear() {
+        if (this.active) {
+            this.active = false;
+            this.paused = false;
+            this.setDirty();
+        }
+    }
+
+    /**
+     * Returns whether there is an unfinished pregeneration, whether it is paused or not.
+     */
+    public boolean isActive() {
+        return this.active;
+    }
+
+    /**
+     * Returns whether the pregeneration was paused by a command, rather than interrupted by the server stopping.
+     */
+    public boolean isPaused() {
+        return this.paused;
+    }
+
+    public int getX() {
+        return this.x;
+    }
+
+    public int getZ() {
+        return this.z;
+    }
+
+    public int getRadius() {
+        return this.radius;
+    }
+
+    public int getCursor() {
+        return this.cursor;
+    }
+
+    public int getOkCount() {
+        return this.okCount;
+    }
+
+    public int getErrorCount() {
+        return this.errorCount;
+    }
+
+    public int getSkippedCount() {
+        return this.skippedCount;
+    }
+}
@@ -6,11 +6,18 @@
 package net.neoforged.neoforge.server.command.generation;
 
 import com.mojang.datafixers.util.Either;
+import it.unimi.dsi.fastutil.ints.Int2ByteRBTreeMap;
+import it.unimi.dsi.fastutil.ints.Int2ByteSortedMap;
+import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
 import it.unimi.dsi.fastutil.longs.LongList;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import net.minecraft.Util;
 import net.minecraft.nbt.CompoundTag;
@@ -28,19 +35,31 @@ import net.minecraft.world.level.chunk.ChunkAccess;
 import net.minecraft.world.level.chunk.ChunkStatus;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Special thanks to Jasmine and Gegy for allowing us to use their pregenerator mod as a model to use in NeoForge!
  * Original code: <a href="https://github.com/jaskarth/fabric-chunkpregenerator">https://github.com/jaskarth/fabric-chunkpregenerator</a>
+ * <p>
+ * The number of chunks generating at once scales with the available cores and can be set with the {@code neoforge.pregenBatchSize} system property.
+ * No new chunks are queued while the server is slower than the tick rate given by the {@code neoforge.pregenTargetTps} system property, so pregeneration
+ * can run next to players.
  */
 public class GenerationTask {
     private static final Logger LOGGER = LogManager.getLogger();
-    private static final int BATCH_SIZE = 32;
-    private static final int QUEUE_THRESHOLD = 8;
+    private static final int BATCH_SIZE = Math.max(1, Integer.getInteger("neoforge.pregenBatchSize", Math.max(32, Runtime.getRuntime().availableProcessors() * 8)));
+    private static final int QUEUE_THRESHOLD = BATCH_SIZE / 4;
     private static final int COARSE_CELL_SIZE = 4;
+    private static final float MAX_TICK_TIME = 1000.0F / Math.max(1, Integer.getInteger("neoforge.pregenTargetTps", 18));
+    private static final long THROTTLE_DELAY_MS = 50L;
+    private static final byte RESULT_OK = 0;
+    private static final byte RESULT_ERROR = 1;
+    private static final byte RESULT_SKIPPED = 2;
 
     private final MinecraftServer server;
     private final ServerChunkCache chunkSource;
+    @Nullable
+    private final GenerationSavedData savedData;
 
     private final Iterator<ChunkPos> iterator;
     private final int x;
@@ -56,14 +75,40 @@ public class GenerationTask {
     private final AtomicInteger errorCount = new AtomicInteger();
     private final AtomicInteger skippedCount = new AtomicInteger();
 
+    // Guarded by progressLock, tracks the iteration index of every unfinished chunk so that the saved cursor never passes one
+    private final Object progressLock = new Object();
+    private final Long2IntMap inFlightIndices = new Long2IntOpenHashMap();
+    private final IntSortedSet inFlightOrder = new IntRBTreeSet();
+    // Guarded by progressLock, the results of finished chunks the cursor has not passed yet. They are only added to the saved counts once it does,
+    // as every chunk from the cursor on is counted again when the task is resumed
+    private final Int2ByteSortedMap finishedPastCursor = new Int2ByteRBTreeMap();
+    private int savedOkCount;
+    private int savedErrorCount;
+    private int savedSkippedCount;
+    private final int resumeIndex;
+    private int nextIndex;
+    private boolean retryScheduled;
+
     private volatile Listener listener;
     private volatile boolean stopped;
 
     public static final TicketType<ChunkPos> NEOFORGE_GENERATE_FORCED = TicketType.create("neoforge_generate_forced", Comparator.comparingLong(ChunkPos::toLong));
 
     public GenerationTask(ServerLevel serverLevel, int x, int z, int radius) {
+        this(serverLevel, x, z, radius, null);
+    }
+
+    /**
+     * Creates a task that stores its progress in the given saved data, continuing from any progress it already holds.
+     */
+    public GenerationTask(ServerLevel serverLevel, GenerationSavedData savedData) {
+        this(serverLevel, savedData.getX(), savedData.getZ(), savedData.getRadius(), savedData);
+    }
+
+    private GenerationTask(ServerLevel serverLevel, int x, int z, int radius, @Nullable GenerationSavedData savedData) {
         this.server = serverLevel.getServer();
         this.chunkSource = serverLevel.getChunkSource();
+        this.savedData = savedData;
 
         this.iterator = new CoarseOnionIterator(radius, COARSE_CELL_SIZE);
         this.x = x;
@@ -72,6 +117,18 @@ public class GenerationTask {
 
         int diameter = radius * 2 + 1;
         this.totalCount = diameter * diameter;
+
+        if (savedData != null) {
+            this.resumeIndex = savedData.getCursor();
+            this.savedOkCount = savedData.getOkCount();
+            this.savedErrorCount = savedData.getErrorCount();
+            this.savedSkippedCount = savedData.getSkippedCount();
+            this.okCount.set(this.savedOkCount);
+            this.errorCount.set(this.savedErrorCount);
+            this.skippedCount.set(this.savedSkippedCount);
+        } else {
+            this.resumeIndex = 0;
+        }
     }
 
     public int getOkCount() {
@@ -101,8 +158,40 @@ public class GenerationTask {
         CompletableFuture.runAsync(this::tryEnqueueTasks, Util.backgroundExecutor());
     }
 
+    /**
+     * Stops the task and forgets its saved progress.
+     */
     public void stop() {
+        this.halt();
+
+        if (this.savedData != null) {
+            this.server.execute(this.savedData::clear);
+        }
+    }
+
+    /**
+     * Stops the task but keeps its saved progress, so that it can be continued later with {@code /neoforge generate resume}.
+     */
+    public void pause() {
+        this.halt();
+
+        if (this.savedData != null) {
+            this.server.execute(() -> this.savedData.setPaused(true));
+        }
+    }
+
+    /**
+     * Stops the task but keeps its saved progress, so that it is continued automatically the next time the server starts.
+     */
+    public void interrupt() {
+        this.halt();
+    }
+
+    private void halt() {
         synchronized (this.queueLock) {
+            synchronized (this.progressLock) {
+                this.saveProgress(true);
+            }
             this.stopped = true;
             this.listener = null;
         }
@@ -119,10 +208,24 @@ public class GenerationTask {
                 return;
             }
 
+            // Give the server room to keep up, and check again shortly as nothing may be in flight to trigger the next batch
+            if (this.server.getCurrentSmoothedTickTime() > MAX_TICK_TIME) {
+                if (!this.retryScheduled) {
+                    this.retryScheduled = true;
+                    CompletableFuture.runAsync(this::retryEnqueueTasks, CompletableFuture.delayedExecutor(THROTTLE_DELAY_MS, TimeUnit.MILLISECONDS, Util.backgroundExecutor()));
+                }
+                return;
+            }
+
             LongList chunks = this.collectChunks(enqueueCount);
             if (chunks.isEmpty()) {
-                this.listener.complete(this.errorCount.get());
-                this.stopped = true;
+                if (this.queuedCount.get() == 0) {
+                    if (this.savedData != null) {
+                        this.server.execute(this.savedData::clear);
+                    }
+                    this.listener.complete(this.errorCount.get());
+                    this.stopped = true;
+                }
                 return;
             }
 
@@ -133,6 +236,14 @@ public class GenerationTask {
         }
     }
 
+    private void retryEnqueueTasks() {
+        synchronized (this.queueLock) {
+            this.retryScheduled = false;
+        }
+
+        this.tryEnqueueTasks();
+    }
+
     private void enqueueChunks(LongList chunks) {
         for (int i = 0; i < chunks.size(); i++) {
             long chunk = chunks.getLong(i);
@@ -168,13 +279,24 @@ public class GenerationTask {
     private void acceptChunkResult(long chunk, Either<ChunkAccess, ChunkHolder.ChunkLoadingFailure> result) {
         this.server.submit(() -> this.releaseChunk(chunk));
 
-        if (result.left().isPresent()) {
+        boolean ok = result.left().isPresent();
+        if (ok) {
             this.okCount.getAndIncrement();
         } else {
             this.errorCount.getAndIncrement();
         }
 
-        this.listener.update(this.okCount.get(), this.errorCount.get(), this.skippedCount.get(), this.totalCount);
+        synchronized (this.progressLock) {
+            int index = this.inFlightIndices.remove(chunk);
+            this.inFlightOrder.remove(index);
+            this.finishedPastCursor.put(index, ok ? RESULT_OK : RESULT_ERROR);
+            this.saveProgress(false);
+        }
+
+        Listener listener = this.listener;
+        if (listener != null) {
+            listener.update(this.okCount.get(), this.errorCount.get(), this.skippedCount.get(), this.totalCount);
+        }
 
         int queuedCount = this.queuedCount.decrementAndGet();
         if (queuedCount <= QUEUE_THRESHOLD) {
@@ -186,22 +308,74 @@ public class GenerationTask {
         LongList chunks = new LongArrayList(count);
 
         Iterator<ChunkPos> iterator = this.iterator;
+        // Skip the chunks that were already done before the task was resumed, their counts are part of the saved progress
+        if (this.nextIndex < this.resumeIndex) {
+            int skipped = this.nextIndex;
+            while (skipped < this.resumeIndex && iterator.hasNext()) {
+                iterator.next();
+                skipped++;
+            }
+
+            synchronized (this.progressLock) {
+                this.nextIndex = skipped;
+            }
+        }
+
         int i = 0;
         while (i < count && iterator.hasNext()) {
             ChunkPos chunkPosInLocalSpace = iterator.next();
+            int index;
+            synchronized (this.progressLock) {
+                index = this.nextIndex++;
+                this.inFlightOrder.add(index);
+            }
+
             if (isChunkFullyGenerated(chunkPosInLocalSpace)) {
                 this.skippedCount.incrementAndGet();
+                synchronized (this.progressLock) {
+                    this.inFlightOrder.remove(index);
+                    this.finishedPastCursor.put(index, RESULT_SKIPPED);
+                    this.saveProgress(false);
+                }
                 this.listener.update(this.okCount.get(), this.errorCount.get(), this.skippedCount.get(), this.totalCount);
                 continue;
             }
 
-            chunks.add(ChunkPos.asLong(chunkPosInLocalSpace.x + this.x, chunkPosInLocalSpace.z + this.z));
+            long chunk = ChunkPos.asLong(chunkPosInLocalSpace.x + this.x, chunkPosInLocalSpace.z + this.z);
+            synchronized (this.progressLock) {
+                this.inFlightIndices.put(chunk, index);
+            }
+            chunks.add(chunk);
             i++;
         }
 
         return chunks;
     }
 
+    // Must hold progressLock. The saved data is read by the autosave on the server thread, so it is only ever changed there, in the order the progress was made.
+    // Updates that only arrive after the task stopped are dropped, unless they are the final one, so they can not overwrite the progress of a newer task
+    private void saveProgress(boolean last) {
+        int cursor = this.inFlightOrder.isEmpty() ? Math.max(this.nextIndex, this.resumeIndex) : this.inFlightOrder.firstInt();
+        while (!this.finishedPastCursor.isEmpty() && this.finishedPastCursor.firstIntKey() < cursor) {
+            switch (this.finishedPastCursor.remove(this.finishedPastCursor.firstIntKey())) {
+                case RESULT_OK -> this.savedOkCount++;
+                case RESULT_ERROR -> this.savedErrorCount++;
+                default -> this.savedSkippedCount++;
+            }
+        }
+
+        if (this.savedData != null && !this.stopped) {
+            int ok = this.savedOkCount;
+            int error = this.savedErrorCount;
+            int skipped = this.savedSkippedCount;
+            this.server.execute(() -> {
+                if (last || !this.stopped) {
+                    this.savedData.update(cursor, ok, error, skipped);
+                }
+            });
+        }
+    }
+
     private void acquireChunk(long chunk) {
         ChunkPos pos = new ChunkPos(chunk);
         this.chunkSource.addRegionTicket(NEOFORGE_GENERATE_FORCED, pos, 0, pos);
@@ -209,7 +383,7 @@ public class GenerationTask {
 
     private void releaseChunk(long chunk) {
         ChunkPos pos = new ChunkPos(chunk);
-        this.chunkSource.addRegionTicket(NEOFORGE_GENERATE_FORCED, pos, 0, pos);
+        this.chunkSource.removeRegionTicket(NEOFORGE_GENERATE_FORCED, pos, 0, pos);
     }
 
     private boolean isChunkFullyGenerated(ChunkPos chunkPosInLocalSpace) {